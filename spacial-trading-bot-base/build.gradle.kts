@@ -4,6 +4,7 @@ plugins {
     id("com.diffplug.spotless") version "6.25.0"
     id("checkstyle")
     id("pmd")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "tech.hellsoft"
@@ -49,8 +50,184 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// Recetas y roles compilados a Java: el arranque no lee ni parsea JSON con Gson.
+val catalogoGenerado = layout.buildDirectory.dir("generated/sources/catalogo/java")
+
+val generarCatalogo = tasks.register("generarCatalogo") {
+    group = "build"
+    description = "Genera CatalogoGenerado.java desde recetas/especies.json y roles.json."
+    val especies = layout.projectDirectory.file("src/main/resources/recetas/especies.json")
+    val roles = layout.projectDirectory.file("src/main/resources/roles.json")
+    val salida = catalogoGenerado
+    inputs.files(especies, roles)
+    outputs.dir(salida)
+    doLast {
+        // Misma normalización que RecetaRepository; un producto desconocido rompe la compilación.
+        fun clave(especie: String) = especie.trim().uppercase().replace("-", "").replace("_", "").replace(" ", "")
+        fun producto(nombre: Any?) = "Product." + nombre.toString().trim().uppercase().replace('-', '_').replace(' ', '_')
+        fun decimal(valor: Any?) = (valor as Number?)?.toDouble()?.toString() ?: "null"
+
+        @Suppress("UNCHECKED_CAST")
+        val recetas = groovy.json.JsonSlurper().parse(especies.asFile) as Map<String, Map<String, Map<String, Any?>>>
+        @Suppress("UNCHECKED_CAST")
+        val parametros = groovy.json.JsonSlurper().parse(roles.asFile) as Map<String, Map<String, Any?>>
+
+        val java = StringBuilder()
+        java.append("""
+            |package tech.hellsoft.trading.repository;
+            |
+            |import java.util.EnumMap;
+            |import java.util.HashMap;
+            |import java.util.Map;
+            |import tech.hellsoft.trading.dto.server.Recipe;
+            |import tech.hellsoft.trading.enums.Product;
+            |import tech.hellsoft.trading.enums.RecipeType;
+            |
+            |// Generado por la tarea generarCatalogo desde recetas/especies.json y roles.json. No editar.
+            |final class CatalogoGenerado {
+            |
+            |  private CatalogoGenerado() {
+            |  }
+            |
+            |  static Map<String, Map<Product, Recipe>> recetas() {
+            |    Map<String, Map<Product, Recipe>> catalogo = new HashMap<>();
+            |    Map<Product, Recipe> recetas;
+            |    Map<Product, Integer> ingredientes;""".trimMargin()).append('\n')
+        recetas.entries.sortedBy { clave(it.key) }.forEach { (especie, productos) ->
+            java.append("\n    recetas = new EnumMap<>(Product.class);\n")
+            productos.values.filter { it["producto"] != null }.forEach { receta ->
+                @Suppress("UNCHECKED_CAST")
+                val ingredientes = (receta["ingredientes"] as Map<String, Any?>? ?: emptyMap()).filterValues { it != null }
+                val bonus = decimal(receta["bonusPremium"])
+                if (ingredientes.isEmpty()) {
+                    java.append("    recetas.put(${producto(receta["producto"])}, ")
+                        .append("Recipe.builder().type(RecipeType.BASIC).premiumBonus($bonus).build());\n")
+                    return@forEach
+                }
+                java.append("    ingredientes = new EnumMap<>(Product.class);\n")
+                ingredientes.forEach { (nombre, cantidad) ->
+                    java.append("    ingredientes.put(${producto(nombre)}, ${(cantidad as Number).toInt()});\n")
+                }
+                java.append("    recetas.put(${producto(receta["producto"])}, Recipe.builder().type(RecipeType.PREMIUM)")
+                    .append(".ingredients(ingredientes).premiumBonus($bonus).build());\n")
+            }
+            java.append("    catalogo.put(\"${clave(especie)}\", recetas);\n")
+        }
+        java.append("    return catalogo;\n  }\n\n")
+        java.append("  static Map<String, RolCatalogo> roles() {\n")
+        java.append("    Map<String, RolCatalogo> roles = new HashMap<>();\n")
+        parametros.entries.sortedBy { clave(it.key) }.forEach { (especie, rol) ->
+            java.append("    roles.put(\"${clave(especie)}\", new RolCatalogo(${(rol["maxDepth"] as Number).toInt()}, ")
+                .append("${decimal(rol["baseEnergy"])}, ${decimal(rol["levelEnergy"])}, ")
+                .append("${decimal(rol["decay"])}, ${decimal(rol["branches"])}));\n")
+        }
+        java.append("    return roles;\n  }\n}\n")
+
+        val destino = salida.get().file("tech/hellsoft/trading/repository/CatalogoGenerado.java").asFile
+        destino.parentFile.mkdirs()
+        destino.writeText(java.toString())
+    }
+}
+
+sourceSets {
+    main {
+        java.srcDir(generarCatalogo)
+    }
+    // Arnés de concurrencia en src/stress/java; ve las clases package-private de main.
+    create("stress") {
+        compileClasspath += main.get().output + main.get().compileClasspath
+        runtimeClasspath += output + compileClasspath + main.get().runtimeClasspath
+    }
+}
+
+// AppCDS: una corrida de entrenamiento contra la bolsa simulada (src/cds) vuelca
+// las clases cargadas a build/cds/app.jsa. CDS solo archiva clases de JARs, por
+// eso el classpath usa el jar y no build/classes.
+val archivoCds = layout.buildDirectory.file("cds/app.jsa")
+val classpathCds = files(tasks.jar, configurations.runtimeClasspath)
+
+tasks.register<JavaExec>("cdsArchivo") {
+    group = "build"
+    description = "Genera el archivo AppCDS con una corrida de entrenamiento contra la bolsa simulada."
+    val entrenamiento = layout.projectDirectory.dir("src/cds")
+    mainClass.set("tech.hellsoft.trading.Main")
+    classpath = classpathCds
+    inputs.dir(entrenamiento)
+    outputs.file(archivoCds)
+    jvmArgs("-XX:ArchiveClassesAtExit=${archivoCds.get().asFile.path}")
+    args(entrenamiento.file("config.json").asFile.path, "--script", entrenamiento.file("entrenamiento.txt").asFile.path)
+}
+
+// ./gradlew runCds -PrunArgs="config.json"
+tasks.register<JavaExec>("runCds") {
+    group = "application"
+    description = "Ejecuta el bot cargando las clases desde el archivo AppCDS."
+    dependsOn("cdsArchivo")
+    mainClass.set("tech.hellsoft.trading.Main")
+    classpath = classpathCds
+    standardInput = System.`in`
+    jvmArgs("-XX:SharedArchiveFile=${archivoCds.get().asFile.path}", "-Xshare:auto")
+    args = (project.findProperty("runArgs") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+// ./gradlew runJfr -PrunArgs="config.json"; grabación continua con los eventos tech.hellsoft.trading.*
+// (ventana de 6 h en disco, volcada a build/jfr al salir). Se abre con JMC o `jfr print`.
+tasks.register<JavaExec>("runJfr") {
+    group = "application"
+    description = "Ejecuta el bot con una grabación continua de Java Flight Recorder."
+    val carpetaJfr = layout.buildDirectory.dir("jfr")
+    mainClass.set("tech.hellsoft.trading.Main")
+    classpath = sourceSets["main"].runtimeClasspath
+    standardInput = System.`in`
+    doFirst { carpetaJfr.get().asFile.mkdirs() }
+    jvmArgs("-XX:StartFlightRecording=name=trading,settings=default,disk=true,maxage=6h,dumponexit=true,"
+        + "filename=${carpetaJfr.get().asFile.path}")
+    args = (project.findProperty("runArgs") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+tasks.withType<Checkstyle>().configureEach {
+    exclude("**/CatalogoGenerado.java")
+}
+
+tasks.withType<Pmd>().configureEach {
+    exclude("**/CatalogoGenerado.java")
+}
+
+// ./gradlew stressTest [-PstressArgs="--segundos 10 --eventos 50000"]; falla si se viola un invariante.
+val stressTest = tasks.register<JavaExec>("stressTest") {
+    group = "verification"
+    description = "Carga concurrente sobre ClienteBolsa/EstadoCliente y verificación de invariantes."
+    mainClass.set("tech.hellsoft.trading.cliente.EstresClienteBolsa")
+    classpath = sourceSets["stress"].runtimeClasspath
+    args = (project.findProperty("stressArgs") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+tasks.named("check") {
+    dependsOn(stressTest)
+}
+
+// ./gradlew replay -PreplayArgs="grabacion.bin --max"
+tasks.register<JavaExec>("replay") {
+    group = "application"
+    description = "Reproduce una grabación de eventos contra un conector sin red."
+    mainClass.set("tech.hellsoft.trading.grabacion.ReproductorEventos")
+    classpath = sourceSets["main"].runtimeClasspath
+    args = (project.findProperty("replayArgs") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+// ./gradlew cuentas -PcuentasArgs="cuentas/"   (archivos config o carpetas con *.json)
+tasks.register<JavaExec>("cuentas") {
+    group = "application"
+    description = "Ejecuta varias cuentas de trading en un mismo proceso."
+    mainClass.set("tech.hellsoft.trading.MultiCuenta")
+    classpath = sourceSets["main"].runtimeClasspath
+    standardInput = System.`in`
+    args = (project.findProperty("cuentasArgs") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
 spotless {
     java {
+        targetExclude("build/**")
         eclipse().configFile("${project.rootDir}/config/eclipse-format.xml")
         removeUnusedImports()
         trimTrailingWhitespace()
@@ -58,6 +235,72 @@ spotless {
     }
 }
 
+// Benchmarks en src/jmh/java: ./gradlew jmh [-PjmhIncludes=ClienteBolsa]
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+}
+
+tasks.register<Copy>("jmhGuardarBaseline") {
+    group = "benchmark"
+    description = "Guarda el último resultado de JMH como baseline versionado."
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into(layout.projectDirectory.dir("src/jmh/baseline"))
+}
+
+// ./gradlew jmh jmhComparar [-PjmhTolerancia=0.10] [-PjmhEstricto]
+tasks.register("jmhComparar") {
+    group = "benchmark"
+    description = "Compara el último resultado de JMH (tiempo y B/op) contra el baseline guardado."
+    val actual = layout.buildDirectory.file("results/jmh/results.json")
+    val baseline = layout.projectDirectory.file("src/jmh/baseline/results.json")
+    val tolerancia = (project.findProperty("jmhTolerancia") as String?)?.toDouble() ?: 0.10
+    val estricto = project.hasProperty("jmhEstricto")
+    doLast {
+        @Suppress("UNCHECKED_CAST")
+        fun leer(archivo: File): Map<String, Pair<Double, Double?>> =
+            (groovy.json.JsonSlurper().parse(archivo) as List<Map<String, Any?>>).associate { r ->
+                val params = (r["params"] as Map<String, Any?>?)
+                    ?.entries?.joinToString(",", "(", ")") { "${it.key}=${it.value}" } ?: ""
+                val primaria = r["primaryMetric"] as Map<String, Any?>
+                val secundarias = r["secondaryMetrics"] as Map<String, Map<String, Any?>>? ?: emptyMap()
+                val bytesPorOp = secundarias.entries.firstOrNull { it.key.endsWith("gc.alloc.rate.norm") }
+                    ?.value?.get("score") as Number?
+                "${r["benchmark"]}$params" to Pair((primaria["score"] as Number).toDouble(), bytesPorOp?.toDouble())
+            }
+        val archivoBase = baseline.asFile
+        if (!archivoBase.exists()) {
+            throw GradleException("No hay baseline en ${archivoBase}; ejecuta jmh y luego jmhGuardarBaseline.")
+        }
+        val base = leer(archivoBase)
+        val nuevo = leer(actual.get().asFile)
+        var regresiones = 0
+        nuevo.toSortedMap().forEach { (nombre, valores) ->
+            val previo = base[nombre]
+            if (previo == null) {
+                println(String.format("%-90s %12.2f   (nuevo)", nombre, valores.first))
+                return@forEach
+            }
+            val delta = (valores.first - previo.first) / previo.first
+            val bytes = if (valores.second != null && previo.second != null)
+                String.format("%8.0f → %8.0f B/op", previo.second, valores.second) else ""
+            val marca = if (delta > tolerancia) "  ⚠️" else ""
+            if (delta > tolerancia) {
+                regresiones++
+            }
+            println(String.format("%-90s %12.2f → %12.2f (%+6.1f%%) %s%s",
+                nombre, previo.first, valores.first, delta * 100, bytes, marca))
+        }
+        println("Regresiones por encima de ${(tolerancia * 100).toInt()}%: $regresiones")
+        if (estricto && regresiones > 0) {
+            throw GradleException("$regresiones benchmarks empeoraron más de ${(tolerancia * 100).toInt()}%")
+        }
+    }
+}
+
 checkstyle {
     toolVersion = "10.12.4"
     configFile = file("${project.rootDir}/config/checkstyle/checkstyle.xml")
@@ -0,0 +1,40 @@
+package tech.hellsoft.trading;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.hellsoft.trading.dto.server.TeamRole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculadoraProduccionBenchmark {
+
+  @Param({"5", "7"})
+  private int maxDepth;
+
+  private TeamRole rol;
+
+  @Setup
+  public void preparar() {
+    rol = TeamRole.builder().maxDepth(maxDepth).baseEnergy(8.5).levelEnergy(1.6).decay(0.8).branches(2).build();
+  }
+
+  @Benchmark
+  public int calcularUnidades() {
+    return CalculadoraProduccion.calcularUnidades(rol);
+  }
+}
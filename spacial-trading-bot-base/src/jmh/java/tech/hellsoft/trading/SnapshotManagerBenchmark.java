@@ -0,0 +1,66 @@
+package tech.hellsoft.trading;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.hellsoft.trading.cliente.EstadoCliente;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.exception.ConfiguracionInvalidaException;
+import tech.hellsoft.trading.exception.SnapshotCorruptoException;
+import tech.hellsoft.trading.repository.RecetaRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guardado y carga de un snapshot con inventario, precios y recetas reales.
+ * Incluye el costo de disco, que es lo que paga la consola.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotManagerBenchmark {
+
+  private EstadoCliente estado;
+  private File archivo;
+
+  @Setup
+  public void preparar() throws IOException, ConfiguracionInvalidaException {
+    estado = new EstadoCliente();
+    estado.establecerSaldoInicial(10_000.0);
+    for (Product producto : Product.values()) {
+      estado.sumarInventario(producto, 25);
+      estado.registrarPrecio(producto, 17.5);
+    }
+    estado.asignarRecetas(RecetaRepository.instancia().recetasParaEspecie("AVOCULTORES"));
+    archivo = File.createTempFile("snapshot-bench", ".bin");
+    SnapshotManager.guardar(estado, archivo);
+  }
+
+  @TearDown
+  public void limpiar() {
+    archivo.delete();
+  }
+
+  @Benchmark
+  public void guardar() throws ConfiguracionInvalidaException {
+    SnapshotManager.guardar(estado, archivo);
+  }
+
+  @Benchmark
+  public EstadoCliente cargar() throws ConfiguracionInvalidaException, SnapshotCorruptoException {
+    return SnapshotManager.cargar(archivo);
+  }
+}
@@ -0,0 +1,94 @@
+package tech.hellsoft.trading.cliente;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.hellsoft.trading.dto.server.TickerMessage;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publicar un ticker con {@code suscriptores} consumidores que nunca drenan
+ * (todo se confla) y un ciclo de publicar y drenar con un solo consumidor,
+ * que es lo que hace el tablero en cada cuadro.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanalTickersBenchmark {
+
+  private final TickerMessage[] tickers = new TickerMessage[Product.values().length];
+  private int siguiente;
+
+  @Setup
+  public void preparar() {
+    for (Product producto : Product.values()) {
+      tickers[producto.ordinal()] = TickerMessage.builder().type(MessageType.TICKER).product(producto)
+          .bestBid(9.9).bestAsk(10.1).mid(10.0).build();
+    }
+  }
+
+  @Benchmark
+  public TickerMessage publicar(SinDrenar estado) {
+    TickerMessage ticker = proximo();
+    estado.canal.publicar(ticker);
+    return ticker;
+  }
+
+  @Benchmark
+  public int publicarYDrenar(Drenado estado) {
+    estado.canal.publicar(proximo());
+    return estado.suscripcion.drenar(t -> { });
+  }
+
+  private TickerMessage proximo() {
+    siguiente = (siguiente + 1) % tickers.length;
+    return tickers[siguiente];
+  }
+
+  /** Canal con suscriptores que nunca drenan. */
+  @State(Scope.Thread)
+  public static class SinDrenar {
+
+    @Param({"0", "1", "4"})
+    int suscriptores;
+
+    CanalTickers canal;
+
+    @Setup
+    public void preparar() {
+      canal = new CanalTickers(new LongAdder());
+      for (int i = 0; i < suscriptores; i++) {
+        canal.suscribir();
+      }
+    }
+  }
+
+  /** Canal con un único suscriptor que drena después de cada publicación. */
+  @State(Scope.Thread)
+  public static class Drenado {
+
+    CanalTickers canal;
+    CanalTickers.Suscripcion suscripcion;
+
+    @Setup
+    public void preparar() {
+      canal = new CanalTickers(new LongAdder());
+      suscripcion = canal.suscribir();
+    }
+  }
+}
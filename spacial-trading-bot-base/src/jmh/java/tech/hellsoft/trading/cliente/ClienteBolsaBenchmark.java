@@ -0,0 +1,93 @@
+package tech.hellsoft.trading.cliente;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.hellsoft.trading.config.Configuration;
+import tech.hellsoft.trading.dto.server.FillMessage;
+import tech.hellsoft.trading.dto.server.TickerMessage;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.exception.ProductoNoAutorizadoException;
+import tech.hellsoft.trading.grabacion.ConectorBolsaNulo;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Callbacks calientes de {@link ClienteBolsa}: cada ticker y cada fill pasan
+ * por aquí en el hilo del websocket.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClienteBolsaBenchmark {
+
+  private ClienteBolsa cliente;
+  private TickerMessage[] tickers;
+  private FillMessage compra;
+  private FillMessage venta;
+  private int indice;
+
+  @Setup
+  public void preparar() {
+    Configuration config = new Configuration("bench", "AVOCULTORES", "local", "AVOCULTORES", null);
+    cliente = new ClienteBolsa(new ConectorBolsaNulo(), config);
+    cliente.estado().establecerSaldoInicial(10_000.0);
+    Product[] productos = Product.values();
+    tickers = new TickerMessage[productos.length];
+    for (int i = 0; i < productos.length; i++) {
+      tickers[i] = TickerMessage.builder().type(MessageType.TICKER).product(productos[i]).bestBid(9.5).bestAsk(10.5)
+          .mid(10.0 + i).build();
+    }
+    compra = fill(OrderSide.BUY);
+    venta = fill(OrderSide.SELL);
+  }
+
+  private static FillMessage fill(OrderSide lado) {
+    return FillMessage.builder().type(MessageType.FILL).clOrdID("ORD-BENCH").side(lado).product(Product.PALTA_OIL)
+        .fillQty(3).fillPrice(12.5).build();
+  }
+
+  @Benchmark
+  public void onTicker() {
+    TickerMessage ticker = tickers[indice];
+    indice = indice + 1 == tickers.length ? 0 : indice + 1;
+    cliente.onTicker(ticker);
+  }
+
+  @Benchmark
+  public void onFillCompraYVenta() {
+    // Se alternan lados para que el inventario y el saldo no crezcan sin límite.
+    cliente.onFill(compra);
+    cliente.onFill(venta);
+  }
+
+  @Benchmark
+  public void resolverProducto(Nombres nombres, Blackhole bh) throws ProductoNoAutorizadoException {
+    bh.consume(cliente.resolverProducto(nombres.nombreProducto));
+  }
+
+  /**
+   * Nombres tal como llegan desde la consola: valor exacto, con espacios y en
+   * formato de enum.
+   */
+  @State(Scope.Benchmark)
+  public static class Nombres {
+
+    @Param({"PALTA-OIL", "palta oil", "QUANTUM_PULP"})
+    String nombreProducto;
+  }
+}
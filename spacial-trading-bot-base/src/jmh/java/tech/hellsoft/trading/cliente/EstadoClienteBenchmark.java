@@ -0,0 +1,47 @@
+package tech.hellsoft.trading.cliente;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * P&L con todos los productos en inventario y con precio conocido, que es el
+ * peor caso para {@link EstadoCliente#calcularPL()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EstadoClienteBenchmark {
+
+  private EstadoCliente estado;
+
+  @Setup
+  public void preparar() {
+    estado = new EstadoCliente();
+    estado.establecerSaldoInicial(10_000.0);
+    int i = 1;
+    for (Product producto : Product.values()) {
+      estado.sumarInventario(producto, 10 * i);
+      estado.registrarPrecio(producto, 5.0 * i);
+      i++;
+    }
+  }
+
+  @Benchmark
+  public double calcularPL() {
+    return estado.calcularPL();
+  }
+}
@@ -0,0 +1,50 @@
+package tech.hellsoft.trading.cliente;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un fill de compra seguido de uno de venta sobre un libro con {@code lotes}
+ * lotes abiertos: el costo debe ser el mismo con 10 que con 10 000 lotes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LibroLotesBenchmark {
+
+  @Param({"10", "10000"})
+  private int lotes;
+
+  private final Product producto = Product.values()[0];
+  private LibroLotes libro;
+
+  @Setup
+  public void preparar() {
+    libro = new LibroLotes();
+    for (int i = 0; i < lotes; i++) {
+      libro.entrada(producto, 5, 5.0 * (i % 7 + 1));
+    }
+  }
+
+  @Benchmark
+  public double compraYVenta() {
+    libro.entrada(producto, 5, 30.0);
+    libro.salida(producto, 5, 35.0);
+    return libro.realizado();
+  }
+}
@@ -0,0 +1,89 @@
+package tech.hellsoft.trading.codec;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.hellsoft.trading.dto.client.AcceptOfferMessage;
+import tech.hellsoft.trading.dto.client.OrderMessage;
+import tech.hellsoft.trading.dto.client.ProductionUpdateMessage;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.OrderMode;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson reflexivo contra {@link CodificadorJson}. Que ambos produzcan los
+ * mismos bytes lo verifica {@code CodificadorJsonTest} dentro de
+ * {@code gradle check}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodificadorJsonBenchmark {
+
+  private final Gson gson = new Gson();
+  private final CodificadorJson codificador = new CodificadorJson();
+
+  private OrderMessage orden;
+  private AcceptOfferMessage respuesta;
+  private ProductionUpdateMessage produccion;
+
+  @Setup
+  public void preparar() {
+    orden = OrderMessage.builder().type(MessageType.ORDER).clOrdID("ORD-1730000000000-42").side(OrderSide.BUY)
+        .mode(OrderMode.MARKET).product(Product.PALTA_OIL).qty(25).message("Orden CLI").build();
+    respuesta = AcceptOfferMessage.builder().type(MessageType.ACCEPT_OFFER).offerId("OFF-7").accept(true)
+        .quantityOffered(10).priceOffered(12.5).build();
+    produccion = ProductionUpdateMessage.builder().type(MessageType.PRODUCTION_UPDATE).product(Product.GUACA)
+        .quantity(13).build();
+  }
+
+  @Benchmark
+  public String gsonOrden() {
+    return gson.toJson(orden);
+  }
+
+  @Benchmark
+  public int codificadorOrden() {
+    return codificador.codificar(orden);
+  }
+
+  @Benchmark
+  public int codificadorOrdenSinDto() {
+    return codificador.codificarOrden("ORD-1730000000000-42", OrderSide.BUY, OrderMode.MARKET, Product.PALTA_OIL, 25,
+        null, "Orden CLI");
+  }
+
+  @Benchmark
+  public String gsonRespuestaOferta() {
+    return gson.toJson(respuesta);
+  }
+
+  @Benchmark
+  public int codificadorRespuestaOferta() {
+    return codificador.codificar(respuesta);
+  }
+
+  @Benchmark
+  public String gsonProduccion() {
+    return gson.toJson(produccion);
+  }
+
+  @Benchmark
+  public int codificadorProduccion() {
+    return codificador.codificar(produccion);
+  }
+}
@@ -0,0 +1,45 @@
+package tech.hellsoft.trading.metricas;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de envolver un callback con una sonda de {@link ConsumoRecursos}:
+ * muestreo 0 es la sonda apagada, 1 mide cada llamada y 16 es el valor por
+ * defecto.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsumoRecursosBenchmark {
+
+  @Param({"0", "1", "16"})
+  int muestreo;
+
+  private ConsumoRecursos.Sonda sonda;
+
+  @Setup
+  public void preparar() {
+    sonda = new ConsumoRecursos(muestreo).sonda("callback.onTicker");
+  }
+
+  @Benchmark
+  public void iniciarYTerminar() {
+    ConsumoRecursos.Muestra muestra = sonda.iniciar();
+    sonda.terminar(muestra);
+  }
+}
@@ -0,0 +1,45 @@
+package tech.hellsoft.trading.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Búsqueda de receta local tal como la hace {@code ClienteBolsa.producir} en
+ * cada ciclo de auto-producción.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecetaRepositoryBenchmark {
+
+  @Param({"AVOCULTORES", "Minero del Sebo"})
+  private String equipo;
+
+  private RecetaRepository repositorio;
+
+  @Setup
+  public void preparar() {
+    repositorio = RecetaRepository.instancia();
+  }
+
+  @Benchmark
+  public Recipe recetaPara() {
+    return repositorio.recetaPara(null, equipo, Product.GUACA);
+  }
+}
@@ -2,11 +2,14 @@ package tech.hellsoft.trading;
 
 import tech.hellsoft.trading.cliente.ClienteBolsa;
 import tech.hellsoft.trading.cliente.EstadoCliente;
+import tech.hellsoft.trading.config.Ajustes;
 import tech.hellsoft.trading.enums.Product;
 import tech.hellsoft.trading.exception.IngredientesInsuficientesException;
 import tech.hellsoft.trading.exception.InventarioInsuficienteException;
 import tech.hellsoft.trading.exception.ProductoNoAutorizadoException;
 import tech.hellsoft.trading.exception.RecetaNoEncontradaException;
+import tech.hellsoft.trading.jfr.CicloProduccionEvento;
+import tech.hellsoft.trading.metricas.ConsumoRecursos;
 
 import java.util.Objects;
 import java.util.Timer;
@@ -17,6 +20,7 @@ public final class AutoProduccionManager {
 
   private final ClienteBolsa cliente;
   private final EstadoCliente estado;
+  private final ConsumoRecursos.Sonda consumoCiclo;
   private Timer timer;
   private volatile boolean activo;
   private volatile boolean premium;
@@ -26,6 +30,7 @@ public final class AutoProduccionManager {
   public AutoProduccionManager(ClienteBolsa clienteBolsa, EstadoCliente estadoCliente) {
     this.cliente = Objects.requireNonNull(clienteBolsa, "cliente");
     this.estado = Objects.requireNonNull(estadoCliente, "estado");
+    this.consumoCiclo = clienteBolsa.metricas().consumo().sondaSinMuestreo("auto.ciclo");
   }
 
   public synchronized void iniciar(String nombreProducto, boolean premiumSolicitado, long intervaloSegundos)
@@ -89,25 +94,51 @@ public final class AutoProduccionManager {
     if (objetivo == null) {
       return;
     }
+    CicloProduccionEvento evento = new CicloProduccionEvento();
+    evento.begin();
+    ConsumoRecursos.Muestra muestra = consumoCiclo.iniciar();
+    boolean esPremium = premium;
+    int lotes = 0;
+    int vendida = 0;
+    String error = null;
     try {
-      cliente.producir(objetivo.getValue(), premium);
-      liquidarInventario(objetivo);
+      lotes = lotesDelCiclo(objetivo);
+      cliente.producirLotes(objetivo.getValue(), esPremium, lotes);
+      vendida = liquidarInventario(objetivo);
     } catch (ProductoNoAutorizadoException | RecetaNoEncontradaException | IngredientesInsuficientesException e) {
+      error = e.getMessage();
       System.out.println("⚠️ AutoProducción (producción): " + e.getMessage());
     } catch (RuntimeException e) {
+      error = e.getMessage();
       System.out.println("⚠️ AutoProducción inesperada: " + e.getMessage());
+    } finally {
+      consumoCiclo.terminar(muestra);
+      evento.terminar(objetivo, lotes, esPremium, vendida, error);
     }
   }
 
-  private void liquidarInventario(Product objetivo) {
+  // Premium: todos los lotes que alcancen los ingredientes en una sola actualización; sin
+  // ingredientes se intenta uno para que el aviso diga qué falta.
+  private int lotesDelCiclo(Product objetivo) {
+    if (!premium) {
+      return 1;
+    }
+    int posibles = estado.lotesPremiumPosibles(objetivo);
+    return posibles < 1 || posibles == Integer.MAX_VALUE ? 1 : posibles;
+  }
+
+  // Devuelve la cantidad enviada a la venta (0 si no había inventario o la orden fue rechazada).
+  private int liquidarInventario(Product objetivo) {
     int disponible = estado.cantidadDisponible(objetivo);
     if (disponible <= 0) {
-      return;
+      return 0;
     }
     try {
       cliente.vender(objetivo.getValue(), disponible, "AutoProducción");
+      return disponible;
     } catch (ProductoNoAutorizadoException | InventarioInsuficienteException e) {
       System.out.println("⚠️ AutoProducción (venta): " + e.getMessage());
+      return 0;
     }
   }
 
@@ -115,8 +146,10 @@ public final class AutoProduccionManager {
     if (nombreProducto == null || nombreProducto.isBlank()) {
       throw new IllegalArgumentException("Debes indicar un producto objetivo.");
     }
-    if (intervaloSegundos <= 0) {
-      throw new IllegalArgumentException("El intervalo debe ser mayor a cero segundos.");
+    Ajustes ajustes = cliente.ajustes().actual();
+    if (intervaloSegundos < ajustes.autoIntervaloMinSeg() || intervaloSegundos > ajustes.autoIntervaloMaxSeg()) {
+      throw new IllegalArgumentException("El intervalo debe estar entre " + ajustes.autoIntervaloMinSeg() + " y "
+          + ajustes.autoIntervaloMaxSeg() + " segundos.");
     }
   }
 
@@ -10,26 +10,28 @@ public final class CalculadoraProduccion {
   }
 
   public static int calcularUnidades(TeamRole rol) {
-    if (rol == null) {
+    if (rol == null || rol.getMaxDepth() == null) {
       return 0;
     }
-    return calcularRecursivo(0, rol);
+    double branches = rol.getBranches() == null ? 1.0 : rol.getBranches();
+    return calcularUnidades(rol.getMaxDepth(), valor(rol.getBaseEnergy()), valor(rol.getLevelEnergy()),
+        valor(rol.getDecay(), 1.0), branches);
   }
 
-  private static int calcularRecursivo(int nivel, TeamRole rol) {
-    if (rol.getMaxDepth() == null || nivel > rol.getMaxDepth()) {
-      return 0;
+  /**
+   * Misma fórmula con parámetros primitivos (los de {@code roles.json} admiten
+   * ramas fraccionarias): suma la energía de cada nivel de 0 a {@code maxDepth}
+   * atenuada por {@code decay^nivel * branches^nivel}.
+   */
+  public static int calcularUnidades(int maxDepth, double baseEnergy, double levelEnergy, double decay,
+      double branches) {
+    int total = 0;
+    for (int nivel = 0; nivel <= maxDepth; nivel++) {
+      double energia = baseEnergy + levelEnergy * nivel;
+      double factor = Math.pow(decay, nivel) * Math.pow(branches, nivel);
+      total += (int) Math.round(energia * factor);
     }
-    double baseEnergy = valor(rol.getBaseEnergy());
-    double levelEnergy = valor(rol.getLevelEnergy());
-    double energia = baseEnergy + levelEnergy * nivel;
-
-    double decay = valor(rol.getDecay(), 1.0);
-    double branches = rol.getBranches() == null ? 1.0 : rol.getBranches();
-    double factor = Math.pow(decay, nivel) * Math.pow(branches, nivel);
-
-    int contribucion = (int) Math.round(energia * factor);
-    return contribucion + calcularRecursivo(nivel + 1, rol);
+    return total;
   }
 
   public static int aplicarBonusPremium(int unidadesBase, Recipe receta) {
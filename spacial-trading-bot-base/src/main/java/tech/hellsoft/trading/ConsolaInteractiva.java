@@ -2,11 +2,29 @@ package tech.hellsoft.trading;
 
 import tech.hellsoft.trading.cliente.ClienteBolsa;
 import tech.hellsoft.trading.cliente.EstadoCliente;
+import tech.hellsoft.trading.cliente.PosicionLotes;
 import tech.hellsoft.trading.dto.server.OfferMessage;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.enums.Product;
 import tech.hellsoft.trading.exception.*;
+import tech.hellsoft.trading.metricas.ConsumoRecursos;
+import tech.hellsoft.trading.metricas.SerieRendimientoGlobal;
+import tech.hellsoft.trading.repository.RolRepository;
+import tech.hellsoft.trading.simulador.ParametrosMonteCarlo;
+import tech.hellsoft.trading.simulador.SimuladorAutoProduccion;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -14,16 +32,48 @@ import java.util.stream.Collectors;
  */
 public final class ConsolaInteractiva {
 
+  private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+  // Por la API de control: no se aceptan comandos que pueden bloquear sin límite y simular tiene tope de tiempo.
+  private static final Set<String> SOLO_CONSOLA = Set.of("esperar", "script", "tablero");
+  private static final Duration LIMITE_SIMULACION_DAEMON = Duration.ofSeconds(10);
+
   private final ClienteBolsa cliente;
   private final EstadoCliente estado;
   private final AutoProduccionManager autoManager;
   private final Scanner scanner;
+  private final Map<String, Comando> comandos = new HashMap<>();
+  private boolean interactiva = true;
+  private boolean daemon;
+
+  @FunctionalInterface
+  private interface Comando {
+    void ejecutar(String[] partes) throws Exception;
+  }
+
+  /** Uso incorrecto o acción inválida: se muestra el mensaje tal cual y el comando cuenta como fallido. */
+  private static final class ComandoFallido extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    ComandoFallido(String mensaje) {
+      super(mensaje);
+    }
+  }
 
   public ConsolaInteractiva(ClienteBolsa clienteBolsa, EstadoCliente estadoCliente) {
     this.cliente = clienteBolsa;
     this.estado = estadoCliente;
     this.autoManager = new AutoProduccionManager(clienteBolsa, estadoCliente);
     this.scanner = new Scanner(System.in);
+    registrarComandos();
+  }
+
+  /** Consola del modo daemon: sin prompt, menús ni tablero; los comandos llegan por {@link #ejecutarComando}. */
+  public static ConsolaInteractiva sinTerminal(ClienteBolsa clienteBolsa, EstadoCliente estadoCliente) {
+    ConsolaInteractiva consola = new ConsolaInteractiva(clienteBolsa, estadoCliente);
+    consola.interactiva = false;
+    consola.daemon = true;
+    return consola;
   }
 
   public void iniciar() {
@@ -37,7 +87,7 @@ public final class ConsolaInteractiva {
       if (input.isEmpty()) {
         continue;
       }
-      if ("exit".equalsIgnoreCase(input) || "salir".equalsIgnoreCase(input)) {
+      if (esSalida(input)) {
         System.out.println("👋 Cerrando Trading Bot...");
         return;
       }
@@ -45,120 +95,122 @@ public final class ConsolaInteractiva {
     }
   }
 
-  private void procesarComando(String input) {
-    String[] partes = input.split("\\s+");
-    String comando = partes[0].toLowerCase(Locale.ROOT);
-    try {
-      switch (comando) {
-      case "help": {
-        imprimirAyuda();
-        break;
-      }
-      case "status": {
-        imprimirEstado();
-        break;
-      }
-      case "inventario": {
-        imprimirInventario();
-        break;
-      }
-      case "precios": {
-        imprimirPrecios();
-        break;
-      }
-      case "comprar": {
-        ejecutarCompra(partes);
-        break;
-      }
-      case "vender": {
-        ejecutarVenta(partes);
-        break;
-      }
-          case "producir": {
-
-              int opcion1;
-              String producto = null;
-              String tipo = null;
-
-
-              do {
-                  System.out.println("¿Que quiere producir?");
-                  System.out.println("1) FOSFO\n2) GUACA\n3) H-GUACA\n4) PALTA-OIL\n5) PITA\n6) SEBO");
-                  opcion1 = scanner.nextInt();
-                  scanner.nextLine();
-
-                  switch (opcion1) {
-                      case 1: producto = "FOSFO"; break;
-                      case 2: producto = "GUACA"; break;
-                      case 3: producto = "H-GUACA"; break;
-                      case 4: producto = "PALTA-OIL"; break;
-                      case 5: producto = "PITA"; break;
-                      case 6: producto = "SEBO"; break;
-                      default:
-                          System.out.println(" Opción inválida.");
-                          continue;
-                  }
-
-              } while (producto == null);
-
-
-              do {
-                  System.out.println("¿Que tipo de producto quiere que sea?");
-                  System.out.println("1) básica\n2) premium");
-                  opcion1 = scanner.nextInt();
-                  scanner.nextLine();
-
-                  switch (opcion1) {
-                      case 1: tipo = "basica"; break;
-                      case 2: tipo = "premium"; break;
-                      default:
-                          System.out.println(" Opción inválida.");
-                          continue;
-                  }
-
-              } while (tipo == null);
-
-
-              String[] nuevasPartes = new String[] {
-                      "producir",
-                      producto,
-                      tipo
-              };
-
-              ejecutarProduccion(nuevasPartes);
-              break;
-          }
-      case "ofertas": {
-        imprimirOfertas();
-        break;
-      }
-      case "aceptar": {
-        aceptarOferta(partes, true);
-        break;
-      }
-      case "rechazar": {
-        aceptarOferta(partes, false);
-        break;
-      }
-      case "snapshot": {
-        manejarSnapshot(partes);
-        break;
-      }
-      case "resync": {
-        cliente.resincronizar();
-        break;
-      }
-      case "auto": {
-        manejarAuto(partes);
-        break;
-      }
-      default: {
-        System.out.println(" Comando desconocido. Usa 'help' para ver opciones.");
-        break;
-      }
+  /**
+   * Ejecuta comandos línea por línea sin prompt ni menús. Ignora líneas vacías y
+   * las que empiezan con '#'; 'exit' termina el script. Un comando fallido se
+   * informa y se sigue con el siguiente.
+   */
+  public void ejecutarScript(Reader origen) throws IOException {
+    boolean anterior = interactiva;
+    interactiva = false;
+    int ejecutados = 0;
+    int fallidos = 0;
+    long inicio = System.nanoTime();
+    try (BufferedReader lector = new BufferedReader(origen)) {
+      String linea;
+      while ((linea = lector.readLine()) != null) {
+        String input = linea.trim();
+        if (input.isEmpty() || input.charAt(0) == '#') {
+          continue;
+        }
+        if (esSalida(input)) {
+          break;
+        }
+        ejecutados++;
+        if (!procesarComando(input)) {
+          fallidos++;
+        }
       }
+    } finally {
+      interactiva = anterior;
+    }
+    long ms = Math.max(1L, (System.nanoTime() - inicio) / 1_000_000L);
+    System.out.printf("Script: %d comandos (%d con error) en %d ms → %.0f cmd/s%n", ejecutados, fallidos, ms,
+        ejecutados * 1000.0 / ms);
+  }
+
+  /**
+   * Ejecuta una sola línea desde fuera de la consola (API de control). Las
+   * llamadas se serializan para que dos clientes no mezclen comandos; 'exit'
+   * se rechaza porque cerrar el proceso le corresponde a quien lo supervisa, y
+   * esperar, script y tablero porque retendrían el turno sin límite.
+   */
+  public synchronized boolean ejecutarComando(String linea) {
+    String input = linea == null ? "" : linea.trim();
+    if (input.isEmpty()) {
+      return false;
+    }
+    if (esSalida(input)) {
+      System.out.println("Para terminar usa POST /detener o SIGTERM.");
+      return false;
+    }
+    String nombre = ESPACIOS.split(input, 2)[0].toLowerCase(Locale.ROOT);
+    if (SOLO_CONSOLA.contains(nombre)) {
+      System.out.println("'" + nombre + "' solo está disponible en la consola.");
+      return false;
+    }
+    return procesarComando(input);
+  }
+
+  public boolean autoProduccionActiva() {
+    return autoManager.activo();
+  }
+
+  private boolean esSalida(String input) {
+    return "exit".equalsIgnoreCase(input) || "salir".equalsIgnoreCase(input);
+  }
+
+  // Tabla de despacho: se arma una vez y cada línea se resuelve con una búsqueda.
+  private void registrarComandos() {
+    comandos.put("help", partes -> imprimirAyuda());
+    comandos.put("status", partes -> imprimirEstado());
+    comandos.put("inventario", partes -> imprimirInventario());
+    comandos.put("precios", partes -> imprimirPrecios());
+    comandos.put("capacidad", partes -> imprimirCapacidad());
+    comandos.put("posiciones", partes -> imprimirPosiciones());
+    comandos.put("roles", this::imprimirRoles);
+    comandos.put("comprar", this::ejecutarCompra);
+    comandos.put("vender", this::ejecutarVenta);
+    comandos.put("producir", this::manejarProduccion);
+    comandos.put("ofertas", partes -> imprimirOfertas());
+    comandos.put("aceptar", partes -> aceptarOferta(partes, true));
+    comandos.put("rechazar", partes -> aceptarOferta(partes, false));
+    comandos.put("snapshot", this::manejarSnapshot);
+    comandos.put("resync", partes -> cliente.resincronizar());
+    comandos.put("auto", this::manejarAuto);
+    comandos.put("simular", this::simularAuto);
+    comandos.put("metrics", partes -> cliente.metricas().imprimir(System.out));
+    comandos.put("latencia", partes -> cliente.seguimiento().imprimir(System.out));
+    comandos.put("consumo", partes -> cliente.metricas().consumo().imprimir(System.out));
+    comandos.put("rendimiento", this::manejarRendimiento);
+    comandos.put("grabar", this::manejarGrabacion);
+    comandos.put("script", this::manejarScript);
+    comandos.put("esperar", this::esperar);
+    comandos.put("tablero", this::mostrarTablero);
+    comandos.put("ajustes", partes -> System.out.println(cliente.ajustes().actual()));
+  }
+
+  private boolean procesarComando(String input) {
+    String[] partes = ESPACIOS.split(input);
+    String nombre = partes[0].toLowerCase(Locale.ROOT);
+    Comando comando = comandos.get(nombre);
+    if (comando == null) {
+      System.out.println(" Comando desconocido. Usa 'help' para ver opciones.");
+      return false;
+    }
+    ConsumoRecursos.Sonda sonda = cliente.metricas().consumo().sondaSinMuestreo("comando." + nombre);
+    ConsumoRecursos.Muestra muestra = sonda.iniciar();
+    try {
+      comando.ejecutar(partes);
+      return true;
+    } catch (ComandoFallido e) {
+      System.out.println(e.getMessage());
+      return false;
     } catch (Exception e) {
       System.out.println("todo mal pa " + e.getMessage());
+      return false;
+    } finally {
+      sonda.terminar(muestra);
     }
   }
 
@@ -173,10 +225,14 @@ public final class ConsolaInteractiva {
     System.out.println("\nComandos disponibles:");
     System.out.println(" status                      → Saldo, inventario y P&L");
     System.out.println(" inventario                  → Lista inventario actual");
+    System.out.println(" capacidad                   → Lotes premium posibles por receta y su cuello de botella");
+    System.out.println(" posiciones                  → Costo promedio FIFO y P&L no realizado por producto");
+    System.out.println(" roles [especie]             → Unidades por lote básico y premium del catálogo local");
+    System.out.println(" rendimiento [exportar <ruta>] → Volumen del mercado, participación y tendencia");
     System.out.println(" precios                     → Últimos precios conocidos");
     System.out.println(" comprar <prod> <qty> [msg]  → Envía orden de compra");
     System.out.println(" vender <prod> <qty> [msg]   → Envía orden de venta");
-    System.out.println(" producir <prod> <tipo>      → tipo: basico|premium");
+    System.out.println(" producir [prod tipo [lotes]] → tipo: basico|premium (sin args: menú)");
     System.out.println(" ofertas                     → Ofertas pendientes");
     System.out.println(" aceptar <offerId>           → Acepta oferta existente");
     System.out.println(" rechazar <offerId> [motivo] → Rechaza oferta");
@@ -186,6 +242,16 @@ public final class ConsolaInteractiva {
     System.out.println(" auto start <p> <modo> [s]   → Activa auto-producción");
     System.out.println(" auto stop                   → Detiene auto-producción");
     System.out.println(" auto status                 → Estado del auto manager");
+    System.out.println(" simular [sesiones] [seg]    → Monte Carlo de auto start: ranking por P&L esperado");
+    System.out.println(" metrics                     → Contadores, gauges y latencias");
+    System.out.println(" latencia                    → Latencias por producto y lado");
+    System.out.println(" consumo                     → Bytes asignados y CPU por evento y comando");
+    System.out.println(" grabar start <ruta>         → Graba eventos del servidor");
+    System.out.println(" grabar stop                 → Detiene la grabación");
+    System.out.println(" script <ruta>               → Ejecuta comandos desde archivo");
+    System.out.println(" esperar <ms>                → Pausa (útil en scripts)");
+    System.out.println(" tablero [fps]               → Tablero en vivo (Enter para salir)");
+    System.out.println(" ajustes                     → Ajustes vigentes (se recargan de config.json)");
     System.out.println(" exit                        → Terminar aplicación\n");
   }
 
@@ -197,6 +263,25 @@ public final class ConsolaInteractiva {
     System.out.printf("📦 Valor inventario: %.2f%n", inventario);
     System.out.printf("💎 Patrimonio neto: %.2f%n", patrimonio);
     System.out.printf("📈 P&L: %.2f%%%n", estado.calcularPL());
+    System.out.printf("🧾 P&L realizado: %.2f | no realizado: %.2f%n", estado.plRealizado(), estado.plNoRealizado());
+  }
+
+  private void imprimirPosiciones() {
+    List<PosicionLotes> posiciones = estado.posiciones();
+    if (posiciones.isEmpty()) {
+      System.out.println("Sin lotes abiertos.");
+      return;
+    }
+    System.out.printf("%-14s %10s %12s %12s %14s%n", "Producto", "Cantidad", "Costo prom.", "Precio", "No realizado");
+    for (PosicionLotes posicion : posiciones) {
+      Double precio = posicion.precio();
+      System.out.printf(Locale.ROOT, "%-14s %10d %12.2f %12s %14s%n", posicion.producto().getValue(),
+          posicion.cantidad(), posicion.costoPromedio(),
+          precio == null ? "-" : String.format(Locale.ROOT, "%.2f", precio),
+          precio == null ? "-" : String.format(Locale.ROOT, "%.2f", posicion.noRealizado()));
+    }
+    System.out.printf(Locale.ROOT, "Realizado: %.2f | No realizado: %.2f%n", estado.plRealizado(),
+        estado.plNoRealizado());
   }
 
   private void imprimirInventario() {
@@ -207,6 +292,71 @@ public final class ConsolaInteractiva {
     estado.inventario().forEach((producto, cantidad) -> System.out.printf("- %s: %d%n", producto.getValue(), cantidad));
   }
 
+  private void manejarRendimiento(String[] partes) throws IOException {
+    if (partes.length >= 2 && "exportar".equalsIgnoreCase(partes[1])) {
+      File destino = partes.length >= 3 ? new File(partes[2]) : null;
+      System.out.println("Rendimiento exportado a " + cliente.exportarRendimiento(destino).getAbsolutePath());
+      return;
+    }
+    SerieRendimientoGlobal serie = cliente.rendimiento();
+    SerieRendimientoGlobal.Punto ultimo = serie.ultimo();
+    if (ultimo == null) {
+      System.out.println("Sin reportes de rendimiento global aún.");
+      return;
+    }
+    long ventana = ClienteBolsa.VENTANA_MERCADO_MS;
+    System.out.printf(Locale.ROOT, "Reportes: %d (%d puntos en memoria, %d compactaciones)%n", serie.reportes(),
+        serie.puntos(), serie.compactaciones());
+    System.out.printf(Locale.ROOT, "Mercado: %d trades, volumen %.2f | propio %.2f%n", ultimo.trades(),
+        ultimo.volumen(), ultimo.volumenPropio());
+    System.out.printf(Locale.ROOT, "Últimos 5 min: volumen %.2f (%.2f/s) | participación %s | tendencia %s%n",
+        serie.volumenEn(ventana), serie.tasaVolumen(ventana), porcentaje(serie.participacion(ventana)),
+        porcentaje(serie.tendencia(ventana)));
+    System.out.println("Actividad actual: percentil " + porcentaje(serie.percentilActividad()) + " de la sesión");
+  }
+
+  private static String porcentaje(double fraccion) {
+    return Double.isNaN(fraccion) ? "-" : String.format(Locale.ROOT, "%.1f%%", fraccion * 100);
+  }
+
+  private void imprimirCapacidad() {
+    Map<Product, Recipe> recetas = estado.recetas();
+    if (recetas.isEmpty()) {
+      System.out.println("Sin recetas asignadas aún.");
+      return;
+    }
+    for (Product producto : recetas.keySet()) {
+      int lotes = estado.lotesPremiumPosibles(producto);
+      Product cuello = estado.cuelloDeBotella(producto);
+      if (cuello == null) {
+        System.out.printf("- %s: sin ingredientes%n", producto.getValue());
+        continue;
+      }
+      System.out.printf("- %s: %d lotes premium (limita %s)%n", producto.getValue(), lotes, cuello.getValue());
+    }
+  }
+
+  private void imprimirRoles(String[] partes) {
+    RolRepository repositorio = RolRepository.instancia();
+    List<RolRepository.Rendimiento> rendimientos = repositorio.rendimientos();
+    if (partes.length >= 2) {
+      RolRepository.Rendimiento uno = repositorio.rendimientoParaEspecie(partes[1]);
+      rendimientos = uno == null ? List.of() : List.of(uno);
+    }
+    if (rendimientos.isEmpty()) {
+      System.out.println("Sin roles en el catálogo local para esa especie.");
+      return;
+    }
+    System.out.printf("Lote básico con el rol actual: %s%n",
+        estado.unidadesBasicas() < 0 ? "sin rol del servidor" : estado.unidadesBasicas() + " unidades");
+    for (RolRepository.Rendimiento rendimiento : rendimientos) {
+      String premium = rendimiento.unidadesPremium().entrySet().stream()
+          .map(e -> e.getKey().getValue() + " " + e.getValue()).collect(Collectors.joining(", "));
+      System.out.printf("- %s: básico %d | premium: %s%n", rendimiento.especie(), rendimiento.unidadesBasicas(),
+          premium.isEmpty() ? "-" : premium);
+    }
+  }
+
   private void imprimirPrecios() {
     if (estado.precios().isEmpty()) {
       System.out.println("Sin tickers recibidos aún.");
@@ -215,10 +365,10 @@ public final class ConsolaInteractiva {
     estado.precios().forEach((producto, precio) -> System.out.printf("- %s: %.2f%n", producto.getValue(), precio));
   }
 
-  private void ejecutarCompra(String[] partes) throws SaldoInsuficienteException, ProductoNoAutorizadoException {
+  private void ejecutarCompra(String[] partes)
+      throws SaldoInsuficienteException, ProductoNoAutorizadoException, ComandoFallido {
     if (partes.length < 3) {
-      System.out.println("Uso: comprar <producto> <cantidad> [mensaje]");
-      return;
+      throw new ComandoFallido("Uso: comprar <producto> <cantidad> [mensaje]");
     }
     String producto = partes[1];
     int cantidad = Integer.parseInt(partes[2]);
@@ -226,10 +376,10 @@ public final class ConsolaInteractiva {
     cliente.comprar(producto, cantidad, mensaje);
   }
 
-  private void ejecutarVenta(String[] partes) throws InventarioInsuficienteException, ProductoNoAutorizadoException {
+  private void ejecutarVenta(String[] partes)
+      throws InventarioInsuficienteException, ProductoNoAutorizadoException, ComandoFallido {
     if (partes.length < 3) {
-      System.out.println("Uso: vender <producto> <cantidad> [mensaje]");
-      return;
+      throw new ComandoFallido("Uso: vender <producto> <cantidad> [mensaje]");
     }
     String producto = partes[1];
     int cantidad = Integer.parseInt(partes[2]);
@@ -237,15 +387,70 @@ public final class ConsolaInteractiva {
     cliente.vender(producto, cantidad, mensaje);
   }
 
+  private void manejarProduccion(String[] partes)
+      throws ProductoNoAutorizadoException, RecetaNoEncontradaException, IngredientesInsuficientesException,
+      ComandoFallido {
+    if (partes.length >= 3 || !interactiva) {
+      ejecutarProduccion(partes);
+      return;
+    }
+    ejecutarProduccion(elegirProduccion());
+  }
+
+  private String[] elegirProduccion() {
+    int opcion1;
+    String producto = null;
+    String tipo = null;
+
+    do {
+      System.out.println("¿Que quiere producir?");
+      System.out.println("1) FOSFO\n2) GUACA\n3) H-GUACA\n4) PALTA-OIL\n5) PITA\n6) SEBO");
+      opcion1 = scanner.nextInt();
+      scanner.nextLine();
+
+      switch (opcion1) {
+        case 1: producto = "FOSFO"; break;
+        case 2: producto = "GUACA"; break;
+        case 3: producto = "H-GUACA"; break;
+        case 4: producto = "PALTA-OIL"; break;
+        case 5: producto = "PITA"; break;
+        case 6: producto = "SEBO"; break;
+        default:
+          System.out.println(" Opción inválida.");
+          continue;
+      }
+
+    } while (producto == null);
+
+    do {
+      System.out.println("¿Que tipo de producto quiere que sea?");
+      System.out.println("1) básica\n2) premium");
+      opcion1 = scanner.nextInt();
+      scanner.nextLine();
+
+      switch (opcion1) {
+        case 1: tipo = "basica"; break;
+        case 2: tipo = "premium"; break;
+        default:
+          System.out.println(" Opción inválida.");
+          continue;
+      }
+
+    } while (tipo == null);
+
+    return new String[] {"producir", producto, tipo};
+  }
+
   private void ejecutarProduccion(String[] partes)
-      throws ProductoNoAutorizadoException, RecetaNoEncontradaException, IngredientesInsuficientesException {
+      throws ProductoNoAutorizadoException, RecetaNoEncontradaException, IngredientesInsuficientesException,
+      ComandoFallido {
     if (partes.length < 3) {
-      System.out.println("Uso: producir <producto> <basico|premium>");
-      return;
+      throw new ComandoFallido("Uso: producir <producto> <basico|premium> [lotes]");
     }
     String producto = partes[1];
     boolean premium = "premium".equalsIgnoreCase(partes[2]);
-    cliente.producir(producto, premium);
+    int lotes = partes.length > 3 ? Integer.parseInt(partes[3]) : 1;
+    cliente.producirLotes(producto, premium, lotes);
   }
 
   private void imprimirOfertas() {
@@ -267,18 +472,18 @@ public final class ConsolaInteractiva {
     });
   }
 
-  private void aceptarOferta(String[] partes, boolean aceptar) throws InventarioInsuficienteException {
+  private void aceptarOferta(String[] partes, boolean aceptar)
+      throws InventarioInsuficienteException, OfertaExpiradaException, ComandoFallido {
     if (partes.length < 2) {
-      System.out.println(aceptar ? "Uso: aceptar <offerId>" : "Uso: rechazar <offerId>");
-      return;
+      throw new ComandoFallido(aceptar ? "Uso: aceptar <offerId>" : "Uso: rechazar <offerId>");
     }
     cliente.aceptarOferta(partes[1], aceptar);
   }
 
-  private void manejarSnapshot(String[] partes) throws ConfiguracionInvalidaException, SnapshotCorruptoException {
+  private void manejarSnapshot(String[] partes)
+      throws ConfiguracionInvalidaException, SnapshotCorruptoException, ComandoFallido {
     if (partes.length < 3) {
-      System.out.println("Uso: snapshot <save|load> <ruta>");
-      return;
+      throw new ComandoFallido("Uso: snapshot <save|load> <ruta>");
     }
     String accion = partes[1];
     File ruta = new File(partes[2]);
@@ -290,7 +495,51 @@ public final class ConsolaInteractiva {
       cliente.cargarSnapshot(ruta);
       return;
     }
-    System.out.println("Acción inválida. Usa snapshot save|load.");
+    throw new ComandoFallido("Acción inválida. Usa snapshot save|load.");
+  }
+
+  private void manejarGrabacion(String[] partes) throws IOException, ComandoFallido {
+    String accion = partes.length > 1 ? partes[1].toLowerCase(Locale.ROOT) : "";
+    if ("start".equals(accion) && partes.length > 2) {
+      cliente.iniciarGrabacion(new File(partes[2]));
+      return;
+    }
+    if ("stop".equals(accion)) {
+      long eventos = cliente.detenerGrabacion();
+      System.out.println("Grabación detenida (" + eventos + " eventos).");
+      return;
+    }
+    throw new ComandoFallido("Uso: grabar start <ruta> | grabar stop");
+  }
+
+  private void manejarScript(String[] partes) throws IOException, ComandoFallido {
+    if (partes.length < 2) {
+      throw new ComandoFallido("Uso: script <ruta>");
+    }
+    ejecutarScript(Files.newBufferedReader(Path.of(partes[1]), StandardCharsets.UTF_8));
+  }
+
+  private void esperar(String[] partes) throws InterruptedException, ComandoFallido {
+    if (partes.length < 2) {
+      throw new ComandoFallido("Uso: esperar <ms>");
+    }
+    Thread.sleep(Long.parseLong(partes[1]));
+  }
+
+  private void mostrarTablero(String[] partes) throws ComandoFallido {
+    if (!interactiva) {
+      throw new ComandoFallido("El tablero solo está disponible en modo interactivo.");
+    }
+    int fps = partes.length > 1 ? Integer.parseInt(partes[1]) : 4;
+    Tablero tablero = new Tablero(cliente, autoManager, System.out);
+    tablero.iniciar(fps);
+    try {
+      if (scanner.hasNextLine()) {
+        scanner.nextLine();
+      }
+    } finally {
+      tablero.detener();
+    }
   }
 
   private String unirMensaje(String[] partes, int inicio) {
@@ -298,10 +547,9 @@ public final class ConsolaInteractiva {
     return String.join(" ", tokens);
   }
 
-  private void manejarAuto(String[] partes) {
+  private void manejarAuto(String[] partes) throws ComandoFallido {
     if (partes.length < 2) {
-      System.out.println("Uso: auto start|stop|status ...");
-      return;
+      throw new ComandoFallido("Uso: auto start|stop|status ...");
     }
     String accion = partes[1].toLowerCase(Locale.ROOT);
     switch (accion) {
@@ -318,16 +566,64 @@ public final class ConsolaInteractiva {
       break;
     }
     default: {
-      System.out.println("Acción inválida. Usa auto start|stop|status.");
-      break;
+      throw new ComandoFallido("Acción inválida. Usa auto start|stop|status.");
+    }
+    }
+  }
+
+  private void simularAuto(String[] partes) throws ComandoFallido {
+    ParametrosMonteCarlo porDefecto = ParametrosMonteCarlo.porDefecto();
+    int sesiones = enteroPositivo(partes, 1, porDefecto.sesiones());
+    int horizonte = enteroPositivo(partes, 2, porDefecto.horizonteSeg());
+    if (partes.length > 3 || sesiones < 1 || horizonte < 1 || sesiones > ParametrosMonteCarlo.MAX_SESIONES
+        || horizonte > ParametrosMonteCarlo.MAX_HORIZONTE_SEG) {
+      throw new ComandoFallido(String.format(Locale.ROOT, "Uso: simular [sesiones 1-%d] [horizonteSeg 1-%d]",
+          ParametrosMonteCarlo.MAX_SESIONES, ParametrosMonteCarlo.MAX_HORIZONTE_SEG));
+    }
+    SimuladorAutoProduccion simulador = SimuladorAutoProduccion.desde(cliente,
+        porDefecto.conSesiones(sesiones, horizonte));
+    if (simulador.candidatos() == 0) {
+      throw new ComandoFallido("Nada que simular: faltan recetas, autorizaciones o precios.");
+    }
+
+    long inicio = System.nanoTime();
+    List<SimuladorAutoProduccion.Resultado> resultados;
+    try {
+      resultados = daemon ? simulador.ejecutar(ForkJoinPool.commonPool(), LIMITE_SIMULACION_DAEMON)
+          : simulador.ejecutar(ForkJoinPool.commonPool());
+    } catch (CancellationException e) {
+      throw new ComandoFallido("La simulación superó " + LIMITE_SIMULACION_DAEMON.toSeconds()
+          + " s; usa menos sesiones o un horizonte menor.");
     }
+    long ms = (System.nanoTime() - inicio) / 1_000_000L;
+    System.out.printf(Locale.ROOT, "%d combinaciones × %d sesiones de %d s en %d ms%n", simulador.candidatos(),
+        sesiones, horizonte, ms);
+    System.out.printf("%-14s %-8s %6s %12s %12s %12s %8s%n", "Producto", "Modo", "Seg", "P&L esperado", "Desviación",
+        "P5", "P(pérd.)");
+    resultados.stream().limit(10).forEach(r -> System.out.printf(Locale.ROOT,
+        "%-14s %-8s %6d %12.2f %12.2f %12.2f %7.1f%%%n", r.candidato().producto().getValue(),
+        r.candidato().premium() ? "premium" : "basico", r.candidato().intervaloSeg(), r.media(), r.desviacion(),
+        r.percentil5(), r.probabilidadPerdida() * 100));
+    SimuladorAutoProduccion.Candidato mejor = resultados.get(0).candidato();
+    System.out.printf("Sugerencia: auto start %s %s %d%n", mejor.producto().getValue(),
+        mejor.premium() ? "premium" : "basico", mejor.intervaloSeg());
+  }
+
+  // Argumento entero opcional: el valor por defecto si falta y -1 si no es un entero positivo.
+  private static int enteroPositivo(String[] partes, int indice, int porDefecto) {
+    if (partes.length <= indice) {
+      return porDefecto;
+    }
+    try {
+      return Math.max(-1, Integer.parseInt(partes[indice]));
+    } catch (NumberFormatException e) {
+      return -1;
     }
   }
 
-  private void iniciarAuto(String[] partes) {
+  private void iniciarAuto(String[] partes) throws ComandoFallido {
     if (partes.length < 4) {
-      System.out.println("Uso: auto start <producto> <basico|premium> [intervaloSeg]");
-      return;
+      throw new ComandoFallido("Uso: auto start <producto> <basico|premium> [intervaloSeg]");
     }
     String producto = partes[2];
     boolean premium = "premium".equalsIgnoreCase(partes[3]);
@@ -338,7 +634,7 @@ public final class ConsolaInteractiva {
     try {
       autoManager.iniciar(producto, premium, intervalo);
     } catch (Exception e) {
-      System.out.println("⚠️ " + e.getMessage());
+      throw new ComandoFallido("⚠️ " + e.getMessage());
     }
   }
 
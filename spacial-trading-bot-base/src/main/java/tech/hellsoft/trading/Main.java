@@ -2,23 +2,52 @@ package tech.hellsoft.trading;
 
 import tech.hellsoft.trading.cliente.ClienteBolsa;
 import tech.hellsoft.trading.config.Configuration;
-import tech.hellsoft.trading.exception.ConfiguracionInvalidaException;
+import tech.hellsoft.trading.metricas.FasesArranque;
+import tech.hellsoft.trading.repository.RecetaRepository;
+import tech.hellsoft.trading.repository.RolRepository;
+import tech.hellsoft.trading.simulador.BolsaSimulada;
+import tech.hellsoft.trading.simulador.ParametrosSimulacion;
 import tech.hellsoft.trading.util.ConfigLoader;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public final class Main {
 
   private static final String DEFAULT_CONFIG = "src/main/resources/config.json";
+  private static final String OPCION_SCRIPT = "--script";
+  private static final String OPCION_DAEMON = "--daemon";
+  private static final long ESPERA_APAGADO_MS = 5_000L;
 
   private Main() {
   }
 
   public static void main(String[] args) {
+    FasesArranque arranque = new FasesArranque();
     try {
-      Configuration config = cargarConfiguracion(args);
+      String script = valorOpcion(args, OPCION_SCRIPT);
+      String daemon = valorOpcion(args, OPCION_DAEMON);
+      String rutaConfig = rutaConfiguracion(args);
+      Configuration config = ConfigLoader.load(rutaConfig);
+      arranque.marcar("configuracion");
       imprimirBanner(config.team());
-      ClienteBolsa cliente = inicializarCliente(config);
-      ConsolaInteractiva consola = new ConsolaInteractiva(cliente, cliente.estado());
-      consola.iniciar();
+      RecetaRepository.instancia();
+      RolRepository.instancia();
+      arranque.marcar("catalogo");
+      ClienteBolsa cliente = inicializarCliente(config, arranque);
+      cliente.ajustes().vigilar(Path.of(rutaConfig));
+      if (daemon != null) {
+        ejecutarDaemon(cliente, Integer.parseInt(daemon), config.tokenControl());
+      } else if (script != null) {
+        new ConsolaInteractiva(cliente, cliente.estado()).ejecutarScript(abrirScript(script));
+      } else {
+        new ConsolaInteractiva(cliente, cliente.estado()).iniciar();
+      }
+      cliente.exportarRendimientoFinal();
     } catch (Exception errorCritico) {
       System.err.println("❌ Error crítico: " + errorCritico.getMessage());
       errorCritico.printStackTrace();
@@ -26,20 +55,87 @@ public final class Main {
     }
   }
 
-  private static Configuration cargarConfiguracion(String[] args) throws ConfiguracionInvalidaException {
-    if (args != null && args.length > 0 && args[0] != null && !args[0].isBlank()) {
-      return ConfigLoader.load(args[0]);
+  // Uso: [config.json] [--script <archivo|->] [--daemon <puerto>]; "-" lee los comandos de stdin.
+  private static String rutaConfiguracion(String[] args) {
+    if (args == null) {
+      return DEFAULT_CONFIG;
+    }
+    for (int i = 0; i < args.length; i++) {
+      if (OPCION_SCRIPT.equals(args[i]) || OPCION_DAEMON.equals(args[i])) {
+        i++;
+        continue;
+      }
+      if (args[i] != null && !args[i].isBlank()) {
+        return args[i];
+      }
+    }
+    return DEFAULT_CONFIG;
+  }
+
+  private static String valorOpcion(String[] args, String opcion) {
+    if (args == null) {
+      return null;
+    }
+    for (int i = 0; i < args.length - 1; i++) {
+      if (opcion.equals(args[i])) {
+        return args[i + 1];
+      }
     }
-    return ConfigLoader.load(DEFAULT_CONFIG);
+    return null;
   }
 
-  private static ClienteBolsa inicializarCliente(Configuration config) {
-    ConectorBolsa conector = new ConectorBolsa();
+  // Sin consola: el proceso vive hasta POST /detener o SIGTERM. El hook de
+  // apagado espera a que main exporte el rendimiento antes de que la JVM salga.
+  // Sin tokenControl en config.json se genera uno y se imprime al arrancar.
+  private static void ejecutarDaemon(ClienteBolsa cliente, int puerto, String token)
+      throws IOException, InterruptedException {
+    ConsolaInteractiva consola = ConsolaInteractiva.sinTerminal(cliente, cliente.estado());
+    ServidorControl servidor = ServidorControl.iniciar(cliente, consola, puerto, token);
+    Thread principal = Thread.currentThread();
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      servidor.detener();
+      try {
+        principal.join(ESPERA_APAGADO_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "apagado-daemon"));
+    System.out.println("🛰️ Daemon escuchando en http://127.0.0.1:" + servidor.puerto());
+    if (token == null) {
+      System.out.println("🔑 Token de control: " + servidor.token());
+    }
+    servidor.esperarDetencion();
+    System.out.println("👋 Deteniendo daemon...");
+  }
+
+  private static Reader abrirScript(String ruta) throws IOException {
+    if ("-".equals(ruta)) {
+      return new InputStreamReader(System.in, StandardCharsets.UTF_8);
+    }
+    return Files.newBufferedReader(Path.of(ruta), StandardCharsets.UTF_8);
+  }
+
+  // Fases: cliente, conexion (socket) y login (al recibir LOGIN_OK). El registro
+  // JMX (~200 ms en frío) va después de conectar para solaparse con el login.
+  private static ClienteBolsa inicializarCliente(Configuration config, FasesArranque arranque) {
+    ConectorBolsa conector = crearConector(config);
     ClienteBolsa cliente = new ClienteBolsa(conector, config);
+    cliente.medirArranque(arranque);
+    arranque.marcar("cliente");
     cliente.conectar();
+    arranque.marcar("conexion");
+    cliente.metricas().exportarJmx(config.team());
     return cliente;
   }
 
+  static ConectorBolsa crearConector(Configuration config) {
+    if (BolsaSimulada.esHostSimulado(config.host())) {
+      System.out.println("🧪 Usando bolsa simulada en memoria (" + config.host() + ")");
+      return new BolsaSimulada(config.species(), config.team(), ParametrosSimulacion.porDefecto());
+    }
+    return new ConectorBolsa();
+  }
+
   private static void imprimirBanner(String team) {
     System.out.println("╔══════════════════════════════════════════════════════════╗");
     System.out.println("║  🥑 Bolsa Interestelar de Aguacates Andorianos 🥑      ║");
@@ -0,0 +1,167 @@
+package tech.hellsoft.trading;
+
+import tech.hellsoft.trading.cliente.ClienteBolsa;
+import tech.hellsoft.trading.cliente.VistaEstado;
+import tech.hellsoft.trading.config.Configuration;
+import tech.hellsoft.trading.exception.ConfiguracionInvalidaException;
+import tech.hellsoft.trading.metricas.RegistroMetricas;
+import tech.hellsoft.trading.repository.RecetaRepository;
+import tech.hellsoft.trading.repository.RolRepository;
+import tech.hellsoft.trading.util.ConfigLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta varias cuentas en un mismo proceso, una {@link ClienteBolsa} por
+ * configuración. Cada cuenta tiene su propio estado, secuencia de clOrdID y
+ * métricas (exportadas por JMX con el nombre del equipo) y sus ajustes, que se
+ * recargan al cambiar su archivo; el catálogo de recetas y el planificador se
+ * comparten.
+ *
+ * <p>Uso: {@code MultiCuenta <config.json|carpeta> [...]}. Imprime un resumen
+ * por cuenta cada 10 segundos; 'status' lo imprime al momento y 'exit' termina.
+ */
+public final class MultiCuenta {
+
+  private static final long RESUMEN_SEGUNDOS = 10L;
+
+  private final List<Cuenta> cuentas = new ArrayList<>();
+  private final ScheduledExecutorService planificador;
+
+  private MultiCuenta(int hilos) {
+    this.planificador = Executors.newScheduledThreadPool(hilos, hilosDaemon("cuentas"));
+  }
+
+  public static void main(String[] args) {
+    if (args == null || args.length == 0) {
+      System.out.println("Uso: MultiCuenta <config.json|carpeta> [...]");
+      return;
+    }
+    try {
+      List<Path> configuraciones = rutasConfiguracion(args);
+      // Se fuerza la carga del catálogo antes de conectar cuentas en paralelo.
+      RecetaRepository.instancia();
+      RolRepository.instancia();
+      MultiCuenta runner = new MultiCuenta(Math.max(2, Runtime.getRuntime().availableProcessors()));
+      runner.arrancar(configuraciones);
+      runner.atenderConsola();
+    } catch (ConfiguracionInvalidaException e) {
+      System.err.println("❌ Configuración inválida: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  private void arrancar(List<Path> rutas) throws ConfiguracionInvalidaException {
+    Map<String, Integer> repetidos = new HashMap<>();
+    for (Path ruta : rutas) {
+      Configuration config = ConfigLoader.load(ruta.toString());
+      ClienteBolsa cliente = new ClienteBolsa(Main.crearConector(config), config, planificador);
+      String cuenta = nombreCuenta(config.team(), repetidos);
+      cliente.metricas().exportarJmx(cuenta);
+      vigilarAjustes(cliente, ruta);
+      try {
+        cliente.conectar();
+        System.out.println("✅ Cuenta " + cuenta + " conectada");
+      } catch (IllegalStateException e) {
+        System.out.println("⚠️ Cuenta " + cuenta + ": " + e.getMessage());
+      }
+      cuentas.add(new Cuenta(cuenta, cliente));
+    }
+    planificador.scheduleAtFixedRate(this::imprimirResumen, RESUMEN_SEGUNDOS, RESUMEN_SEGUNDOS, TimeUnit.SECONDS);
+  }
+
+  private void atenderConsola() {
+    Scanner scanner = new Scanner(System.in);
+    while (scanner.hasNextLine()) {
+      String linea = scanner.nextLine().trim();
+      if ("exit".equalsIgnoreCase(linea) || "salir".equalsIgnoreCase(linea)) {
+        break;
+      }
+      if ("status".equalsIgnoreCase(linea)) {
+        imprimirResumen();
+      }
+    }
+    cuentas.forEach(c -> c.cliente().reconexion().detener());
+    cuentas.forEach(c -> c.cliente().exportarRendimientoFinal());
+    planificador.shutdownNow();
+  }
+
+  private void imprimirResumen() {
+    System.out.println(String.format("%-20s %-13s %12s %8s %8s %8s", "Cuenta", "Conexión", "Saldo", "P&L%",
+        "Órdenes", "Fills"));
+    for (Cuenta cuenta : cuentas) {
+      ClienteBolsa cliente = cuenta.cliente();
+      VistaEstado vista = cliente.estado().vista();
+      Map<String, Long> contadores = cliente.metricas().contadores();
+      System.out.println(String.format(Locale.ROOT, "%-20s %-13s %12.2f %8.2f %8d %8d", cuenta.nombre(),
+          cliente.reconexion().estado(), vista.saldo(), vista.pl(),
+          contadores.getOrDefault(RegistroMetricas.ORDENES_ENVIADAS, 0L),
+          contadores.getOrDefault(RegistroMetricas.FILLS, 0L)));
+    }
+  }
+
+  // ---------------------- util privados ----------------------
+
+  private record Cuenta(String nombre, ClienteBolsa cliente) {
+  }
+
+  private static List<Path> rutasConfiguracion(String[] args) throws ConfiguracionInvalidaException {
+    List<Path> rutas = new ArrayList<>();
+    for (String arg : args) {
+      File ruta = new File(arg);
+      if (!ruta.isDirectory()) {
+        rutas.add(ruta.toPath());
+        continue;
+      }
+      File[] archivos = ruta.listFiles((dir, nombre) -> nombre.endsWith(".json"));
+      if (archivos == null) {
+        continue;
+      }
+      Arrays.sort(archivos);
+      for (File archivo : archivos) {
+        rutas.add(archivo.toPath());
+      }
+    }
+    if (rutas.isEmpty()) {
+      throw new ConfiguracionInvalidaException("No se encontraron configuraciones en " + Arrays.toString(args));
+    }
+    return rutas;
+  }
+
+  private static void vigilarAjustes(ClienteBolsa cliente, Path ruta) {
+    try {
+      cliente.ajustes().vigilar(ruta);
+    } catch (IOException e) {
+      System.out.println("⚠️ No se pueden vigilar los ajustes de " + ruta + ": " + e.getMessage());
+    }
+  }
+
+  private static String nombreCuenta(String equipo, Map<String, Integer> repetidos) {
+    String base = equipo == null || equipo.isBlank() ? "cuenta" : equipo;
+    int veces = repetidos.merge(base, 1, Integer::sum);
+    return veces == 1 ? base : base + "-" + veces;
+  }
+
+  private static ThreadFactory hilosDaemon(String prefijo) {
+    AtomicInteger contador = new AtomicInteger();
+    return r -> {
+      Thread hilo = new Thread(r, prefijo + "-" + contador.incrementAndGet());
+      hilo.setDaemon(true);
+      return hilo;
+    };
+  }
+}
@@ -0,0 +1,359 @@
+package tech.hellsoft.trading;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import tech.hellsoft.trading.cliente.ClienteBolsa;
+import tech.hellsoft.trading.cliente.EstadoConexion;
+import tech.hellsoft.trading.cliente.VistaEstado;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * API de control del modo daemon: HTTP solo en loopback, un hilo virtual por
+ * petición. Las consultas leen copias del estado y no bloquean a los hilos de
+ * trading; los comandos pasan por {@link ConsolaInteractiva} de a uno y lo
+ * que imprimen vuelve en la respuesta, además de ir al log del proceso. Si
+ * otro comando tiene el turno por más de {@code ESPERA_TURNO_SEG} se responde
+ * 409 en vez de dejar la petición colgada.
+ *
+ * <p>Toda petición lleva {@code Authorization: Bearer <token>}. Además se
+ * rechaza cualquier petición con {@code Origin} o con un {@code Host} que no
+ * sea loopback: así una página abierta en el navegador no puede mandar
+ * comandos, ni directamente ni con DNS rebinding.
+ *
+ * <pre>
+ * GET  /salud      conexión y auto-producción (503 si no está conectado)
+ * GET  /estado     saldo, patrimonio, P&amp;L, inventario y precios en JSON
+ * GET  /metricas   contadores, gauges y latencias (texto)
+ * GET  /latencia   latencias por producto y lado (texto)
+ * GET  /consumo    bytes y CPU por evento (texto)
+ * POST /comando    una línea de la consola en el cuerpo, p. ej. "auto start GUACA basico 5";
+ *                  responde {comando, ok, salida} con 200, 422 si el comando falló o 409 si
+ *                  hay otro en curso; esperar, script y tablero no se aceptan
+ * POST /detener    termina el daemon
+ * </pre>
+ */
+public final class ServidorControl {
+
+  private static final Gson GSON = new Gson();
+  private static final int MAXIMO_COMANDO = 4096;
+  private static final int BYTES_TOKEN = 32;
+  private static final long ESPERA_TURNO_SEG = 2;
+  private static final Set<String> HOSTS_LOCALES = Set.of("127.0.0.1", "localhost", "[::1]");
+
+  private final HttpServer servidor;
+  private final ExecutorService hilos;
+  private final ClienteBolsa cliente;
+  private final ConsolaInteractiva consola;
+  private final String token;
+  private final byte[] autorizacion;
+  private final CountDownLatch detenido = new CountDownLatch(1);
+  private final ReentrantLock turno = new ReentrantLock();
+  private final PrintStream salidaOriginal;
+  private final SalidaPorHilo salidaComandos;
+  private final PrintStream salidaInstalada;
+
+  private ServidorControl(HttpServer servidor, ClienteBolsa cliente, ConsolaInteractiva consola, String token) {
+    this.servidor = servidor;
+    this.cliente = cliente;
+    this.consola = consola;
+    this.token = token;
+    this.autorizacion = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+    this.hilos = Executors.newVirtualThreadPerTaskExecutor();
+    this.salidaOriginal = System.out;
+    this.salidaComandos = new SalidaPorHilo(salidaOriginal);
+    this.salidaInstalada = new PrintStream(salidaComandos, true, salidaOriginal.charset());
+  }
+
+  /**
+   * Abre 127.0.0.1:{@code puerto} (0 elige uno libre) y empieza a atender.
+   * Sin {@code token} genera uno aleatorio; se lee con {@link #token()}.
+   */
+  public static ServidorControl iniciar(ClienteBolsa cliente, ConsolaInteractiva consola, int puerto, String token)
+      throws IOException {
+    String clave = token == null || token.isBlank() ? generarToken() : token;
+    HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+    ServidorControl control = new ServidorControl(http, cliente, consola, clave);
+    control.registrarRutas();
+    System.setOut(control.salidaInstalada);
+    http.setExecutor(control.hilos);
+    http.start();
+    return control;
+  }
+
+  public int puerto() {
+    return servidor.getAddress().getPort();
+  }
+
+  public String token() {
+    return token;
+  }
+
+  /** Bloquea hasta {@code POST /detener} o {@link #detener()}. */
+  public void esperarDetencion() throws InterruptedException {
+    detenido.await();
+  }
+
+  public synchronized void detener() {
+    if (detenido.getCount() == 0) {
+      return;
+    }
+    detenido.countDown();
+    // stop(n) espera hasta n s a que cierren los intercambios abiertos, incluido el de POST /detener que ya respondió.
+    servidor.stop(0);
+    hilos.shutdown();
+    if (System.out == salidaInstalada) {
+      System.setOut(salidaOriginal);
+    }
+  }
+
+  private void registrarRutas() {
+    servidor.createContext("/salud", get(this::salud));
+    servidor.createContext("/estado", get(this::estado));
+    servidor.createContext("/metricas", get(texto(salida -> cliente.metricas().imprimir(salida))));
+    servidor.createContext("/latencia", get(texto(salida -> cliente.seguimiento().imprimir(salida))));
+    servidor.createContext("/consumo", get(texto(salida -> cliente.metricas().consumo().imprimir(salida))));
+    servidor.createContext("/comando", post(this::comando));
+    servidor.createContext("/detener", post(this::detenerPorApi));
+  }
+
+  private void salud(HttpExchange intercambio) throws IOException {
+    EstadoConexion conexion = cliente.reconexion().estado();
+    Map<String, Object> cuerpo = new LinkedHashMap<>();
+    cuerpo.put("conexion", conexion.name());
+    cuerpo.put("intentosReconexion", cliente.reconexion().intentos());
+    cuerpo.put("autoProduccion", consola.autoProduccionActiva());
+    responderJson(intercambio, conexion == EstadoConexion.CONECTADO ? 200 : 503, cuerpo);
+  }
+
+  private void estado(HttpExchange intercambio) throws IOException {
+    VistaEstado vista = cliente.estado().vista();
+    Map<String, Object> cuerpo = new LinkedHashMap<>();
+    cuerpo.put("saldo", vista.saldo());
+    cuerpo.put("valorInventario", vista.valorInventario());
+    cuerpo.put("patrimonio", vista.patrimonio());
+    cuerpo.put("plPorcentaje", vista.pl());
+    cuerpo.put("plRealizado", vista.plRealizado());
+    cuerpo.put("plNoRealizado", vista.plNoRealizado());
+    Map<String, Integer> inventario = new LinkedHashMap<>();
+    vista.inventario().forEach((producto, cantidad) -> inventario.put(producto.getValue(), cantidad));
+    Map<String, Double> precios = new LinkedHashMap<>();
+    vista.precios().forEach((producto, precio) -> precios.put(producto.getValue(), precio));
+    cuerpo.put("inventario", inventario);
+    cuerpo.put("precios", precios);
+    cuerpo.put("ofertasPendientes", cliente.ofertasPendientes().size());
+    responderJson(intercambio, 200, cuerpo);
+  }
+
+  private void comando(HttpExchange intercambio) throws IOException {
+    String linea = leerCuerpo(intercambio.getRequestBody());
+    if (linea == null) {
+      responder(intercambio, 413, "text/plain", "Comando demasiado largo\n");
+      return;
+    }
+    if (linea.isBlank()) {
+      responder(intercambio, 400, "text/plain", "El cuerpo debe ser una línea de comando\n");
+      return;
+    }
+    if (!tomarTurno()) {
+      responder(intercambio, 409, "text/plain", "Hay otro comando en curso; reintenta\n");
+      return;
+    }
+    ByteArrayOutputStream salida = new ByteArrayOutputStream();
+    boolean ok;
+    try {
+      ok = salidaComandos.capturar(salida, () -> consola.ejecutarComando(linea));
+    } finally {
+      turno.unlock();
+    }
+    Map<String, Object> cuerpo = new LinkedHashMap<>();
+    cuerpo.put("comando", linea);
+    cuerpo.put("ok", ok);
+    cuerpo.put("salida", salida.toString(salidaOriginal.charset()));
+    responderJson(intercambio, ok ? 200 : 422, cuerpo);
+  }
+
+  private boolean tomarTurno() {
+    try {
+      return turno.tryLock(ESPERA_TURNO_SEG, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void detenerPorApi(HttpExchange intercambio) throws IOException {
+    responder(intercambio, 202, "text/plain", "Deteniendo\n");
+    detener();
+  }
+
+  // ---------------------- util privados ----------------------
+
+  @FunctionalInterface
+  private interface Manejador {
+    void atender(HttpExchange intercambio) throws IOException;
+  }
+
+  private HttpHandler get(Manejador manejador) {
+    return metodo("GET", manejador);
+  }
+
+  private HttpHandler post(Manejador manejador) {
+    return metodo("POST", manejador);
+  }
+
+  private HttpHandler metodo(String esperado, Manejador manejador) {
+    return intercambio -> {
+      try (intercambio) {
+        if (intercambio.getRequestHeaders().containsKey("Origin") || !hostLocal(intercambio)) {
+          responder(intercambio, 403, "text/plain", "Solo se aceptan peticiones locales sin Origin\n");
+          return;
+        }
+        if (!autorizado(intercambio)) {
+          intercambio.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+          responder(intercambio, 401, "text/plain", "Falta el token o no es válido\n");
+          return;
+        }
+        if (!esperado.equals(intercambio.getRequestMethod())) {
+          intercambio.getResponseHeaders().set("Allow", esperado);
+          responder(intercambio, 405, "text/plain", "Usa " + esperado + "\n");
+          return;
+        }
+        manejador.atender(intercambio);
+      } catch (Throwable e) {
+        // Cualquier falla de un manejador, incluidos los Error, se responde; si no, el cliente queda esperando.
+        responder(intercambio, 500, "text/plain", "Error: " + e + "\n");
+      }
+    };
+  }
+
+  private static Manejador texto(Consumer<PrintStream> escritor) {
+    return intercambio -> {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      try (PrintStream salida = new PrintStream(buffer, true, StandardCharsets.UTF_8)) {
+        escritor.accept(salida);
+      }
+      responder(intercambio, 200, "text/plain", buffer.toString(StandardCharsets.UTF_8));
+    };
+  }
+
+  /**
+   * Destino de {@code System.out} mientras corre el daemon: todo sigue yendo
+   * al log y lo que escribe el hilo que está ejecutando un comando se copia
+   * además a su buffer. La salida de otros hilos (tickers, auto-producción)
+   * no se mezcla en la respuesta.
+   */
+  private static final class SalidaPorHilo extends OutputStream {
+
+    private final PrintStream log;
+    private final ThreadLocal<ByteArrayOutputStream> capturas = new ThreadLocal<>();
+
+    SalidaPorHilo(PrintStream log) {
+      this.log = log;
+    }
+
+    boolean capturar(ByteArrayOutputStream destino, BooleanSupplier accion) {
+      capturas.set(destino);
+      try {
+        return accion.getAsBoolean();
+      } finally {
+        System.out.flush();
+        capturas.remove();
+      }
+    }
+
+    @Override
+    public void write(int b) {
+      log.write(b);
+      ByteArrayOutputStream captura = capturas.get();
+      if (captura != null) {
+        captura.write(b);
+      }
+    }
+
+    @Override
+    public void write(byte[] b, int desde, int largo) {
+      log.write(b, desde, largo);
+      ByteArrayOutputStream captura = capturas.get();
+      if (captura != null) {
+        captura.write(b, desde, largo);
+      }
+    }
+
+    @Override
+    public void flush() {
+      log.flush();
+    }
+  }
+
+  // Comparación en tiempo constante para no filtrar el token por latencia.
+  private boolean autorizado(HttpExchange intercambio) {
+    String valor = intercambio.getRequestHeaders().getFirst("Authorization");
+    return valor != null && MessageDigest.isEqual(autorizacion, valor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // Host sin puerto: 127.0.0.1, localhost o [::1]. Sin Host (HTTP/1.0) no se acepta.
+  private static boolean hostLocal(HttpExchange intercambio) {
+    String host = intercambio.getRequestHeaders().getFirst("Host");
+    if (host == null) {
+      return false;
+    }
+    int cierre = host.indexOf(']');
+    int dosPuntos = host.lastIndexOf(':');
+    String nombre = host.startsWith("[") ? host.substring(0, cierre + 1)
+        : dosPuntos >= 0 ? host.substring(0, dosPuntos) : host;
+    return HOSTS_LOCALES.contains(nombre.toLowerCase(Locale.ROOT));
+  }
+
+  private static String generarToken() {
+    byte[] bytes = new byte[BYTES_TOKEN];
+    new SecureRandom().nextBytes(bytes);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  // Devuelve null si el cuerpo supera MAXIMO_COMANDO bytes.
+  private static String leerCuerpo(InputStream entrada) throws IOException {
+    byte[] bytes = entrada.readNBytes(MAXIMO_COMANDO + 1);
+    if (bytes.length > MAXIMO_COMANDO) {
+      return null;
+    }
+    return new String(bytes, StandardCharsets.UTF_8).trim();
+  }
+
+  private static void responderJson(HttpExchange intercambio, int codigo, Object cuerpo) throws IOException {
+    responder(intercambio, codigo, "application/json", GSON.toJson(cuerpo) + "\n");
+  }
+
+  private static void responder(HttpExchange intercambio, int codigo, String tipo, String cuerpo)
+      throws IOException {
+    byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+    intercambio.getResponseHeaders().set("Content-Type", tipo + "; charset=utf-8");
+    intercambio.sendResponseHeaders(codigo, bytes.length);
+    try (OutputStream salida = intercambio.getResponseBody()) {
+      salida.write(bytes);
+    }
+  }
+}
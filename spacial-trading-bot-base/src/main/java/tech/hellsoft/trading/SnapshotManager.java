@@ -3,6 +3,7 @@ package tech.hellsoft.trading;
 import tech.hellsoft.trading.cliente.EstadoCliente;
 import tech.hellsoft.trading.exception.ConfiguracionInvalidaException;
 import tech.hellsoft.trading.exception.SnapshotCorruptoException;
+import tech.hellsoft.trading.jfr.SnapshotEvento;
 
 import java.io.*;
 
@@ -25,10 +26,16 @@ public final class SnapshotManager {
     if (carpeta != null && !carpeta.exists()) {
       carpeta.mkdirs();
     }
+    SnapshotEvento evento = new SnapshotEvento();
+    evento.begin();
+    boolean exito = false;
     try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(destino))) {
       out.writeObject(estado);
+      exito = true;
     } catch (IOException e) {
       throw new ConfiguracionInvalidaException("No se pudo guardar snapshot: " + e.getMessage());
+    } finally {
+      evento.terminar(SnapshotEvento.GUARDAR, destino.getPath(), destino.length(), exito);
     }
   }
 
@@ -39,9 +46,13 @@ public final class SnapshotManager {
     if (!origen.exists()) {
       throw new ConfiguracionInvalidaException("No existe snapshot en " + origen.getAbsolutePath());
     }
+    SnapshotEvento evento = new SnapshotEvento();
+    evento.begin();
+    boolean exito = false;
     try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(origen))) {
       Object data = in.readObject();
       if (data instanceof EstadoCliente) {
+        exito = true;
         return (EstadoCliente) data;
       }
         throw new SnapshotCorruptoException(
@@ -53,6 +64,8 @@ public final class SnapshotManager {
                 origen.getAbsolutePath(),
                 "El archivo no contiene un EstadoCliente válido"
         );
+    } finally {
+      evento.terminar(SnapshotEvento.CARGAR, origen.getPath(), origen.length(), exito);
     }
   }
 }
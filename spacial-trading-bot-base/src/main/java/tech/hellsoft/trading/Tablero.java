@@ -0,0 +1,224 @@
+package tech.hellsoft.trading;
+
+import tech.hellsoft.trading.cliente.CanalTickers;
+import tech.hellsoft.trading.cliente.ClienteBolsa;
+import tech.hellsoft.trading.cliente.VistaEstado;
+import tech.hellsoft.trading.dto.server.OfferMessage;
+import tech.hellsoft.trading.dto.server.TickerMessage;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.metricas.HistogramaLatencia;
+import tech.hellsoft.trading.metricas.SerieRendimientoGlobal;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tablero de terminal que se refresca a frecuencia fija. Cada cuadro toma una
+ * sola {@link VistaEstado} (una copia breve bajo el candado del estado) y todo
+ * el formateo y la escritura ocurren fuera de él, en un hilo propio. Solo se
+ * reescriben las líneas que cambiaron respecto al cuadro anterior; cada
+ * {@link #REDIBUJO_COMPLETO_CADA} cuadros se limpia la pantalla para borrar
+ * mensajes que otros hilos hayan impreso encima. Bid y ask salen de una
+ * suscripción a {@link CanalTickers}: en ráfagas el tablero solo ve el último
+ * ticker de cada producto y nunca acumula atraso.
+ */
+public final class Tablero {
+
+  private static final String ESC = "\u001b[";
+  private static final int REDIBUJO_COMPLETO_CADA = 40;
+  private static final String[] LATENCIAS = {"callback.onTicker", "callback.onFill", "ticker.antiguedad"};
+
+  private final ClienteBolsa cliente;
+  private final AutoProduccionManager autoManager;
+  private final PrintStream salida;
+  private final Map<Product, TickerMessage> ultimosTickers = new EnumMap<>(Product.class);
+  private ScheduledExecutorService hilo;
+  private final LongAdder fallos;
+  // La escriben iniciar/detener y la lee el hilo del tablero.
+  private volatile CanalTickers.Suscripcion tickers;
+  private volatile String ultimoFallo;
+  private List<String> anterior = List.of();
+  private long cuadros;
+
+  public Tablero(ClienteBolsa cliente, AutoProduccionManager autoManager, PrintStream salida) {
+    this.cliente = Objects.requireNonNull(cliente, "cliente");
+    this.autoManager = Objects.requireNonNull(autoManager, "autoManager");
+    this.salida = Objects.requireNonNull(salida, "salida");
+    this.fallos = cliente.metricas().contador("tablero.fallos");
+  }
+
+  public synchronized void iniciar(int cuadrosPorSegundo) {
+    if (hilo != null) {
+      return;
+    }
+    long periodoMs = 1000L / Math.max(1, Math.min(30, cuadrosPorSegundo));
+    anterior = List.of();
+    cuadros = 0;
+    ultimosTickers.clear();
+    tickers = cliente.tickers().suscribir();
+    salida.print(ESC + "?25l");
+    hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "tablero");
+      t.setDaemon(true);
+      return t;
+    });
+    hilo.scheduleAtFixedRate(this::dibujarSeguro, 0L, periodoMs, TimeUnit.MILLISECONDS);
+  }
+
+  public synchronized void detener() {
+    if (hilo == null) {
+      return;
+    }
+    hilo.shutdownNow();
+    try {
+      hilo.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    hilo = null;
+    tickers.cancelar();
+    tickers = null;
+    salida.print(ESC + "?25h" + ESC + (anterior.size() + 1) + ";1H\n");
+    salida.flush();
+  }
+
+  public synchronized boolean activo() {
+    return hilo != null;
+  }
+
+  // ---------------------- dibujo ----------------------
+
+  private void dibujarSeguro() {
+    try {
+      dibujar();
+    } catch (RuntimeException e) {
+      // Un cuadro fallido no debe cancelar la tarea periódica; se cuenta y se muestra en el siguiente.
+      fallos.increment();
+      ultimoFallo = e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+  }
+
+  private void dibujar() {
+    // Null si detener() ya canceló la suscripción y este cuadro quedó rezagado.
+    CanalTickers.Suscripcion suscripcion = tickers;
+    if (suscripcion == null) {
+      return;
+    }
+    suscripcion.drenar(t -> ultimosTickers.put(t.getProduct(), t));
+    List<String> lineas = componer(cliente.estado().vista(), suscripcion);
+    boolean completo = cuadros++ % REDIBUJO_COMPLETO_CADA == 0;
+
+    StringBuilder sb = new StringBuilder(2048);
+    if (completo) {
+      sb.append(ESC).append("2J");
+    }
+    for (int i = 0; i < lineas.size(); i++) {
+      String linea = lineas.get(i);
+      if (!completo && i < anterior.size() && anterior.get(i).equals(linea)) {
+        continue;
+      }
+      sb.append(ESC).append(i + 1).append(";1H").append(linea).append(ESC).append('K');
+    }
+    // Si el cuadro nuevo es más corto, se borran las líneas sobrantes.
+    for (int i = lineas.size(); i < anterior.size(); i++) {
+      sb.append(ESC).append(i + 1).append(";1H").append(ESC).append('K');
+    }
+    anterior = lineas;
+    if (sb.length() > 0) {
+      salida.print(sb);
+      salida.flush();
+    }
+  }
+
+  private List<String> componer(VistaEstado vista, CanalTickers.Suscripcion suscripcion) {
+    List<String> l = new ArrayList<>(48);
+    l.add("🥑 Tablero — " + cliente.reconexion().estado() + "   (Enter para salir)");
+    l.add("");
+    l.add(String.format(Locale.ROOT, "Saldo %12.2f   Inventario %12.2f   Patrimonio %12.2f   P&L %7.2f%%",
+        vista.saldo(), vista.valorInventario(), vista.patrimonio(), vista.pl()));
+    l.add(String.format(Locale.ROOT, "P&L realizado %12.2f   No realizado %12.2f", vista.plRealizado(),
+        vista.plNoRealizado()));
+    l.add("");
+    l.add(String.format("%-14s %10s %12s %12s %12s", "Producto", "Cantidad", "Precio", "Bid", "Ask"));
+    for (Product producto : Product.values()) {
+      Integer cantidad = vista.inventario().get(producto);
+      Double precio = vista.precios().get(producto);
+      if ((cantidad == null || cantidad == 0) && precio == null) {
+        continue;
+      }
+      TickerMessage ticker = ultimosTickers.get(producto);
+      l.add(String.format(Locale.ROOT, "%-14s %10d %12s %12s %12s", producto.getValue(),
+          cantidad == null ? 0 : cantidad, precio(precio), precio(ticker == null ? null : ticker.getBestBid()),
+          precio(ticker == null ? null : ticker.getBestAsk())));
+    }
+    l.add(String.format(Locale.ROOT, "Tickers: %d recibidos, %d conflados", suscripcion.recibidos(),
+        suscripcion.conflados()));
+    l.add("");
+
+    Map<String, OfferMessage> ofertas = cliente.ofertasPendientes();
+    l.add("Ofertas pendientes: " + ofertas.size());
+    ofertas.values().stream().limit(5).forEach(o -> l.add(String.format(Locale.ROOT, "  %s %s x%d @ %.2f",
+        o.getOfferId(), o.getProduct() == null ? "-" : o.getProduct().getValue(),
+        o.getQuantityRequested() == null ? 0 : o.getQuantityRequested(),
+        o.getMaxPrice() == null ? 0.0 : o.getMaxPrice())));
+    l.add("");
+
+    SerieRendimientoGlobal serie = cliente.rendimiento();
+    if (serie.puntos() > 1) {
+      long ventana = ClienteBolsa.VENTANA_MERCADO_MS;
+      l.add(String.format(Locale.ROOT, "Mercado 5m: %.2f vol/s   participación %s   tendencia %s", serie.tasaVolumen(ventana),
+          porcentaje(serie.participacion(ventana)), porcentaje(serie.tendencia(ventana))));
+      l.add("");
+    }
+
+    if (autoManager.activo()) {
+      l.add("AutoProducción: " + autoManager.productoActual() + " (" + (autoManager.modoPremium() ? "premium" : "básica")
+          + ") cada " + autoManager.intervaloSegundos() + " s");
+    } else {
+      l.add("AutoProducción: detenida");
+    }
+    l.add("");
+
+    l.add("Latencias (µs)              n        p50        p99        max");
+    Map<String, HistogramaLatencia> histogramas = cliente.metricas().histogramas();
+    for (String nombre : LATENCIAS) {
+      agregarLatencia(l, nombre, histogramas.get(nombre));
+    }
+    for (Map.Entry<String, HistogramaLatencia> entry : histogramas.entrySet()) {
+      if (entry.getKey().startsWith("orden.") && entry.getKey().endsWith(".envioAck")) {
+        agregarLatencia(l, entry.getKey(), entry.getValue());
+      }
+    }
+    long fallidos = fallos.sum();
+    if (fallidos > 0) {
+      l.add("");
+      l.add("⚠️ Cuadros fallidos: " + fallidos + " (último: " + ultimoFallo + ")");
+    }
+    return l;
+  }
+
+  private static String precio(Double valor) {
+    return valor == null ? "-" : String.format(Locale.ROOT, "%.2f", valor);
+  }
+
+  private static String porcentaje(double fraccion) {
+    return Double.isNaN(fraccion) ? "-" : String.format(Locale.ROOT, "%.1f%%", fraccion * 100);
+  }
+
+  private static void agregarLatencia(List<String> l, String nombre, HistogramaLatencia h) {
+    if (h == null || h.total() == 0) {
+      return;
+    }
+    l.add(String.format(Locale.ROOT, "%-24s %6d %10.1f %10.1f %10.1f", nombre, h.total(),
+        h.percentil(0.50) / 1000.0, h.percentil(0.99) / 1000.0, h.maximo() / 1000.0));
+  }
+}
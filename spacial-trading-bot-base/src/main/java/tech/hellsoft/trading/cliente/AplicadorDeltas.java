@@ -0,0 +1,311 @@
+package tech.hellsoft.trading.cliente;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import tech.hellsoft.trading.dto.server.EventDeltaMessage;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.enums.RecipeType;
+import tech.hellsoft.trading.metricas.RegistroMetricas;
+import tech.hellsoft.trading.util.IndiceProductos;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Aplica los {@link EventDeltaMessage} directamente sobre {@link EstadoCliente}.
+ *
+ * <p>El mensaje se lee como árbol JSON con el formato de {@link TipoDelta}:
+ * {@code eventType}, {@code payload} y {@code payload.version}.
+ *
+ * <p>Con versión, un delta repetido o viejo se descarta y un salto de versión
+ * pide una resincronización (una sola a la vez); hasta el siguiente login los
+ * deltas se ignoran porque el login trae el estado completo. Si el login no
+ * llega en {@code ESPERA_RESYNC_SEG} se vuelve a pedir; agotados los
+ * reintentos se deja de esperar y el próximo delta pasa a ser la base.
+ */
+final class AplicadorDeltas {
+
+    enum Resultado { APLICADO, DUPLICADO, HUECO, ESPERANDO_RESYNC, DESCONOCIDO, INVALIDO }
+
+    private static final Gson GSON = new Gson();
+    private static final long SIN_VERSION = -1L;
+    private static final long ESPERA_RESYNC_NS = TimeUnit.SECONDS.toNanos(10);
+    private static final int MAX_REINTENTOS_RESYNC = 2;
+
+    private final EstadoCliente estado;
+    private final RegistroMetricas metricas;
+    private final Runnable pedirResync;
+    private final LongSupplier reloj;
+    private final Map<TipoDelta, Aplicador> aplicadores = new EnumMap<>(TipoDelta.class);
+
+    private long ultimaVersion = SIN_VERSION;
+    private boolean resyncPendiente;
+    private long resyncPedido;
+    private int reintentosResync;
+
+    @FunctionalInterface
+    private interface Aplicador {
+        boolean aplicar(JsonObject datos);
+    }
+
+    AplicadorDeltas(EstadoCliente estado, RegistroMetricas metricas, Runnable pedirResync) {
+        this(estado, metricas, pedirResync, System::nanoTime);
+    }
+
+    AplicadorDeltas(EstadoCliente estado, RegistroMetricas metricas, Runnable pedirResync, LongSupplier reloj) {
+        this.estado = estado;
+        this.metricas = metricas;
+        this.pedirResync = pedirResync;
+        this.reloj = reloj;
+        aplicadores.put(TipoDelta.INVENTORY, this::aplicarInventario);
+        aplicadores.put(TipoDelta.PRICE, this::aplicarPrecio);
+        aplicadores.put(TipoDelta.RECIPE, this::aplicarReceta);
+        aplicadores.put(TipoDelta.AUTHORIZATION, this::aplicarAutorizacion);
+        aplicadores.put(TipoDelta.BALANCE, this::aplicarSaldo);
+    }
+
+    synchronized Resultado aplicar(EventDeltaMessage mensaje) {
+        JsonObject raiz = arbol(mensaje);
+        if (raiz == null) {
+            return contar(Resultado.INVALIDO);
+        }
+        if (resyncPendiente && !resyncVencido()) {
+            return contar(Resultado.ESPERANDO_RESYNC);
+        }
+
+        Aplicador aplicador = aplicadores.get(tipo(raiz));
+        JsonObject datos = objeto(raiz, "payload");
+        if (aplicador == null || datos == null) {
+            return contar(Resultado.DESCONOCIDO);
+        }
+        long version = numeroEntero(datos, SIN_VERSION, "version");
+        if (version != SIN_VERSION && ultimaVersion != SIN_VERSION) {
+            if (version <= ultimaVersion) {
+                return contar(Resultado.DUPLICADO);
+            }
+            if (version > ultimaVersion + 1) {
+                resyncPendiente = true;
+                resyncPedido = reloj.getAsLong();
+                reintentosResync = 0;
+                ultimaVersion = SIN_VERSION;
+                pedirResync.run();
+                return contar(Resultado.HUECO);
+            }
+        }
+
+        if (!aplicador.aplicar(datos)) {
+            return contar(Resultado.INVALIDO);
+        }
+        if (version != SIN_VERSION) {
+            ultimaVersion = version;
+        }
+        return contar(Resultado.APLICADO);
+    }
+
+    // El login trae el estado completo: la próxima versión que llegue es la nueva base.
+    synchronized void sesionSincronizada() {
+        resyncPendiente = false;
+        ultimaVersion = SIN_VERSION;
+    }
+
+    // Sin login a tiempo: se pide otra vez y, agotados los reintentos, se deja de esperar.
+    private boolean resyncVencido() {
+        long ahora = reloj.getAsLong();
+        if (ahora - resyncPedido < ESPERA_RESYNC_NS) {
+            return false;
+        }
+        if (reintentosResync < MAX_REINTENTOS_RESYNC) {
+            reintentosResync++;
+            resyncPedido = ahora;
+            metricas.contador("deltas.resync_reintento").increment();
+            pedirResync.run();
+            return false;
+        }
+        resyncPendiente = false;
+        metricas.contador("deltas.resync_abandonado").increment();
+        return true;
+    }
+
+    synchronized long ultimaVersion() {
+        return ultimaVersion;
+    }
+
+    static String tipoDe(EventDeltaMessage mensaje) {
+        JsonObject raiz = arbol(mensaje);
+        JsonElement tipo = raiz == null ? null : raiz.get("eventType");
+        if (tipo != null && tipo.isJsonPrimitive()) {
+            return tipo.getAsString();
+        }
+        return mensaje == null ? "" : String.valueOf(mensaje.getType());
+    }
+
+    // ---------------------- aplicadores por tipo ----------------------
+
+    private boolean aplicarInventario(JsonObject datos) {
+        JsonObject varios = objeto(datos, "inventory");
+        if (varios != null) {
+            boolean alguno = false;
+            for (Map.Entry<String, JsonElement> entry : varios.entrySet()) {
+                Product producto = IndiceProductos.buscar(entry.getKey());
+                if (producto != null && entry.getValue().isJsonPrimitive()) {
+                    estado.fijarInventario(producto, entry.getValue().getAsInt());
+                    alguno = true;
+                }
+            }
+            return alguno;
+        }
+
+        Product producto = producto(datos);
+        if (producto == null) {
+            return false;
+        }
+        if (datos.has("delta")) {
+            estado.sumarInventario(producto, (int) numeroEntero(datos, 0, "delta"));
+            return true;
+        }
+        long cantidad = numeroEntero(datos, Long.MIN_VALUE, "quantity");
+        if (cantidad == Long.MIN_VALUE) {
+            return false;
+        }
+        estado.fijarInventario(producto, (int) cantidad);
+        return true;
+    }
+
+    private boolean aplicarPrecio(JsonObject datos) {
+        Product producto = producto(datos);
+        double precio = numeroDecimal(datos, Double.NaN, "mid");
+        if (producto == null || !(precio > 0)) {
+            return false;
+        }
+        estado.registrarPrecio(producto, precio);
+        return true;
+    }
+
+    private boolean aplicarReceta(JsonObject datos) {
+        Product producto = producto(datos);
+        if (producto == null) {
+            return false;
+        }
+        Map<Product, Integer> ingredientes = new EnumMap<>(Product.class);
+        JsonObject origen = objeto(datos, "ingredients");
+        if (origen != null) {
+            for (Map.Entry<String, JsonElement> entry : origen.entrySet()) {
+                Product ingrediente = IndiceProductos.buscar(entry.getKey());
+                if (ingrediente != null && entry.getValue().isJsonPrimitive()) {
+                    ingredientes.put(ingrediente, entry.getValue().getAsInt());
+                }
+            }
+        }
+        Recipe.RecipeBuilder receta = Recipe.builder()
+                .type(ingredientes.isEmpty() ? RecipeType.BASIC : RecipeType.PREMIUM)
+                .premiumBonus(numeroDecimal(datos, 1.0, "premiumBonus"));
+        if (!ingredientes.isEmpty()) {
+            receta.ingredients(ingredientes);
+        }
+        estado.asignarReceta(producto, receta.build());
+        return true;
+    }
+
+    private boolean aplicarAutorizacion(JsonObject datos) {
+        JsonElement lista = datos.get("authorizedProducts");
+        if (lista != null && lista.isJsonArray()) {
+            Set<Product> autorizados = new HashSet<>();
+            lista.getAsJsonArray().forEach(e -> {
+                Product producto = e.isJsonPrimitive() ? IndiceProductos.buscar(e.getAsString()) : null;
+                if (producto != null) {
+                    autorizados.add(producto);
+                }
+            });
+            estado.asignarProductosAutorizados(autorizados);
+            return true;
+        }
+        Product producto = producto(datos);
+        JsonElement autorizado = datos.get("authorized");
+        if (producto == null || autorizado == null || !autorizado.isJsonPrimitive()) {
+            return false;
+        }
+        estado.autorizarProducto(producto, autorizado.getAsBoolean());
+        return true;
+    }
+
+    private boolean aplicarSaldo(JsonObject datos) {
+        if (datos.has("balance")) {
+            estado.actualizarSaldo(numeroDecimal(datos, estado.saldo(), "balance"));
+            return true;
+        }
+        if (datos.has("delta")) {
+            estado.ajustarSaldo(numeroDecimal(datos, 0.0, "delta"));
+            return true;
+        }
+        return false;
+    }
+
+    // ---------------------- util privados ----------------------
+
+    private Resultado contar(Resultado resultado) {
+        metricas.contador("deltas." + resultado.name().toLowerCase(Locale.ROOT)).increment();
+        return resultado;
+    }
+
+    private static JsonObject arbol(EventDeltaMessage mensaje) {
+        if (mensaje == null) {
+            return null;
+        }
+        JsonElement raiz = GSON.toJsonTree(mensaje);
+        return raiz.isJsonObject() ? raiz.getAsJsonObject() : null;
+    }
+
+    private static TipoDelta tipo(JsonObject raiz) {
+        JsonElement valor = raiz.get("eventType");
+        if (valor == null || !valor.isJsonPrimitive()) {
+            return null;
+        }
+        try {
+            return TipoDelta.valueOf(valor.getAsString().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Product producto(JsonObject datos) {
+        JsonElement valor = datos.get("product");
+        return valor != null && valor.isJsonPrimitive() ? IndiceProductos.buscar(valor.getAsString()) : null;
+    }
+
+    private static JsonObject objeto(JsonObject raiz, String... campos) {
+        for (String campo : campos) {
+            JsonElement valor = raiz.get(campo);
+            if (valor != null && valor.isJsonObject()) {
+                return valor.getAsJsonObject();
+            }
+        }
+        return null;
+    }
+
+    private static long numeroEntero(JsonObject raiz, long defecto, String... campos) {
+        for (String campo : campos) {
+            JsonElement valor = raiz.get(campo);
+            if (valor != null && valor.isJsonPrimitive() && valor.getAsJsonPrimitive().isNumber()) {
+                return valor.getAsLong();
+            }
+        }
+        return defecto;
+    }
+
+    private static double numeroDecimal(JsonObject raiz, double defecto, String... campos) {
+        for (String campo : campos) {
+            JsonElement valor = raiz.get(campo);
+            if (valor != null && valor.isJsonPrimitive() && valor.getAsJsonPrimitive().isNumber()) {
+                return valor.getAsDouble();
+            }
+        }
+        return defecto;
+    }
+}
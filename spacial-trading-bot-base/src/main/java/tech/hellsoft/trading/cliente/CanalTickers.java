@@ -0,0 +1,118 @@
+package tech.hellsoft.trading.cliente;
+
+import tech.hellsoft.trading.dto.server.TickerMessage;
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Canal con conflación entre {@link ClienteBolsa#onTicker} y los consumidores
+ * lentos (tablero, estrategias). Cada suscripción guarda solo el último ticker
+ * por producto: si llega otro antes de que el consumidor lo tome, el anterior
+ * se descarta y se cuenta como conflado. La memoria queda acotada a un ticker
+ * por producto y suscripción, y publicar nunca bloquea al hilo de eventos.
+ */
+public final class CanalTickers {
+
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+    private final LongAdder conflados;
+
+    public CanalTickers(LongAdder conflados) {
+        this.conflados = Objects.requireNonNull(conflados, "conflados");
+    }
+
+    public void publicar(TickerMessage ticker) {
+        if (ticker == null || ticker.getProduct() == null) {
+            return;
+        }
+        for (Suscripcion suscripcion : suscripciones) {
+            if (suscripcion.depositar(ticker)) {
+                conflados.increment();
+            }
+        }
+    }
+
+    public Suscripcion suscribir() {
+        Suscripcion suscripcion = new Suscripcion(this);
+        suscripciones.add(suscripcion);
+        return suscripcion;
+    }
+
+    public int suscriptores() {
+        return suscripciones.size();
+    }
+
+    /** Conflados entre todas las suscripciones desde el arranque. */
+    public long conflados() {
+        return conflados.sum();
+    }
+
+    /**
+     * Buzón de un consumidor: un casillero por producto. Lo lee un solo hilo;
+     * {@link #cancelar()} deja de recibir tickers.
+     */
+    public static final class Suscripcion implements AutoCloseable {
+
+        private final CanalTickers canal;
+        private final AtomicReferenceArray<TickerMessage> casilleros =
+                new AtomicReferenceArray<>(Product.values().length);
+        private final AtomicLong conflados = new AtomicLong();
+        private final AtomicLong recibidos = new AtomicLong();
+
+        private Suscripcion(CanalTickers canal) {
+            this.canal = canal;
+        }
+
+        // true si pisó un ticker que el consumidor todavía no había tomado.
+        private boolean depositar(TickerMessage ticker) {
+            recibidos.incrementAndGet();
+            if (casilleros.getAndSet(ticker.getProduct().ordinal(), ticker) == null) {
+                return false;
+            }
+            conflados.incrementAndGet();
+            return true;
+        }
+
+        /** Último ticker pendiente del producto, o null si no llegó ninguno desde la última toma. */
+        public TickerMessage tomar(Product producto) {
+            return producto == null ? null : casilleros.getAndSet(producto.ordinal(), null);
+        }
+
+        /** Entrega el último ticker de cada producto con novedades y devuelve cuántos entregó. */
+        public int drenar(Consumer<TickerMessage> consumidor) {
+            int entregados = 0;
+            for (int i = 0; i < casilleros.length(); i++) {
+                TickerMessage ticker = casilleros.getAndSet(i, null);
+                if (ticker == null) {
+                    continue;
+                }
+                consumidor.accept(ticker);
+                entregados++;
+            }
+            return entregados;
+        }
+
+        public long recibidos() {
+            return recibidos.get();
+        }
+
+        public long conflados() {
+            return conflados.get();
+        }
+
+        public void cancelar() {
+            canal.suscripciones.remove(this);
+        }
+
+        @Override
+        public void close() {
+            cancelar();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package tech.hellsoft.trading.cliente;
+
+import tech.hellsoft.trading.dto.local.RecetaLocal;
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lotes premium que permite el inventario para cada receta y el ingrediente
+ * que los limita. Cuando cambia un ingrediente solo se recalculan las recetas
+ * que lo usan, así que las consultas son O(1). No es thread-safe: la protege
+ * el candado de {@link EstadoCliente}.
+ */
+final class CapacidadProduccion {
+
+    private static final Product[] PRODUCTOS = Product.values();
+    private static final int[] NINGUNA = new int[0];
+
+    // Por ordinal del producto: null si no hay receta, vacío si no pide ingredientes.
+    private final Product[][] ingredientes = new Product[PRODUCTOS.length][];
+    private final int[][] requeridos = new int[PRODUCTOS.length][];
+    // Por ordinal del ingrediente: ordinales de las recetas que lo usan.
+    private final int[][] usadoPor = new int[PRODUCTOS.length][];
+    private final int[] lotes = new int[PRODUCTOS.length];
+    private final Product[] cuello = new Product[PRODUCTOS.length];
+
+    CapacidadProduccion() {
+        Arrays.fill(usadoPor, NINGUNA);
+    }
+
+    // Las recetas cambian poco (login, resync): se reconstruye el índice completo.
+    void definirRecetas(Map<Product, RecetaLocal> recetas, Map<Product, Integer> inventario) {
+        Arrays.fill(ingredientes, null);
+        Arrays.fill(requeridos, null);
+        List<List<Integer>> usos = new ArrayList<>(PRODUCTOS.length);
+        for (int i = 0; i < PRODUCTOS.length; i++) {
+            usos.add(new ArrayList<>());
+        }
+
+        for (Map.Entry<Product, RecetaLocal> entry : recetas.entrySet()) {
+            int receta = entry.getKey().ordinal();
+            List<Product> productos = new ArrayList<>();
+            List<Integer> cantidades = new ArrayList<>();
+            entry.getValue().ingredientes().forEach((ingrediente, cantidad) -> {
+                if (ingrediente != null && cantidad != null && cantidad > 0) {
+                    productos.add(ingrediente);
+                    cantidades.add(cantidad);
+                    usos.get(ingrediente.ordinal()).add(receta);
+                }
+            });
+            ingredientes[receta] = productos.toArray(new Product[0]);
+            requeridos[receta] = cantidades.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        for (int i = 0; i < PRODUCTOS.length; i++) {
+            List<Integer> recetasQueUsan = usos.get(i);
+            usadoPor[i] = recetasQueUsan.isEmpty() ? NINGUNA
+                    : recetasQueUsan.stream().mapToInt(Integer::intValue).toArray();
+        }
+        recalcularTodo(inventario);
+    }
+
+    void recalcularTodo(Map<Product, Integer> inventario) {
+        for (int receta = 0; receta < PRODUCTOS.length; receta++) {
+            recalcular(receta, inventario);
+        }
+    }
+
+    void ingredienteCambio(Product ingrediente, Map<Product, Integer> inventario) {
+        if (ingrediente == null) {
+            return;
+        }
+        for (int receta : usadoPor[ingrediente.ordinal()]) {
+            recalcular(receta, inventario);
+        }
+    }
+
+    // 0 si no hay receta; Integer.MAX_VALUE si la receta no pide ingredientes.
+    int lotes(Product producto) {
+        return producto == null ? 0 : lotes[producto.ordinal()];
+    }
+
+    Product cuello(Product producto) {
+        return producto == null ? null : cuello[producto.ordinal()];
+    }
+
+    private void recalcular(int receta, Map<Product, Integer> inventario) {
+        Product[] necesarios = ingredientes[receta];
+        if (necesarios == null) {
+            lotes[receta] = 0;
+            cuello[receta] = null;
+            return;
+        }
+
+        int minimo = Integer.MAX_VALUE;
+        Product limitante = null;
+        for (int i = 0; i < necesarios.length; i++) {
+            int disponible = Math.max(0, inventario.getOrDefault(necesarios[i], 0));
+            int alcanza = disponible / requeridos[receta][i];
+            if (alcanza < minimo) {
+                minimo = alcanza;
+                limitante = necesarios[i];
+            }
+        }
+        lotes[receta] = minimo;
+        cuello[receta] = limitante;
+    }
+}
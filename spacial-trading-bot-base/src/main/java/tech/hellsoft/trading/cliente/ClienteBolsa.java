@@ -1,16 +1,31 @@
 package tech.hellsoft.trading.cliente;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import tech.hellsoft.trading.CalculadoraProduccion;
 import tech.hellsoft.trading.ConectorBolsa;
 import tech.hellsoft.trading.EventListener;
 import tech.hellsoft.trading.SnapshotManager;
+import tech.hellsoft.trading.config.Ajustes;
+import tech.hellsoft.trading.config.AjustesEnVivo;
 import tech.hellsoft.trading.config.Configuration;
+import tech.hellsoft.trading.config.Verbosidad;
 import tech.hellsoft.trading.dto.client.AcceptOfferMessage;
 import tech.hellsoft.trading.dto.client.OrderMessage;
 import tech.hellsoft.trading.dto.client.ProductionUpdateMessage;
@@ -34,11 +49,25 @@ import tech.hellsoft.trading.exception.ConexionFallidaException;
 import tech.hellsoft.trading.exception.ConfiguracionInvalidaException;
 import tech.hellsoft.trading.exception.IngredientesInsuficientesException;
 import tech.hellsoft.trading.exception.InventarioInsuficienteException;
+import tech.hellsoft.trading.exception.OfertaExpiradaException;
 import tech.hellsoft.trading.exception.ProductoNoAutorizadoException;
 import tech.hellsoft.trading.exception.RecetaNoEncontradaException;
 import tech.hellsoft.trading.exception.SaldoInsuficienteException;
 import tech.hellsoft.trading.exception.SnapshotCorruptoException;
+import tech.hellsoft.trading.grabacion.GrabadorEventos;
+import tech.hellsoft.trading.grabacion.TipoEvento;
+import tech.hellsoft.trading.jfr.FillEvento;
+import tech.hellsoft.trading.jfr.OrdenEnviadaEvento;
+import tech.hellsoft.trading.jfr.RespuestaOfertaEvento;
+import tech.hellsoft.trading.jfr.TickerEvento;
+import tech.hellsoft.trading.metricas.FasesArranque;
+import tech.hellsoft.trading.metricas.ListenerMedido;
+import tech.hellsoft.trading.metricas.RegistroMetricas;
+import tech.hellsoft.trading.metricas.SeguimientoOrdenes;
+import tech.hellsoft.trading.metricas.SerieRendimientoGlobal;
 import tech.hellsoft.trading.repository.RecetaRepository;
+import tech.hellsoft.trading.repository.RolRepository;
+import tech.hellsoft.trading.util.IndiceProductos;
 
 /**
  * ClienteBolsa - versión más sencilla y didáctica.
@@ -48,19 +77,54 @@ import tech.hellsoft.trading.repository.RecetaRepository;
  */
 public final class ClienteBolsa implements EventListener {
 
+    public static final long VENTANA_MERCADO_MS = TimeUnit.MINUTES.toMillis(5);
+
     private final ConectorBolsa conector;
     private final Configuration config;
     private final EstadoCliente estado = new EstadoCliente();
-    private final Map<String, OfferMessage> ofertasPendientes = new HashMap<>();
-    private String especieActual;
-    private String equipoActual;
-    private static int consecutivoOrden = 1;
+    // La escribe el hilo de eventos y la leen la consola y el tablero.
+    private final Map<String, OfferMessage> ofertasPendientes = new ConcurrentHashMap<>();
+    private final RegistroMetricas metricas = new RegistroMetricas();
+    private final SeguimientoOrdenes seguimiento = new SeguimientoOrdenes(metricas);
+    private final SerieRendimientoGlobal rendimiento = new SerieRendimientoGlobal();
+    private final HistorialPrecios historialPrecios = new HistorialPrecios();
+    private final CanalTickers canalTickers = new CanalTickers(metricas.contador("ticker.conflados"));
+    private final EventListener escucha;
+    private final GestorReconexion reconexion;
+    private final AjustesEnVivo ajustes;
+    private final ScheduledExecutorService planificador;
+    private final LimitadorOrdenes limitador = new LimitadorOrdenes();
+    private final AplicadorDeltas deltas;
+    private ScheduledFuture<?> tareaSnapshot;
+    private final AtomicBoolean listenerRegistrado = new AtomicBoolean();
+    private volatile String especieActual;
+    private volatile String equipoActual;
+    private volatile GrabadorEventos grabador;
+    private volatile boolean sesionIniciada;
+    private volatile double ultimoDesvioSaldo;
+    private volatile FasesArranque arranque;
+    // Secuencia propia de cada cuenta; varias instancias conviven en el mismo proceso.
+    private final AtomicInteger consecutivoOrden = new AtomicInteger(1);
 
     public ClienteBolsa(ConectorBolsa conectorBolsa, Configuration configuration) {
+        this(conectorBolsa, configuration, null);
+    }
+
+    // Con un planificador compartido entre cuentas; si es null se crea uno propio.
+    public ClienteBolsa(ConectorBolsa conectorBolsa, Configuration configuration, ScheduledExecutorService planificador) {
         this.conector = Objects.requireNonNull(conectorBolsa, "conector");
         this.config = Objects.requireNonNull(configuration, "config");
         this.especieActual = configuration.species();
         this.equipoActual = configuration.team();
+        this.escucha = new ListenerMedido(this, metricas, seguimiento);
+        this.planificador = planificador != null ? planificador : crearPlanificador("cliente-" + equipoActual);
+        this.reconexion = new GestorReconexion(
+                () -> conector.conectar(config.host(), config.apiKey()), metricas, this.planificador);
+        this.deltas = new AplicadorDeltas(estado, metricas, this::resincronizarPorHueco);
+        this.ajustes = new AjustesEnVivo(configuration.ajustes());
+        registrarGauges();
+        aplicarAjustes(ajustes.actual());
+        ajustes.alCambiar(this::aplicarAjustes);
     }
 
     // Exponer estado
@@ -68,16 +132,56 @@ public final class ClienteBolsa implements EventListener {
         return estado;
     }
 
+    public String equipo() {
+        return equipoActual;
+    }
+
+    public RegistroMetricas metricas() {
+        return metricas;
+    }
+
+    public SeguimientoOrdenes seguimiento() {
+        return seguimiento;
+    }
+
+    public HistorialPrecios historialPrecios() {
+        return historialPrecios;
+    }
+
+    // Últimos tickers por producto para consumidores que no siguen el ritmo del mercado.
+    public CanalTickers tickers() {
+        return canalTickers;
+    }
+
+    public SerieRendimientoGlobal rendimiento() {
+        return rendimiento;
+    }
+
+    public GestorReconexion reconexion() {
+        return reconexion;
+    }
+
+    public AjustesEnVivo ajustes() {
+        return ajustes;
+    }
+
     // Devolver copia simple de ofertas pendientes
     public Map<String, OfferMessage> ofertasPendientes() {
         return new HashMap<>(ofertasPendientes);
     }
 
-    // Conexión
+    // El primer login cierra la medición de arranque y publica sus fases.
+    public void medirArranque(FasesArranque fases) {
+        this.arranque = fases;
+    }
+
+    // Conexión. El listener se registra una sola vez; las reconexiones las maneja GestorReconexion.
     public void conectar() {
-        conector.addListener(this);
+        if (listenerRegistrado.compareAndSet(false, true)) {
+            conector.addListener(escucha);
+        }
         try {
-            conector.conectar(config.host(), config.apiKey());
+            reconexion.conectar();
         } catch (ConexionFallidaException e) {
             // Convertimos a Runtime para no forzar callers, pero dejamos mensaje claro.
             throw new IllegalStateException("No se pudo conectar con la bolsa: " + e.getMessage(), e);
@@ -90,6 +194,8 @@ public final class ClienteBolsa implements EventListener {
     public void comprar(String nombreProducto, int cantidad, String mensaje)
             throws ProductoNoAutorizadoException, SaldoInsuficienteException {
 
+        exigirConexion();
+        long decision = seguimiento.decision();
         Product producto = resolverProducto(nombreProducto);
         validarCantidad(cantidad);
         validarAutorizado(producto);
@@ -106,10 +212,16 @@ public final class ClienteBolsa implements EventListener {
             throw new SaldoInsuficienteException(estado.saldo(), costoEstimado);
         }
 
+        exigirCupoOrdenes();
+        OrdenEnviadaEvento evento = new OrdenEnviadaEvento();
+        evento.begin();
         OrderMessage orden = construirOrden(producto, OrderSide.BUY, cantidad, mensaje, "Orden CLI");
-        conector.enviarOrden(orden);
+        seguimiento.registrarEnvio(orden.getClOrdID(), producto, OrderSide.BUY, cantidad, decision);
+        enviar(orden);
+        evento.terminar(producto, cantidad, orden.getClOrdID(), OrderSide.BUY);
+        metricas.contador(RegistroMetricas.ORDENES_ENVIADAS).increment();
 
-        System.out.println("Orden BUY enviada -> producto: " + nombre(producto) + " cantidad: " + cantidad
+        informar("Orden BUY enviada -> producto: " + nombre(producto) + " cantidad: " + cantidad
                 + " clOrdID: " + orden.getClOrdID());
     }
 
@@ -117,6 +229,8 @@ public final class ClienteBolsa implements EventListener {
     public void vender(String nombreProducto, int cantidad, String mensaje)
             throws ProductoNoAutorizadoException, InventarioInsuficienteException {
 
+        exigirConexion();
+        long decision = seguimiento.decision();
         Product producto = resolverProducto(nombreProducto);
         validarCantidad(cantidad);
         validarAutorizado(producto);
@@ -127,19 +241,36 @@ public final class ClienteBolsa implements EventListener {
             throw new InventarioInsuficienteException(producto, disponible, cantidad);
         }
 
+        exigirCupoOrdenes();
+        OrdenEnviadaEvento evento = new OrdenEnviadaEvento();
+        evento.begin();
         OrderMessage orden = construirOrden(producto, OrderSide.SELL, cantidad, mensaje, "Venta CLI");
-        conector.enviarOrden(orden);
+        seguimiento.registrarEnvio(orden.getClOrdID(), producto, OrderSide.SELL, cantidad, decision);
+        enviar(orden);
+        evento.terminar(producto, cantidad, orden.getClOrdID(), OrderSide.SELL);
+        metricas.contador(RegistroMetricas.ORDENES_ENVIADAS).increment();
 
-        System.out.println("Orden SELL enviada -> producto: " + nombre(producto) + " cantidad: " + cantidad
+        informar("Orden SELL enviada -> producto: " + nombre(producto) + " cantidad: " + cantidad
                 + " clOrdID: " + orden.getClOrdID());
     }
 
     // Producir: busca receta, valida ingredientes si premium, consume ingredientes y registra producción
     public void producir(String nombreProducto, boolean premium)
             throws ProductoNoAutorizadoException, RecetaNoEncontradaException, IngredientesInsuficientesException {
+        producirLotes(nombreProducto, premium, 1);
+    }
+
+    // Producir K lotes de una vez: una sola validación, un solo consumo de ingredientes y un solo
+    // ProductionUpdate con el total. Si no alcanza para los K lotes no se produce ninguno.
+    public void producirLotes(String nombreProducto, boolean premium, int lotes)
+            throws ProductoNoAutorizadoException, RecetaNoEncontradaException, IngredientesInsuficientesException {
 
+        exigirConexion();
         Product producto = resolverProducto(nombreProducto);
         validarAutorizado(producto);
+        if (lotes <= 0) {
+            throw new IllegalArgumentException("La cantidad de lotes debe ser mayor que 0.");
+        }
 
         Recipe receta = estado.recetaDe(producto);
         if (receta == null) {
@@ -154,48 +285,27 @@ public final class ClienteBolsa implements EventListener {
             throw new RecetaNoEncontradaException("No existe receta para " + nombre(producto));
         }
 
-        // Si es premium, verificar ingredientes necesarios
-        if (premium) {
-            Map<Product, Integer> ingredientes = receta.getIngredients();
-            Map<Product, Integer> faltantes = new HashMap<>();
-
-            if (ingredientes != null) {
-                for (Map.Entry<Product, Integer> entry : ingredientes.entrySet()) {
-                    Product ing = entry.getKey();
-                    Integer req = entry.getValue();
-                    int disponible = estado.cantidadDisponible(ing);
-                    if (req == null) req = 0;
-                    if (disponible < req) {
-                        faltantes.put(ing, req - disponible);
-                    }
-                }
-            }
-
-            if (!faltantes.isEmpty()) {
-                // lanzamos la excepción con mapa de faltantes
-                throw new IngredientesInsuficientesException(
-                        "Ingredientes insuficientes para producir " + nombre(producto),
-                        faltantes
-                );
-            }
-        }
-
-        // chequear que el rol esté disponible (login)
-        if (estado.rol() == null) {
-            throw new IllegalStateException("El rol aún no está disponible. Espera la confirmación de login.");
+        // Si es premium, verificar ingredientes necesarios; la capacidad ya está calculada
+        // y el detalle de faltantes solo se arma cuando no alcanza.
+        if (premium && estado.lotesPremiumPosibles(producto) < lotes) {
+            throw sinIngredientes(producto, receta, lotes);
         }
 
-        // consumir ingredientes (si premium) y calcular unidades producidas
+        int porLote = unidadesPorLote();
         if (premium) {
-            estado.consumirIngredientes(receta);
+            porLote = CalculadoraProduccion.aplicarBonusPremium(porLote, receta);
         }
-
-        int unidades = CalculadoraProduccion.calcularUnidades(estado.rol());
-        if (premium) {
-            unidades = CalculadoraProduccion.aplicarBonusPremium(unidades, receta);
+        int unidades;
+        try {
+            unidades = Math.multiplyExact(porLote, lotes);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Demasiados lotes: " + lotes, e);
         }
 
-        estado.sumarInventario(producto, unidades);
+        // Verificar, consumir y sumar en un solo paso: otro hilo pudo gastar los ingredientes desde el chequeo.
+        if (!estado.registrarProduccion(producto, receta, premium, lotes, unidades)) {
+            throw sinIngredientes(producto, receta, lotes);
+        }
 
         ProductionUpdateMessage produccion = ProductionUpdateMessage.builder()
                 .type(MessageType.PRODUCTION_UPDATE)
@@ -204,32 +314,52 @@ public final class ClienteBolsa implements EventListener {
                 .build();
 
         conector.enviarActualizacionProduccion(produccion);
+        metricas.contador("produccion.lotes").add(lotes);
 
-        System.out.println("Producción registrada: " + nombre(producto) + " x" + unidades
-                + (premium ? " (premium)" : " (básica)"));
+        informar("Producción registrada: " + nombre(producto) + " x" + unidades
+                + (premium ? " (premium" : " (básica") + (lotes > 1 ? ", " + lotes + " lotes)" : ")"));
+    }
+
+    /**
+     * Unidades de un lote básico: las del rol del servidor, precalculadas al
+     * recibirlo, o las del catálogo local de la especie si el servidor no lo envió.
+     */
+    public int unidadesPorLote() {
+        int delServidor = estado.unidadesBasicas();
+        if (delServidor >= 0) {
+            return delServidor;
+        }
+        RolRepository.Rendimiento local = RolRepository.instancia().rendimientoPara(especieActual, equipoActual);
+        if (local == null) {
+            throw new IllegalStateException("El rol aún no está disponible. Espera la confirmación de login.");
+        }
+        return local.unidadesBasicas();
     }
 
     // Aceptar / rechazar oferta
-    public void aceptarOferta(String offerId, boolean aceptar) throws InventarioInsuficienteException {
+    public void aceptarOferta(String offerId, boolean aceptar)
+            throws InventarioInsuficienteException, OfertaExpiradaException {
+        exigirConexion();
         OfferMessage oferta = ofertasPendientes.remove(offerId);
         if (oferta == null) {
-            System.out.println("No existe la oferta " + offerId);
-            return;
+            throw new OfertaExpiradaException("No existe la oferta " + offerId + " o ya expiró");
         }
 
+        RespuestaOfertaEvento evento = new RespuestaOfertaEvento();
+        evento.begin();
         Product producto = oferta.getProduct();
         int solicitada = oferta.getQuantityRequested() == null ? 0 : oferta.getQuantityRequested();
+        double precio = oferta.getMaxPrice() == null ? 0.0 : oferta.getMaxPrice();
 
         if (aceptar) {
             int disponible = estado.cantidadDisponible(producto);
             if (disponible < solicitada) {
                 throw new InventarioInsuficienteException(producto, disponible, solicitada);
             }
-            estado.restarInventario(producto, solicitada);
+            // Es una venta: consume los lotes FIFO y realiza el P&L; el BALANCE_UPDATE posterior fija el saldo.
+            estado.registrarVenta(producto, solicitada, solicitada * precio);
         }
 
-        double precio = oferta.getMaxPrice() == null ? 0.0 : oferta.getMaxPrice();
-
         AcceptOfferMessage respuesta = AcceptOfferMessage.builder()
                 .type(MessageType.ACCEPT_OFFER)
                 .offerId(oferta.getOfferId())
@@ -239,6 +369,7 @@ public final class ClienteBolsa implements EventListener {
                 .build();
 
         conector.enviarRespuestaOferta(respuesta);
+        evento.terminar(producto, aceptar ? solicitada : 0, oferta.getOfferId(), aceptar);
 
         System.out.println((aceptar ? "Aceptada" : "Rechazada") + " oferta " + offerId + " para " + nombre(producto));
     }
@@ -256,21 +387,88 @@ public final class ClienteBolsa implements EventListener {
         System.out.println("Snapshot cargado desde " + origen.getAbsolutePath());
     }
 
+    // Grabación de eventos entrantes para reproducirlos luego con ReproductorEventos
+    public synchronized void iniciarGrabacion(File destino) throws IOException {
+        detenerGrabacion();
+        grabador = new GrabadorEventos(destino);
+        System.out.println("Grabando eventos en " + destino.getAbsolutePath());
+    }
+
+    public synchronized long detenerGrabacion() {
+        GrabadorEventos actual = grabador;
+        if (actual == null) {
+            return 0;
+        }
+        grabador = null;
+        actual.close();
+        return actual.eventos();
+    }
+
+    public GrabadorEventos grabador() {
+        return grabador;
+    }
+
     // Solicitar resync (reenviar login)
     public void resincronizar() {
+        exigirConexion();
         conector.enviarLogin(config.apiKey());
         System.out.println("Solicitud de resync enviada.");
     }
 
+    // Falta una versión de EventDelta: un solo re-login; el LoginOK se reconcilia por diferencias.
+    private void resincronizarPorHueco() {
+        if (!reconexion.conectado()) {
+            return;
+        }
+        informar("⚠️ Hueco en los EventDelta: se pide resync");
+        conector.enviarLogin(config.apiKey());
+    }
+
+    // Serie de reportes globales en CSV; sin destino (o con una carpeta) usa rendimiento-<equipo>.csv.
+    public File exportarRendimiento(File destino) throws IOException {
+        File archivo = destino;
+        if (archivo == null || archivo.isDirectory()) {
+            File carpeta = archivo == null ? new File(config.snapshotsDir()) : archivo;
+            archivo = new File(carpeta, "rendimiento-" + equipoActual + ".csv");
+        }
+        archivo = prepararRuta(archivo);
+        try (Writer salida = Files.newBufferedWriter(archivo.toPath(), StandardCharsets.UTF_8)) {
+            rendimiento.exportarCsv(salida);
+        }
+        return archivo;
+    }
+
+    // Al terminar la sesión: guarda la serie si llegó algún reporte.
+    public void exportarRendimientoFinal() {
+        if (rendimiento.puntos() == 0) {
+            return;
+        }
+        try {
+            File archivo = exportarRendimiento(null);
+            informar("📈 Rendimiento global exportado a " + archivo.getAbsolutePath());
+        } catch (IOException | RuntimeException e) {
+            System.out.println("⚠️ No se pudo exportar el rendimiento global: " + e.getMessage());
+        }
+    }
+
     // ---------------------- CALLBACKS (EventListener) ----------------------
 
     @Override
     public void onLoginOk(LoginOKMessage loginOk) {
+        grabar(TipoEvento.LOGIN_OK, loginOk);
         if (loginOk == null) return;
 
-        estado.establecerSaldoInicial(valor(loginOk.getCurrentBalance()));
-        estado.reemplazarInventario(loginOk.getInventory());
-        estado.asignarRecetas(loginOk.getRecipes());
+        // El primer login construye el estado; los siguientes (resync o reconexión) solo aplican diferencias.
+        if (sesionIniciada) {
+            ResultadoReconciliacion resultado = ReconciliadorEstado.reconciliar(estado,
+                    valor(loginOk.getCurrentBalance()), loginOk.getInventory(), loginOk.getRecipes());
+            registrarReconciliacion(resultado);
+        } else {
+            estado.establecerSaldoInicial(valor(loginOk.getCurrentBalance()));
+            estado.reemplazarInventario(loginOk.getInventory());
+            estado.asignarRecetas(loginOk.getRecipes());
+            sesionIniciada = true;
+        }
 
         especieActual = (loginOk.getSpecies() == null || loginOk.getSpecies().isBlank())
                 ? config.species()
@@ -296,9 +494,33 @@ public final class ClienteBolsa implements EventListener {
         }
         estado.asignarProductosAutorizados(autorizados);
         estado.asignarRol(loginOk.getRole());
+        deltas.sesionSincronizada();
 
         System.out.println("Login exitoso | Equipo: " + loginOk.getTeam() + " | Especie: " + loginOk.getSpecies()
                 + " | Saldo: " + valor(loginOk.getCurrentBalance()));
+
+        FasesArranque fases = arranque;
+        if (fases != null && fases.cerrar("login", metricas)) {
+            informar("⏱️ Arranque: " + fases.resumen());
+        }
+    }
+
+    private void registrarReconciliacion(ResultadoReconciliacion resultado) {
+        metricas.contador("reconciliacion.ejecuciones").increment();
+        if (resultado.saldoDescuadrado()) {
+            metricas.contador("reconciliacion.saldoDescuadrado").increment();
+        }
+        metricas.contador("reconciliacion.productosDescuadrados").add(resultado.productosDescuadrados());
+        metricas.contador("reconciliacion.unidadesDescuadradas").add(resultado.unidadesDescuadradas());
+        ultimoDesvioSaldo = resultado.desvioSaldo();
+
+        if (resultado.cuadra()) {
+            System.out.println("Resync: estado local coincide con el servidor.");
+            return;
+        }
+        System.out.println("Resync con diferencias | desvío saldo: " + resultado.desvioSaldo()
+                + " | productos descuadrados: " + resultado.productosDescuadrados()
+                + " (" + resultado.unidadesDescuadradas() + " unidades)");
     }
 
     private void complementarRecetasLocales(String species, String team) {
@@ -313,6 +535,9 @@ public final class ClienteBolsa implements EventListener {
 
     @Override
     public void onFill(FillMessage fill) {
+        FillEvento evento = new FillEvento();
+        evento.begin();
+        grabar(TipoEvento.FILL, fill);
         if (fill == null) return;
 
         OrderSide side = fill.getSide();
@@ -320,88 +545,132 @@ public final class ClienteBolsa implements EventListener {
         double precio = fill.getFillPrice() == null ? 0.0 : fill.getFillPrice();
         double total = precio * cantidad;
         Product producto = fill.getProduct();
+        rendimiento.registrarVolumenPropio(total);
 
-        if (side == OrderSide.BUY) {
-            estado.ajustarSaldo(-total);
-            estado.sumarInventario(producto, cantidad);
-            return;
+        if (ajustes.actual().nivelVerbosidad() == Verbosidad.DETALLADO) {
+            System.out.println("Fill " + fill.getClOrdID() + " " + side + " " + nombre(producto) + " x" + cantidad
+                    + " @ " + precio);
         }
-        if (side == OrderSide.SELL) {
-            estado.ajustarSaldo(total);
-            estado.restarInventario(producto, cantidad);
+
+        if (side == OrderSide.BUY) {
+            estado.registrarCompra(producto, cantidad, total);
+        } else if (side == OrderSide.SELL) {
+            estado.registrarVenta(producto, cantidad, total);
         }
+        evento.terminar(producto, cantidad, fill.getClOrdID(), side, precio);
     }
 
     @Override
     public void onTicker(TickerMessage ticker) {
+        TickerEvento evento = new TickerEvento();
+        evento.begin();
+        grabar(TipoEvento.TICKER, ticker);
         if (ticker == null) return;
-        estado.registrarPrecio(ticker.getProduct(), valor(ticker.getMid()));
+        double mid = valor(ticker.getMid());
+        estado.registrarPrecio(ticker.getProduct(), mid);
+        historialPrecios.registrar(ticker.getProduct(), mid, System.currentTimeMillis());
+        canalTickers.publicar(ticker);
+        evento.terminar(ticker.getProduct(), mid);
     }
 
     @Override
     public void onOffer(OfferMessage offer) {
+        grabar(TipoEvento.OFFER, offer);
         if (offer == null || offer.getOfferId() == null) return;
         ofertasPendientes.put(offer.getOfferId(), offer);
 
         int cantidad = offer.getQuantityRequested() == null ? 0 : offer.getQuantityRequested();
         double precio = offer.getMaxPrice() == null ? 0.0 : offer.getMaxPrice();
-        System.out.println("Oferta " + offer.getOfferId() + " | " + nombre(offer.getProduct())
+        informar("Oferta " + offer.getOfferId() + " | " + nombre(offer.getProduct())
                 + " x" + cantidad + " @ " + precio);
     }
 
     @Override
     public void onError(ErrorMessage error) {
+        grabar(TipoEvento.ERROR, error);
         if (error == null) return;
         System.out.println("ERROR [" + error.getCode() + "]: " + error.getReason());
     }
 
     @Override
     public void onOrderAck(OrderAckMessage orderAck) {
+        grabar(TipoEvento.ORDER_ACK, orderAck);
         if (orderAck == null) return;
-        System.out.println("OrderAck " + orderAck.getClOrdID() + " - " + orderAck.getStatus());
+        informar("OrderAck " + orderAck.getClOrdID() + " - " + orderAck.getStatus());
     }
 
     @Override
     public void onInventoryUpdate(InventoryUpdateMessage inventoryUpdate) {
+        grabar(TipoEvento.INVENTORY_UPDATE, inventoryUpdate);
         if (inventoryUpdate == null) return;
         estado.reemplazarInventario(inventoryUpdate.getInventory());
     }
 
     @Override
     public void onBalanceUpdate(BalanceUpdateMessage balanceUpdate) {
+        grabar(TipoEvento.BALANCE_UPDATE, balanceUpdate);
         if (balanceUpdate == null) return;
         estado.actualizarSaldo(valor(balanceUpdate.getBalance()));
     }
 
     @Override
     public void onEventDelta(EventDeltaMessage eventDelta) {
+        grabar(TipoEvento.EVENT_DELTA, eventDelta);
         if (eventDelta == null) return;
-        System.out.println("EventDelta: " + eventDelta.getType());
+        if (deltas.aplicar(eventDelta) == AplicadorDeltas.Resultado.DESCONOCIDO) {
+            informar("EventDelta sin aplicar: " + AplicadorDeltas.tipoDe(eventDelta));
+        }
     }
 
     @Override
     public void onBroadcast(BroadcastNotificationMessage broadcast) {
+        grabar(TipoEvento.BROADCAST, broadcast);
         if (broadcast == null) return;
-        System.out.println("Broadcast: " + broadcast.getMessage());
+        informar("Broadcast: " + broadcast.getMessage());
     }
 
     @Override
     public void onConnectionLost(Throwable throwable) {
+        grabar(TipoEvento.CONNECTION_LOST, throwable != null ? String.valueOf(throwable.getMessage()) : "desconocido");
         System.out.println("Conexión perdida: " + (throwable != null ? throwable.getMessage() : "desconocido"));
-        intentarReconectar();
+        reconexion.conexionPerdida(throwable);
     }
 
     @Override
     public void onGlobalPerformanceReport(GlobalPerformanceReportMessage report) {
+        grabar(TipoEvento.GLOBAL_PERFORMANCE_REPORT, report);
         if (report == null) return;
         Integer totalTrades = report.getTotalTrades();
         double volumen = valor(report.getTotalVolume());
-        System.out.println("Performance global: trades=" + (totalTrades == null ? 0 : totalTrades)
+        rendimiento.registrar(SerieRendimientoGlobal.tiempoDe(report.getServerTime()),
+                totalTrades == null ? 0 : totalTrades, volumen);
+        informar("Performance global: trades=" + (totalTrades == null ? 0 : totalTrades)
                 + " volumen=" + volumen);
     }
 
     // ---------------------- util privados ----------------------
 
+    private void registrarGauges() {
+        metricas.registrarGauge("saldo", estado::saldo);
+        metricas.registrarGauge("inventario.valor", estado::calcularValorInventario);
+        metricas.registrarGauge("pnl.porcentaje", estado::calcularPL);
+        metricas.registrarGauge("pnl.realizado", estado::plRealizado);
+        metricas.registrarGauge("pnl.noRealizado", estado::plNoRealizado);
+        metricas.registrarGauge("cola.ofertasPendientes", ofertasPendientes::size);
+        metricas.registrarGauge("ordenes.abiertas", seguimiento::ordenesAbiertas);
+        metricas.registrarGauge("reconciliacion.ultimoDesvioSaldo", () -> ultimoDesvioSaldo);
+        metricas.registrarGauge("conexion.conectado", () -> reconexion.conectado() ? 1 : 0);
+        metricas.registrarGauge("mercado.participacion5m", () -> rendimiento.participacion(VENTANA_MERCADO_MS));
+        metricas.registrarGauge("mercado.tendencia5m", () -> rendimiento.tendencia(VENTANA_MERCADO_MS));
+    }
+
+    private void grabar(TipoEvento tipo, Object mensaje) {
+        GrabadorEventos actual = grabador;
+        if (actual != null) {
+            actual.registrar(tipo, mensaje);
+        }
+    }
+
     private void validarAutorizado(Product producto) throws ProductoNoAutorizadoException {
         if (producto == null || !estado.productoAutorizado(producto)) {
             // obtener lista de permitidos como texto desde estado
@@ -420,15 +689,37 @@ public final class ClienteBolsa implements EventListener {
         if (nombre == null || nombre.isBlank()) {
             throw new ProductoNoAutorizadoException("(vacío)", estado.productosAutorizadosComoTexto());
         }
-        String normalizado = nombre.trim().toUpperCase().replace('-', '_').replace(' ', '_');
-        for (Product p : Product.values()) {
-            if (p.name().equalsIgnoreCase(normalizado) || p.getValue().equalsIgnoreCase(nombre.trim())) {
-                return p;
-            }
+        Product producto = IndiceProductos.buscar(nombre);
+        if (producto != null) {
+            return producto;
         }
         throw new ProductoNoAutorizadoException(nombre, estado.productosAutorizadosComoTexto());
     }
 
+    private IngredientesInsuficientesException sinIngredientes(Product producto, Recipe receta, int lotes) {
+        return new IngredientesInsuficientesException("Ingredientes insuficientes para producir " + nombre(producto)
+                + (lotes > 1 ? " x" + lotes + " lotes" : "") + " (limita " + nombre(estado.cuelloDeBotella(producto))
+                + ")", faltantes(receta, lotes));
+    }
+
+    private Map<Product, Integer> faltantes(Recipe receta, int lotes) {
+        Map<Product, Integer> faltantes = new HashMap<>();
+        Map<Product, Integer> ingredientes = receta.getIngredients();
+        if (ingredientes == null) {
+            return faltantes;
+        }
+        for (Map.Entry<Product, Integer> entry : ingredientes.entrySet()) {
+            Product ing = entry.getKey();
+            Integer req = entry.getValue();
+            int disponible = estado.cantidadDisponible(ing);
+            long requerido = req == null ? 0L : (long) req * lotes;
+            if (disponible < requerido) {
+                faltantes.put(ing, (int) Math.min(Integer.MAX_VALUE, requerido - disponible));
+            }
+        }
+        return faltantes;
+    }
+
     private String nombre(Product producto) {
         return producto == null ? "N/D" : producto.getValue();
     }
@@ -447,8 +738,8 @@ public final class ClienteBolsa implements EventListener {
                 .build();
     }
 
-    private synchronized String generarClOrdId() {
-        int seq = consecutivoOrden++;
+    private String generarClOrdId() {
+        int seq = consecutivoOrden.getAndIncrement();
         long ts = System.currentTimeMillis();
         return "ORD-" + ts + "-" + seq;
     }
@@ -468,14 +759,77 @@ public final class ClienteBolsa implements EventListener {
         return destino;
     }
 
-    private void intentarReconectar() {
+    // Se registra antes de enviar porque el ack puede llegar antes de que enviarOrden retorne.
+    private void enviar(OrderMessage orden) {
         try {
-            Thread.sleep(3000L);
-            conectar();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            conector.enviarOrden(orden);
         } catch (RuntimeException e) {
-            System.out.println("No se pudo reconectar automáticamente: " + e.getMessage());
+            seguimiento.descartarEnvio(orden.getClOrdID());
+            throw e;
+        }
+    }
+
+    // Consume cupo: se llama justo antes de enviar, cuando la orden ya pasó las validaciones.
+    private void exigirCupoOrdenes() {
+        if (!limitador.intentar(ajustes.actual().ordenesPorSegundo())) {
+            metricas.contador("ordenes.limitadas").increment();
+            throw new IllegalStateException("Límite de " + ajustes.actual().ordenesPorSegundo()
+                    + " órdenes/s alcanzado; orden no enviada.");
+        }
+    }
+
+    // Mensajes rutinarios: se omiten en modo silencioso.
+    private void informar(String texto) {
+        if (ajustes.actual().nivelVerbosidad() != Verbosidad.SILENCIOSO) {
+            System.out.println(texto);
+        }
+    }
+
+    private void aplicarAjustes(Ajustes nuevos) {
+        seguimiento.limiteTrazas(nuevos.maxOrdenesEnSeguimiento());
+        programarSnapshots(nuevos.snapshotIntervaloSeg());
+    }
+
+    private synchronized void programarSnapshots(int intervaloSeg) {
+        if (tareaSnapshot != null) {
+            tareaSnapshot.cancel(false);
+            tareaSnapshot = null;
+        }
+        if (intervaloSeg <= 0) {
+            return;
+        }
+        tareaSnapshot = planificador.scheduleWithFixedDelay(this::guardarSnapshotPeriodico,
+                intervaloSeg, intervaloSeg, TimeUnit.SECONDS);
+    }
+
+    // Se escribe a un temporal y se renombra, para no dejar un snapshot a medias si el proceso muere.
+    private void guardarSnapshotPeriodico() {
+        try {
+            File destino = prepararRuta(new File(config.snapshotsDir(), "auto-" + equipoActual + ".bin"));
+            File temporal = new File(destino.getPath() + ".tmp");
+            SnapshotManager.guardar(estado, temporal);
+            Files.move(temporal.toPath(), destino.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            metricas.contador("snapshots.automaticos").increment();
+        } catch (ConfiguracionInvalidaException | IOException | RuntimeException e) {
+            System.out.println("⚠️ Snapshot automático falló: " + e.getMessage());
+        }
+    }
+
+    private static ScheduledExecutorService crearPlanificador(String nombreHilo) {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, nombreHilo);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    // Sin conexión no se envía nada: una orden a mercado retenida se ejecutaría a precios viejos.
+    private void exigirConexion() {
+        EstadoConexion actual = reconexion.estado();
+        if (actual != EstadoConexion.CONECTADO) {
+            metricas.contador("ordenes.rechazadasSinConexion").increment();
+            throw new IllegalStateException("Sin conexión con la bolsa (" + actual + "); operación no enviada.");
         }
     }
 
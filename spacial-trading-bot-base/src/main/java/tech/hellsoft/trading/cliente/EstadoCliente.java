@@ -1,18 +1,39 @@
 package tech.hellsoft.trading.cliente;
 
 import java.util.stream.Collectors;
+import tech.hellsoft.trading.CalculadoraProduccion;
 import tech.hellsoft.trading.dto.local.RecetaLocal;
 import tech.hellsoft.trading.dto.local.TeamRoleLocal;
 import tech.hellsoft.trading.dto.server.Recipe;
 import tech.hellsoft.trading.dto.server.TeamRole;
 import tech.hellsoft.trading.enums.Product;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Estado local del bot. Lo escriben el hilo de eventos, la consola y la
+ * auto-producción, así que todos los accesos se sincronizan sobre la
+ * instancia; los lectores que necesitan varios valores a la vez usan
+ * {@link #vista()} para obtener una copia coherente en un solo paso.
+ *
+ * <p>Cada cambio de inventario o recetas actualiza {@link CapacidadProduccion},
+ * de modo que {@link #lotesPremiumPosibles(Product)} responde sin recorrer
+ * ingredientes.
+ *
+ * <p>Compras, ventas y producciones pasan además por {@link LibroLotes}, que
+ * lleva el costo FIFO del inventario y de ahí el P&L realizado y no realizado.
+ */
 public final class EstadoCliente implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -27,64 +48,79 @@ public final class EstadoCliente implements Serializable {
 
     private TeamRoleLocal rol;
 
+    // No es final para poder crearlo al leer snapshots anteriores al libro de lotes.
+    private LibroLotes libroLotes = new LibroLotes();
+
+    // Derivada de inventario y recetas; se reconstruye al deserializar.
+    private transient CapacidadProduccion capacidad = new CapacidadProduccion();
+    // Unidades por lote básico del rol, calculadas una vez al asignarlo; -1 sin rol.
+    private transient int unidadesBasicas = -1;
+
     // SALDO
-    public void establecerSaldoInicial(double valor) {
+    public synchronized void establecerSaldoInicial(double valor) {
         saldoInicial = valor;
         saldo = valor;
     }
 
-    public void actualizarSaldo(double valor) {
+    public synchronized void actualizarSaldo(double valor) {
         saldo = valor;
     }
 
-    public void ajustarSaldo(double delta) {
+    public synchronized void ajustarSaldo(double delta) {
         double nuevoSaldo = saldo + delta;
         saldo = nuevoSaldo;
     }
 
-    public double saldo() {
+    public synchronized double saldo() {
         return saldo;
     }
 
-    public double saldoInicial() {
+    public synchronized double saldoInicial() {
         return saldoInicial;
     }
     // INVENTARIO
-    public Map<Product, Integer> inventario() {
+    public synchronized Map<Product, Integer> inventario() {
         // Se crea una copia para no exponer el mapa real
         Map<Product, Integer> copia = new HashMap<>();
         copia.putAll(inventario);
         return copia;
     }
 
-    public void reemplazarInventario(Map<Product, Integer> nuevoInventario) {
+    public synchronized void reemplazarInventario(Map<Product, Integer> nuevoInventario) {
         inventario.clear();
 
-        if (nuevoInventario == null) {
-            return;
-        }
-
-        for (Map.Entry<Product, Integer> entry : nuevoInventario.entrySet()) {
-            Product producto = entry.getKey();
-            Integer cantidad = entry.getValue();
+        if (nuevoInventario != null) {
+            for (Map.Entry<Product, Integer> entry : nuevoInventario.entrySet()) {
+                Product producto = entry.getKey();
+                Integer cantidad = entry.getValue();
 
-            if (producto != null && cantidad != null) {
-                int cantidadFinal = Math.max(0, cantidad);
-                inventario.put(producto, cantidadFinal);
+                if (producto != null && cantidad != null) {
+                    int cantidadFinal = Math.max(0, cantidad);
+                    inventario.put(producto, cantidadFinal);
+                }
             }
         }
+        capacidad.recalcularTodo(inventario);
+        alinearLotes();
+    }
+
+    public synchronized void consumirIngredientes(Recipe receta) {
+        consumirIngredientes(receta, 1);
     }
 
-    public void consumirIngredientes(Recipe receta) {
+    // Devuelve el costo FIFO de los ingredientes consumidos.
+    private double consumirIngredientes(Recipe receta, int lotes) {
         if (receta == null) {
-            return;
+            return 0.0;
         }
 
         Map<Product, Integer> ingredientes = receta.getIngredients();
         if (ingredientes == null) {
-            return;
+            return 0.0;
         }
 
+        double costo = 0.0;
+
         for (Map.Entry<Product, Integer> entry : ingredientes.entrySet()) {
             Product producto = entry.getKey();
             Integer requerido = entry.getValue();
@@ -93,46 +129,130 @@ public final class EstadoCliente implements Serializable {
                 continue;
             }
 
-            int disponible = inventario.getOrDefault(producto, 0);
-            int restante = disponible - requerido;
-            inventario.put(producto, restante);
+            int usados = requerido * lotes;
+            moverInventario(producto, -usados);
+            costo += libroLotes.retirar(producto, usados);
         }
+        return costo;
     }
 
-    public void sumarInventario(Product producto, int cantidad) {
+    // Cambios de inventario que no son compra, venta ni producción: el libro de lotes solo se alinea.
+    public synchronized void sumarInventario(Product producto, int cantidad) {
         if (producto == null) {
             return;
         }
 
+        moverInventario(producto, cantidad);
+        libroLotes.ajustar(producto, inventario.get(producto));
+    }
+
+    public synchronized void restarInventario(Product producto, int cantidad) {
+        if (producto == null) {
+            return;
+        }
+
+        moverInventario(producto, -cantidad);
+        libroLotes.ajustar(producto, inventario.get(producto));
+    }
+
+    // Cantidad absoluta (p. ej. de un delta del servidor): lectura y escritura bajo el mismo candado.
+    // Devuelve la diferencia aplicada.
+    public synchronized int fijarInventario(Product producto, int cantidad) {
+        if (producto == null) {
+            return 0;
+        }
+
+        int diferencia = Math.max(0, cantidad) - inventario.getOrDefault(producto, 0);
+        if (diferencia == 0) {
+            return 0;
+        }
+        moverInventario(producto, diferencia);
+        libroLotes.ajustar(producto, inventario.get(producto));
+        return diferencia;
+    }
+
+    private void moverInventario(Product producto, int delta) {
         int actual = inventario.getOrDefault(producto, 0);
-        int nuevoValor = actual + cantidad;
+        int nuevoValor = actual + delta;
 
         inventario.put(producto, nuevoValor);
+        capacidad.ingredienteCambio(producto, inventario);
     }
 
-    public void restarInventario(Product producto, int cantidad) {
+    private void alinearLotes() {
+        for (Product producto : Product.values()) {
+            libroLotes.ajustar(producto, inventario.getOrDefault(producto, 0));
+        }
+    }
+
+    // Un fill mueve saldo e inventario en un solo paso: ningún lector ve el cobro sin la mercancía.
+    public synchronized void registrarCompra(Product producto, int cantidad, double total) {
+        saldo -= total;
         if (producto == null) {
             return;
         }
+        moverInventario(producto, cantidad);
+        libroLotes.entrada(producto, cantidad, total);
+    }
 
-        int actual = inventario.getOrDefault(producto, 0);
-        int nuevoValor = actual - cantidad;
+    public synchronized void registrarVenta(Product producto, int cantidad, double total) {
+        saldo += total;
+        if (producto == null) {
+            return;
+        }
+        moverInventario(producto, -cantidad);
+        libroLotes.salida(producto, cantidad, total);
+    }
 
-        inventario.put(producto, nuevoValor);
+    /**
+     * Consume los ingredientes de {@code lotes} lotes (si es premium) y suma lo
+     * producido en un solo paso; devuelve false sin tocar nada si no alcanza para
+     * todos los lotes.
+     */
+    public synchronized boolean registrarProduccion(Product producto, Recipe receta, boolean premium, int lotes,
+            int unidades) {
+        if (lotes < 1) {
+            return false;
+        }
+        // El lote producido hereda el costo FIFO de sus ingredientes; la producción básica no cuesta nada.
+        double costo = 0.0;
+        if (premium) {
+            if (capacidad.lotes(producto) < lotes) {
+                return false;
+            }
+            costo = consumirIngredientes(receta, lotes);
+        }
+        if (producto == null) {
+            return true;
+        }
+        moverInventario(producto, unidades);
+        libroLotes.entrada(producto, unidades, costo);
+        return true;
     }
 
-    public int cantidadDisponible(Product producto) {
+    public synchronized int cantidadDisponible(Product producto) {
         return inventario.getOrDefault(producto, 0);
     }
 
+    // CAPACIDAD DE PRODUCCIÓN
+    /** Lotes premium que alcanza el inventario; 0 sin receta, MAX_VALUE si no pide ingredientes. */
+    public synchronized int lotesPremiumPosibles(Product producto) {
+        return capacidad.lotes(producto);
+    }
+
+    /** Ingrediente que limita los lotes premium de la receta, o null si no hay. */
+    public synchronized Product cuelloDeBotella(Product producto) {
+        return capacidad.cuello(producto);
+    }
+
     // PRECIOS
-    public Map<Product, Double> precios() {
+    public synchronized Map<Product, Double> precios() {
         Map<Product, Double> copia = new HashMap<>();
         copia.putAll(precios);
         return copia;
     }
 
-    public void registrarPrecio(Product producto, double mid) {
+    public synchronized void registrarPrecio(Product producto, double mid) {
         if (producto == null) {
             return;
         }
@@ -140,12 +260,12 @@ public final class EstadoCliente implements Serializable {
         precios.put(producto, mid);
     }
 
-    public double precioReferencia(Product producto) {
+    public synchronized double precioReferencia(Product producto) {
         return precios.getOrDefault(producto, 0.0);
     }
 
     // RECETAS
-    public Map<Product, Recipe> recetas() {
+    public synchronized Map<Product, Recipe> recetas() {
         Map<Product, Recipe> copia = new HashMap<>();
 
         for (Map.Entry<Product, RecetaLocal> entry : recetas.entrySet()) {
@@ -162,22 +282,18 @@ public final class EstadoCliente implements Serializable {
         return copia;
     }
 
-    public void asignarRecetas(Map<Product, Recipe> nuevasRecetas) {
+    public synchronized void asignarRecetas(Map<Product, Recipe> nuevasRecetas) {
         recetas.clear();
 
-        if (nuevasRecetas == null) {
-            return;
-        }
-
-        for (Map.Entry<Product, Recipe> entry : nuevasRecetas.entrySet()) {
-            Product producto = entry.getKey();
-            Recipe receta = entry.getValue();
-
-            asignarReceta(producto, receta);
+        if (nuevasRecetas != null) {
+            for (Map.Entry<Product, Recipe> entry : nuevasRecetas.entrySet()) {
+                ponerReceta(entry.getKey(), entry.getValue());
+            }
         }
+        capacidad.definirRecetas(recetas, inventario);
     }
 
-    public boolean complementarRecetas(Map<Product, Recipe> nuevasRecetas) {
+    public synchronized boolean complementarRecetas(Map<Product, Recipe> nuevasRecetas) {
         boolean cambio = false;
 
         if (nuevasRecetas == null || nuevasRecetas.isEmpty()) {
@@ -205,22 +321,51 @@ public final class EstadoCliente implements Serializable {
             }
         }
 
+        if (cambio) {
+            capacidad.definirRecetas(recetas, inventario);
+        }
         return cambio;
     }
 
-    public void asignarReceta(Product producto, Recipe receta) {
+    // Reemplaza las recetas recibidas sin borrar las demás; la capacidad se recalcula una sola vez.
+    public synchronized int actualizarRecetas(Map<Product, Recipe> nuevasRecetas) {
+        if (nuevasRecetas == null) {
+            return 0;
+        }
+
+        int asignadas = 0;
+        for (Map.Entry<Product, Recipe> entry : nuevasRecetas.entrySet()) {
+            if (ponerReceta(entry.getKey(), entry.getValue())) {
+                asignadas++;
+            }
+        }
+        if (asignadas > 0) {
+            capacidad.definirRecetas(recetas, inventario);
+        }
+        return asignadas;
+    }
+
+    public synchronized void asignarReceta(Product producto, Recipe receta) {
+        if (ponerReceta(producto, receta)) {
+            capacidad.definirRecetas(recetas, inventario);
+        }
+    }
+
+    private boolean ponerReceta(Product producto, Recipe receta) {
         if (producto == null || receta == null) {
-            return;
+            return false;
         }
 
         RecetaLocal local = RecetaLocal.fromRecipe(receta);
 
         if (local != null) {
             recetas.put(producto, local);
+            return true;
         }
+        return false;
     }
 
-    public Recipe recetaDe(Product producto) {
+    public synchronized Recipe recetaDe(Product producto) {
         RecetaLocal local = recetas.get(producto);
         return convertirReceta(local);
     }
@@ -232,7 +377,7 @@ public final class EstadoCliente implements Serializable {
         return local.toRecipe();
     }
     // PRODUCTOS AUTORIZADOS
-    public void asignarProductosAutorizados(Set<Product> productos) {
+    public synchronized void asignarProductosAutorizados(Set<Product> productos) {
         productosAutorizados.clear();
 
         if (productos == null) {
@@ -246,12 +391,23 @@ public final class EstadoCliente implements Serializable {
         }
     }
 
-    public Set<String> productosAutorizadosComoTexto() {
+    public synchronized void autorizarProducto(Product producto, boolean autorizado) {
+        if (producto == null) {
+            return;
+        }
+        if (autorizado) {
+            productosAutorizados.add(producto);
+        } else {
+            productosAutorizados.remove(producto);
+        }
+    }
+
+    public synchronized Set<String> productosAutorizadosComoTexto() {
         return productosAutorizados.stream()
                 .map(Product::getValue).collect(Collectors.toSet());
     }
 
-    public boolean productoAutorizado(Product producto) {
+    public synchronized boolean productoAutorizado(Product producto) {
         if (producto == null) {
             return false;
         }
@@ -262,11 +418,21 @@ public final class EstadoCliente implements Serializable {
     // ROL
     // ---------------------------------------------------------
 
-    public void asignarRol(TeamRole nuevoRol) {
+    public synchronized void asignarRol(TeamRole nuevoRol) {
         rol = TeamRoleLocal.from(nuevoRol);
+        unidadesBasicas = calcularUnidadesBasicas();
+    }
+
+    /** Unidades de un lote básico con el rol del servidor, o -1 si aún no hay rol. */
+    public synchronized int unidadesBasicas() {
+        return unidadesBasicas;
+    }
+
+    private int calcularUnidadesBasicas() {
+        return rol == null ? -1 : CalculadoraProduccion.calcularUnidades(rol.toTeamRole());
     }
 
-    public TeamRole rol() {
+    public synchronized TeamRole rol() {
         if (rol == null) {
             return null;
         }
@@ -274,7 +440,7 @@ public final class EstadoCliente implements Serializable {
     }
 
     // CÁLCULOS
-    public double calcularValorInventario() {
+    public synchronized double calcularValorInventario() {
         double total = 0.0;
 
         for (Map.Entry<Product, Integer> entry : inventario.entrySet()) {
@@ -289,7 +455,7 @@ public final class EstadoCliente implements Serializable {
         return total;
     }
 
-    public double calcularPL() {
+    public synchronized double calcularPL() {
         if (saldoInicial <= 0.0) {
             return 0.0;
         }
@@ -300,8 +466,48 @@ public final class EstadoCliente implements Serializable {
         return (diferencia / saldoInicial) * 100.0;
     }
 
+    // P&L POR LOTES (FIFO)
+    public synchronized double plRealizado() {
+        return libroLotes.realizado();
+    }
+
+    /** Valor de mercado menos costo de los lotes abiertos con precio conocido. */
+    public synchronized double plNoRealizado() {
+        return libroLotes.noRealizado(precios);
+    }
+
+    public synchronized double costoPromedio(Product producto) {
+        return libroLotes.costoPromedio(producto);
+    }
+
+    /** Lotes abiertos por producto, ordenados como el enum. */
+    public synchronized List<PosicionLotes> posiciones() {
+        List<PosicionLotes> posiciones = new ArrayList<>();
+        for (Product producto : Product.values()) {
+            long cantidad = libroLotes.cantidad(producto);
+            if (cantidad == 0) {
+                continue;
+            }
+            Double precio = precios.get(producto);
+            posiciones.add(new PosicionLotes(producto, cantidad, libroLotes.costoPromedio(producto), precio,
+                    precio == null ? 0.0 : libroLotes.noRealizado(producto, precio)));
+        }
+        return posiciones;
+    }
+
+    // VISTA DE SOLO LECTURA
+    public synchronized VistaEstado vista() {
+        Map<Product, Integer> copiaInventario = new EnumMap<>(Product.class);
+        copiaInventario.putAll(inventario);
+        Map<Product, Double> copiaPrecios = new EnumMap<>(Product.class);
+        copiaPrecios.putAll(precios);
+        return new VistaEstado(saldo, saldoInicial, calcularValorInventario(), calcularPL(),
+                libroLotes.realizado(), libroLotes.noRealizado(precios),
+                Collections.unmodifiableMap(copiaInventario), Collections.unmodifiableMap(copiaPrecios));
+    }
+
     // COPIA COMPLETA DEL ESTADO
-    public void copiarDesde(EstadoCliente origen) {
+    public synchronized void copiarDesde(EstadoCliente origen) {
         if (origen == null) {
             return;
         }
@@ -322,5 +528,24 @@ public final class EstadoCliente implements Serializable {
         productosAutorizados.addAll(origen.productosAutorizados);
 
         rol = origen.rol;
+        unidadesBasicas = origen.unidadesBasicas;
+        capacidad.definirRecetas(recetas, inventario);
+        libroLotes = origen.libroLotes.copia();
+    }
+
+    // La serialización de snapshots toma el mismo candado que los escritores.
+    private synchronized void writeObject(ObjectOutputStream salida) throws IOException {
+        salida.defaultWriteObject();
+    }
+
+    private void readObject(ObjectInputStream entrada) throws IOException, ClassNotFoundException {
+        entrada.defaultReadObject();
+        capacidad = new CapacidadProduccion();
+        capacidad.definirRecetas(recetas, inventario);
+        unidadesBasicas = calcularUnidadesBasicas();
+        if (libroLotes == null) {
+            libroLotes = new LibroLotes();
+            alinearLotes();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package tech.hellsoft.trading.cliente;
+
+/**
+ * Estados de la conexión con la bolsa que sigue {@link GestorReconexion}.
+ */
+public enum EstadoConexion {
+    DESCONECTADO,
+    CONECTANDO,
+    CONECTADO,
+    RECONECTANDO,
+    DETENIDO
+}
@@ -0,0 +1,154 @@
+package tech.hellsoft.trading.cliente;
+
+import tech.hellsoft.trading.exception.ConexionFallidaException;
+import tech.hellsoft.trading.jfr.ReconexionEvento;
+import tech.hellsoft.trading.metricas.HistogramaLatencia;
+import tech.hellsoft.trading.metricas.RegistroMetricas;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reconecta con la bolsa en su propio hilo, sin bloquear el hilo del conector
+ * que avisa la caída. Los reintentos usan backoff exponencial con jitter
+ * (entre la mitad y el total de BASE * 2^n, con techo de 30 s) y siguen hasta
+ * lograrlo o hasta {@link #detener()}.
+ */
+public final class GestorReconexion {
+
+    /** Un intento de conexión; normalmente {@code conector.conectar(host, apiKey)}. */
+    @FunctionalInterface
+    public interface Intento {
+        void ejecutar() throws ConexionFallidaException;
+    }
+
+    static final long BASE_MS = 500L;
+    static final long MAXIMO_MS = 30_000L;
+
+    private final Intento intento;
+    private final ScheduledExecutorService planificador;
+    private final boolean planificadorPropio;
+    private final AtomicReference<EstadoConexion> estado = new AtomicReference<>(EstadoConexion.DESCONECTADO);
+    private final HistogramaLatencia tiempoReconexion;
+    private final LongAdder perdidas;
+    private final LongAdder reintentos;
+
+    private volatile long inicioCorte;
+    private volatile int intentos;
+
+    public GestorReconexion(Intento intento, RegistroMetricas metricas, String nombreHilo) {
+        this(intento, metricas, crearPlanificador(nombreHilo), true);
+    }
+
+    public GestorReconexion(Intento intento, RegistroMetricas metricas, ScheduledExecutorService planificador) {
+        this(intento, metricas, planificador, false);
+    }
+
+    private GestorReconexion(Intento intento, RegistroMetricas metricas,
+                             ScheduledExecutorService planificador, boolean propio) {
+        this.intento = Objects.requireNonNull(intento, "intento");
+        this.planificador = Objects.requireNonNull(planificador, "planificador");
+        this.planificadorPropio = propio;
+        this.tiempoReconexion = metricas.histograma("conexion.tiempoReconexion");
+        this.perdidas = metricas.contador("conexion.perdidas");
+        this.reintentos = metricas.contador("conexion.reintentos");
+    }
+
+    // Primera conexión: síncrona, el llamador decide qué hacer si falla.
+    public void conectar() throws ConexionFallidaException {
+        estado.set(EstadoConexion.CONECTANDO);
+        try {
+            intento.ejecutar();
+        } catch (ConexionFallidaException | RuntimeException e) {
+            estado.compareAndSet(EstadoConexion.CONECTANDO, EstadoConexion.DESCONECTADO);
+            throw e;
+        }
+        estado.compareAndSet(EstadoConexion.CONECTANDO, EstadoConexion.CONECTADO);
+    }
+
+    // Llamado desde onConnectionLost. Avisos repetidos durante un mismo corte se ignoran.
+    public void conexionPerdida(Throwable causa) {
+        if (!estado.compareAndSet(EstadoConexion.CONECTADO, EstadoConexion.RECONECTANDO)) {
+            return;
+        }
+        perdidas.increment();
+        inicioCorte = System.nanoTime();
+        intentos = 0;
+        programar(backoffMillis(0));
+    }
+
+    public EstadoConexion estado() {
+        return estado.get();
+    }
+
+    public boolean conectado() {
+        return estado.get() == EstadoConexion.CONECTADO;
+    }
+
+    public int intentos() {
+        return intentos;
+    }
+
+    public void detener() {
+        estado.set(EstadoConexion.DETENIDO);
+        if (planificadorPropio) {
+            planificador.shutdownNow();
+        }
+    }
+
+    // ---------------------- util privados ----------------------
+
+    private void programar(long espera) {
+        try {
+            planificador.schedule(this::reintentar, espera, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            estado.set(EstadoConexion.DETENIDO);
+        }
+    }
+
+    private void reintentar() {
+        if (estado.get() != EstadoConexion.RECONECTANDO) return;
+
+        int numero = ++intentos;
+        reintentos.increment();
+        ReconexionEvento evento = new ReconexionEvento();
+        evento.begin();
+        try {
+            intento.ejecutar();
+        } catch (ConexionFallidaException | RuntimeException e) {
+            evento.terminar(numero, false, System.nanoTime() - inicioCorte, e.getMessage());
+            long espera = backoffMillis(numero);
+            System.out.println("Reintento " + numero + " fallido (" + e.getMessage() + "); siguiente en " + espera + " ms");
+            programar(espera);
+            return;
+        }
+
+        if (estado.compareAndSet(EstadoConexion.RECONECTANDO, EstadoConexion.CONECTADO)) {
+            long duracion = System.nanoTime() - inicioCorte;
+            tiempoReconexion.registrar(duracion);
+            evento.terminar(numero, true, duracion, null);
+            System.out.println("Reconectado tras " + numero + " intento(s) en "
+                    + TimeUnit.NANOSECONDS.toMillis(duracion) + " ms");
+        }
+    }
+
+    static long backoffMillis(int intento) {
+        long techo = Math.min(MAXIMO_MS, BASE_MS << Math.min(intento, 16));
+        long mitad = techo / 2;
+        return mitad + ThreadLocalRandom.current().nextLong(techo - mitad + 1);
+    }
+
+    private static ScheduledExecutorService crearPlanificador(String nombreHilo) {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, nombreHilo);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+}
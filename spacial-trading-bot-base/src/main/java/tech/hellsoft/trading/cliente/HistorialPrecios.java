@@ -0,0 +1,85 @@
+package tech.hellsoft.trading.cliente;
+
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Últimos tickers por producto (instante y precio medio) en buffers
+ * circulares de arreglos primitivos. Lo llena {@link ClienteBolsa#onTicker}
+ * y lo lee el simulador de auto-producción para ajustar su modelo de precios.
+ */
+public final class HistorialPrecios {
+
+    public static final int CAPACIDAD_POR_DEFECTO = 512;
+
+    /** Copia ordenada de la más antigua a la más reciente. */
+    public record Serie(long[] tiemposMs, double[] precios) {
+
+        public int tamano() {
+            return precios.length;
+        }
+    }
+
+    private final int capacidad;
+    private final Map<Product, Anillo> anillos = new EnumMap<>(Product.class);
+
+    public HistorialPrecios() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    public HistorialPrecios(int capacidad) {
+        if (capacidad < 2) {
+            throw new IllegalArgumentException("El historial necesita al menos 2 posiciones");
+        }
+        this.capacidad = capacidad;
+    }
+
+    public synchronized void registrar(Product producto, double precio, long tiempoMs) {
+        if (producto == null || !(precio > 0.0)) {
+            return;
+        }
+        anillos.computeIfAbsent(producto, p -> new Anillo(capacidad)).agregar(tiempoMs, precio);
+    }
+
+    public synchronized Serie serie(Product producto) {
+        Anillo anillo = anillos.get(producto);
+        if (anillo == null) {
+            return new Serie(new long[0], new double[0]);
+        }
+        return anillo.copia();
+    }
+
+    private static final class Anillo {
+
+        private final long[] tiempos;
+        private final double[] precios;
+        private int siguiente;
+        private int tamano;
+
+        Anillo(int capacidad) {
+            tiempos = new long[capacidad];
+            precios = new double[capacidad];
+        }
+
+        void agregar(long tiempoMs, double precio) {
+            tiempos[siguiente] = tiempoMs;
+            precios[siguiente] = precio;
+            siguiente = (siguiente + 1) % tiempos.length;
+            tamano = Math.min(tamano + 1, tiempos.length);
+        }
+
+        Serie copia() {
+            long[] copiaTiempos = new long[tamano];
+            double[] copiaPrecios = new double[tamano];
+            int inicio = (siguiente - tamano + tiempos.length) % tiempos.length;
+            for (int i = 0; i < tamano; i++) {
+                int origen = (inicio + i) % tiempos.length;
+                copiaTiempos[i] = tiempos[origen];
+                copiaPrecios[i] = precios[origen];
+            }
+            return new Serie(copiaTiempos, copiaPrecios);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package tech.hellsoft.trading.cliente;
+
+import tech.hellsoft.trading.enums.Product;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Contabilidad de lotes FIFO por producto. Cada compra o producción entra
+ * como un lote con su costo unitario; las ventas consumen los lotes más
+ * antiguos y la diferencia con el ingreso se acumula como P&L realizado.
+ *
+ * <p>Los lotes de cada producto viven en un buffer circular de arreglos
+ * primitivos (cantidad y costo unitario), con cantidad y costo restantes
+ * acumulados: entrar un lote y consultar el costo promedio son O(1) y una
+ * venta solo recorre los lotes que agota, cada uno una vez en toda su vida.
+ *
+ * <p>No es thread-safe: lo protege el candado de {@link EstadoCliente}.
+ */
+final class LibroLotes implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<Product, Cola> colas = new EnumMap<>(Product.class);
+    private double realizado;
+
+    /** Lote nuevo de {@code cantidad} unidades que costaron {@code costoTotal} en conjunto. */
+    void entrada(Product producto, int cantidad, double costoTotal) {
+        if (producto == null || cantidad <= 0) {
+            return;
+        }
+        colas.computeIfAbsent(producto, p -> new Cola()).agregar(cantidad, costoTotal / cantidad);
+    }
+
+    /**
+     * Venta: consume lotes FIFO y realiza la diferencia con el ingreso. Las
+     * unidades vendidas sin lote (inventario que no pasó por el libro) cuentan
+     * con costo 0.
+     */
+    void salida(Product producto, int cantidad, double ingreso) {
+        if (producto == null || cantidad <= 0) {
+            return;
+        }
+        realizado += ingreso - retirar(producto, cantidad);
+    }
+
+    /** Saca unidades FIFO sin realizar nada (ingredientes consumidos, ajustes); devuelve su costo. */
+    double retirar(Product producto, int cantidad) {
+        Cola cola = colas.get(producto);
+        if (cola == null || cantidad <= 0) {
+            return 0.0;
+        }
+        return cola.retirar(cantidad);
+    }
+
+    /**
+     * Alinea las unidades del libro con el inventario real tras un cambio que no
+     * fue compra, venta ni producción (login, resync, ofertas): lo que sobra sale
+     * FIFO sin realizar y lo que falta entra como un lote de costo 0.
+     */
+    void ajustar(Product producto, int cantidadReal) {
+        if (producto == null) {
+            return;
+        }
+        long diferencia = Math.max(0, cantidadReal) - cantidad(producto);
+        if (diferencia > 0) {
+            entrada(producto, (int) diferencia, 0.0);
+        } else if (diferencia < 0) {
+            retirar(producto, (int) -diferencia);
+        }
+    }
+
+    long cantidad(Product producto) {
+        Cola cola = colas.get(producto);
+        return cola == null ? 0L : cola.unidades;
+    }
+
+    double costo(Product producto) {
+        Cola cola = colas.get(producto);
+        return cola == null ? 0.0 : cola.costoTotal;
+    }
+
+    double costoPromedio(Product producto) {
+        Cola cola = colas.get(producto);
+        if (cola == null || cola.unidades == 0) {
+            return 0.0;
+        }
+        return cola.costoTotal / cola.unidades;
+    }
+
+    double realizado() {
+        return realizado;
+    }
+
+    /** Valor a precio de mercado menos costo de los lotes abiertos; sin precio conocido no aporta. */
+    double noRealizado(Map<Product, Double> precios) {
+        double total = 0.0;
+        for (Map.Entry<Product, Cola> entry : colas.entrySet()) {
+            Cola cola = entry.getValue();
+            Double precio = precios.get(entry.getKey());
+            if (precio == null || cola.unidades == 0) {
+                continue;
+            }
+            total += cola.unidades * precio - cola.costoTotal;
+        }
+        return total;
+    }
+
+    double noRealizado(Product producto, double precio) {
+        Cola cola = colas.get(producto);
+        if (cola == null) {
+            return 0.0;
+        }
+        return cola.unidades * precio - cola.costoTotal;
+    }
+
+    LibroLotes copia() {
+        LibroLotes copia = new LibroLotes();
+        copia.realizado = realizado;
+        colas.forEach((producto, cola) -> copia.colas.put(producto, cola.copia()));
+        return copia;
+    }
+
+    /** Buffer circular de lotes de un producto; la capacidad es potencia de dos. */
+    private static final class Cola implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private static final int CAPACIDAD_INICIAL = 8;
+
+        private int[] cantidades = new int[CAPACIDAD_INICIAL];
+        private double[] costosUnitarios = new double[CAPACIDAD_INICIAL];
+        private int cabeza;
+        private int tamano;
+        private long unidades;
+        private double costoTotal;
+
+        void agregar(int cantidad, double costoUnitario) {
+            if (tamano == cantidades.length) {
+                crecer();
+            }
+            int posicion = (cabeza + tamano) & (cantidades.length - 1);
+            cantidades[posicion] = cantidad;
+            costosUnitarios[posicion] = costoUnitario;
+            tamano++;
+            unidades += cantidad;
+            costoTotal += cantidad * costoUnitario;
+        }
+
+        double retirar(int cantidad) {
+            int pendiente = cantidad;
+            double costo = 0.0;
+            int mascara = cantidades.length - 1;
+            while (pendiente > 0 && tamano > 0) {
+                int disponible = cantidades[cabeza];
+                int tomada = Math.min(disponible, pendiente);
+                costo += tomada * costosUnitarios[cabeza];
+                pendiente -= tomada;
+                if (tomada == disponible) {
+                    cabeza = (cabeza + 1) & mascara;
+                    tamano--;
+                } else {
+                    cantidades[cabeza] = disponible - tomada;
+                }
+            }
+            unidades -= cantidad - pendiente;
+            // Sin lotes abiertos el costo es exactamente 0; así no se acumula error de redondeo.
+            costoTotal = tamano == 0 ? 0.0 : costoTotal - costo;
+            return costo;
+        }
+
+        private void crecer() {
+            int capacidad = cantidades.length * 2;
+            int[] nuevasCantidades = new int[capacidad];
+            double[] nuevosCostos = new double[capacidad];
+            for (int i = 0; i < tamano; i++) {
+                int origen = (cabeza + i) & (cantidades.length - 1);
+                nuevasCantidades[i] = cantidades[origen];
+                nuevosCostos[i] = costosUnitarios[origen];
+            }
+            cantidades = nuevasCantidades;
+            costosUnitarios = nuevosCostos;
+            cabeza = 0;
+        }
+
+        Cola copia() {
+            Cola copia = new Cola();
+            copia.cantidades = Arrays.copyOf(cantidades, cantidades.length);
+            copia.costosUnitarios = Arrays.copyOf(costosUnitarios, costosUnitarios.length);
+            copia.cabeza = cabeza;
+            copia.tamano = tamano;
+            copia.unidades = unidades;
+            copia.costoTotal = costoTotal;
+            return copia;
+        }
+    }
+}
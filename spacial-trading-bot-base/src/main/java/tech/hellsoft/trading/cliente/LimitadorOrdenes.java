@@ -0,0 +1,32 @@
+package tech.hellsoft.trading.cliente;
+
+/**
+ * Cubo de fichas para limitar órdenes por segundo. La tasa se pasa en cada
+ * llamada para que un cambio de ajustes tenga efecto inmediato; la ráfaga
+ * máxima equivale a un segundo de tasa (mínimo una orden).
+ */
+final class LimitadorOrdenes {
+
+    private double fichas = -1;
+    private long ultimaRecarga;
+
+    /** Devuelve true si hay ficha disponible; con tasa <= 0 no hay límite. */
+    synchronized boolean intentar(double porSegundo) {
+        if (porSegundo <= 0) {
+            return true;
+        }
+        double capacidad = Math.max(1.0, porSegundo);
+        long ahora = System.nanoTime();
+        if (fichas < 0) {
+            fichas = capacidad;
+        } else {
+            fichas = Math.min(capacidad, fichas + (ahora - ultimaRecarga) * porSegundo / 1_000_000_000.0);
+        }
+        ultimaRecarga = ahora;
+        if (fichas < 1.0) {
+            return false;
+        }
+        fichas -= 1.0;
+        return true;
+    }
+}
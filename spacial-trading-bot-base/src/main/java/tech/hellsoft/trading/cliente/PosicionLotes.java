@@ -0,0 +1,15 @@
+package tech.hellsoft.trading.cliente;
+
+import tech.hellsoft.trading.enums.Product;
+
+/**
+ * Lotes abiertos de un producto según {@link EstadoCliente#posiciones()}.
+ * {@code precio} es null si aún no llegó ningún ticker del producto.
+ */
+public record PosicionLotes(
+        Product producto,
+        long cantidad,
+        double costoPromedio,
+        Double precio,
+        double noRealizado) {
+}
@@ -0,0 +1,63 @@
+package tech.hellsoft.trading.cliente;
+
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.Map;
+
+/**
+ * Aplica un LoginOK de resincronización sobre el estado existente tocando solo
+ * lo que cambió, en vez de vaciar y reconstruir. Cada producto se compara con
+ * una búsqueda en mapa, así que el costo es lineal en el número de productos.
+ * El saldo inicial no se toca: el P&L sigue contando desde el primer login.
+ */
+final class ReconciliadorEstado {
+
+    private ReconciliadorEstado() {
+    }
+
+    static ResultadoReconciliacion reconciliar(EstadoCliente estado, double saldoServidor,
+                                               Map<Product, Integer> inventarioServidor,
+                                               Map<Product, Recipe> recetasServidor) {
+        double desvio = saldoServidor - estado.saldo();
+        if (desvio != 0.0) {
+            estado.actualizarSaldo(saldoServidor);
+        }
+
+        int productos = 0;
+        int unidades = 0;
+
+        // Productos que reporta el servidor
+        if (inventarioServidor != null) {
+            for (Map.Entry<Product, Integer> entry : inventarioServidor.entrySet()) {
+                Product producto = entry.getKey();
+                if (producto == null || entry.getValue() == null) continue;
+
+                // Leer y fijar bajo un solo candado: la consola o la auto-producción pueden mover el inventario.
+                int delta = estado.fijarInventario(producto, entry.getValue());
+                if (delta != 0) {
+                    productos++;
+                    unidades += Math.abs(delta);
+                }
+            }
+        }
+
+        // Productos que solo existen localmente: el servidor los tiene en cero
+        for (Map.Entry<Product, Integer> entry : estado.inventario().entrySet()) {
+            Product producto = entry.getKey();
+            int local = entry.getValue() == null ? 0 : entry.getValue();
+            boolean reportado = inventarioServidor != null && inventarioServidor.get(producto) != null;
+            if (reportado || local == 0) continue;
+
+            int delta = estado.fijarInventario(producto, 0);
+            if (delta != 0) {
+                productos++;
+                unidades += Math.abs(delta);
+            }
+        }
+
+        int recetas = estado.actualizarRecetas(recetasServidor);
+
+        return new ResultadoReconciliacion(desvio, productos, unidades, recetas);
+    }
+}
@@ -0,0 +1,23 @@
+package tech.hellsoft.trading.cliente;
+
+/**
+ * Diferencias encontradas al reconciliar el estado local con un LoginOK del
+ * servidor. El desvío de saldo es servidor menos local.
+ */
+public record ResultadoReconciliacion(
+        double desvioSaldo,
+        int productosDescuadrados,
+        int unidadesDescuadradas,
+        int recetasActualizadas) {
+
+    /** Tolerancia para considerar que el saldo cuadra (redondeos del servidor). */
+    public static final double TOLERANCIA_SALDO = 0.01;
+
+    public boolean saldoDescuadrado() {
+        return Math.abs(desvioSaldo) > TOLERANCIA_SALDO;
+    }
+
+    public boolean cuadra() {
+        return !saldoDescuadrado() && productosDescuadrados == 0;
+    }
+}
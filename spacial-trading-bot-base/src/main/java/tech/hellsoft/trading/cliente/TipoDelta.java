@@ -0,0 +1,46 @@
+package tech.hellsoft.trading.cliente;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import tech.hellsoft.trading.dto.server.EventDeltaMessage;
+import tech.hellsoft.trading.enums.MessageType;
+
+/**
+ * Tipos de {@link EventDeltaMessage} que entiende {@link AplicadorDeltas}, con
+ * el formato que emite la bolsa simulada. El tipo va en {@code eventType} y los
+ * datos en {@code payload}, que siempre lleva {@code version}:
+ * <ul>
+ *   <li>INVENTORY: {@code {product, delta}} suma, {@code {product, quantity}} fija,
+ *       {@code {inventory: {P: n}}} fija varios.</li>
+ *   <li>PRICE: {@code {product, mid}}.</li>
+ *   <li>RECIPE: {@code {product, ingredients, premiumBonus}}.</li>
+ *   <li>AUTHORIZATION: {@code {authorizedProducts: [...]}} reemplaza,
+ *       {@code {product, authorized}} cambia uno.</li>
+ *   <li>BALANCE: {@code {balance}} fija, {@code {delta}} suma.</li>
+ * </ul>
+ *
+ * <p>El DTO del SDK se arma con Gson desde el árbol JSON para no depender de
+ * sus constructores; un delta del servidor que no traiga estos campos se
+ * cuenta como desconocido y lo corrige la reconciliación del siguiente login.
+ */
+public enum TipoDelta {
+
+    INVENTORY,
+    PRICE,
+    RECIPE,
+    AUTHORIZATION,
+    BALANCE;
+
+    private static final Gson GSON = new Gson();
+
+    /** Mensaje con este tipo; {@code datos} no se modifica. */
+    public EventDeltaMessage mensaje(long version, JsonObject datos) {
+        JsonObject payload = datos == null ? new JsonObject() : datos.deepCopy();
+        payload.addProperty("version", version);
+        JsonObject raiz = new JsonObject();
+        raiz.add("type", GSON.toJsonTree(MessageType.EVENT_DELTA));
+        raiz.addProperty("eventType", name());
+        raiz.add("payload", payload);
+        return GSON.fromJson(raiz, EventDeltaMessage.class);
+    }
+}
@@ -0,0 +1,24 @@
+package tech.hellsoft.trading.cliente;
+
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.Map;
+
+/**
+ * Copia inmutable y coherente de {@link EstadoCliente} en un instante. Los
+ * mapas no se pueden modificar.
+ */
+public record VistaEstado(
+        double saldo,
+        double saldoInicial,
+        double valorInventario,
+        double pl,
+        double plRealizado,
+        double plNoRealizado,
+        Map<Product, Integer> inventario,
+        Map<Product, Double> precios) {
+
+    public double patrimonio() {
+        return saldo + valorInventario;
+    }
+}
@@ -0,0 +1,181 @@
+package tech.hellsoft.trading.codec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Buffer de bytes reutilizable donde se escribe JSON en UTF-8. Replica el
+ * escapado de {@code JsonWriter} de Gson con {@code htmlSafe} activo (el modo
+ * por defecto de {@code new Gson()}). No es thread-safe.
+ */
+final class BufferJson {
+
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+  // Gson los escapa porque JavaScript los trata como saltos de línea.
+  private static final char SEPARADOR_LINEA = (char) 0x2028;
+  private static final char SEPARADOR_PARRAFO = (char) 0x2029;
+
+  private byte[] datos;
+  private int largo;
+
+  BufferJson(int capacidadInicial) {
+    this.datos = new byte[Math.max(64, capacidadInicial)];
+  }
+
+  void reiniciar() {
+    largo = 0;
+  }
+
+  int largo() {
+    return largo;
+  }
+
+  byte[] datos() {
+    return datos;
+  }
+
+  byte[] copia() {
+    return Arrays.copyOf(datos, largo);
+  }
+
+  String comoTexto() {
+    return new String(datos, 0, largo, StandardCharsets.UTF_8);
+  }
+
+  void escribirEn(OutputStream salida) throws IOException {
+    salida.write(datos, 0, largo);
+  }
+
+  void byteCrudo(byte b) {
+    asegurar(1);
+    datos[largo++] = b;
+  }
+
+  void bytes(byte[] token) {
+    asegurar(token.length);
+    System.arraycopy(token, 0, datos, largo, token.length);
+    largo += token.length;
+  }
+
+  void entero(long valor) {
+    if (valor == Long.MIN_VALUE) {
+      ascii(Long.toString(valor));
+      return;
+    }
+    if (valor < 0) {
+      byteCrudo((byte) '-');
+      valor = -valor;
+    }
+    int digitos = 1;
+    for (long v = valor; v >= 10; v /= 10) {
+      digitos++;
+    }
+    asegurar(digitos);
+    int fin = largo + digitos;
+    for (int i = fin - 1; i >= largo; i--) {
+      datos[i] = (byte) ('0' + (valor % 10));
+      valor /= 10;
+    }
+    largo = fin;
+  }
+
+  // Gson escribe doubles con Double.toString y rechaza NaN/infinito por defecto.
+  void decimal(double valor) {
+    if (Double.isNaN(valor) || Double.isInfinite(valor)) {
+      throw new IllegalArgumentException("JSON no admite el valor " + valor);
+    }
+    ascii(Double.toString(valor));
+  }
+
+  void booleano(boolean valor) {
+    ascii(valor ? "true" : "false");
+  }
+
+  void texto(String valor) {
+    asegurar(valor.length() + 2);
+    datos[largo++] = '"';
+    for (int i = 0; i < valor.length(); i++) {
+      char c = valor.charAt(i);
+      if (c < 0x80) {
+        asciiEscapado(c);
+      } else if (c == SEPARADOR_LINEA || c == SEPARADOR_PARRAFO) {
+        unicode(c);
+      } else if (c < 0x800) {
+        asegurar(2);
+        datos[largo++] = (byte) (0xC0 | (c >> 6));
+        datos[largo++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < valor.length()
+          && Character.isLowSurrogate(valor.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, valor.charAt(++i));
+        asegurar(4);
+        datos[largo++] = (byte) (0xF0 | (cp >> 18));
+        datos[largo++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        datos[largo++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        datos[largo++] = (byte) (0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        // Surrogate huérfano: String.getBytes(UTF_8) lo reemplaza por '?'
+        byteCrudo((byte) '?');
+      } else {
+        asegurar(3);
+        datos[largo++] = (byte) (0xE0 | (c >> 12));
+        datos[largo++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        datos[largo++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    byteCrudo((byte) '"');
+  }
+
+  // ---------------------- util privados ----------------------
+
+  private void asciiEscapado(char c) {
+    switch (c) {
+      case '"' -> dos('\\', '"');
+      case '\\' -> dos('\\', '\\');
+      case '\t' -> dos('\\', 't');
+      case '\b' -> dos('\\', 'b');
+      case '\n' -> dos('\\', 'n');
+      case '\r' -> dos('\\', 'r');
+      case '\f' -> dos('\\', 'f');
+      case '<', '>', '&', '=', '\'' -> unicode(c);
+      default -> {
+        if (c < 0x20) {
+          unicode(c);
+        } else {
+          byteCrudo((byte) c);
+        }
+      }
+    }
+  }
+
+  private void dos(char a, char b) {
+    asegurar(2);
+    datos[largo++] = (byte) a;
+    datos[largo++] = (byte) b;
+  }
+
+  private void unicode(char c) {
+    asegurar(6);
+    datos[largo++] = '\\';
+    datos[largo++] = 'u';
+    datos[largo++] = HEX[(c >> 12) & 0xF];
+    datos[largo++] = HEX[(c >> 8) & 0xF];
+    datos[largo++] = HEX[(c >> 4) & 0xF];
+    datos[largo++] = HEX[c & 0xF];
+  }
+
+  private void ascii(String valor) {
+    asegurar(valor.length());
+    for (int i = 0; i < valor.length(); i++) {
+      datos[largo++] = (byte) valor.charAt(i);
+    }
+  }
+
+  private void asegurar(int extra) {
+    if (largo + extra > datos.length) {
+      datos = Arrays.copyOf(datos, Math.max(datos.length * 2, largo + extra));
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package tech.hellsoft.trading.codec;
+
+import com.google.gson.Gson;
+import tech.hellsoft.trading.dto.client.AcceptOfferMessage;
+import tech.hellsoft.trading.dto.client.OrderMessage;
+import tech.hellsoft.trading.dto.client.ProductionUpdateMessage;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.OrderMode;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificador JSON sin reflexión para los mensajes salientes. Escribe en un
+ * buffer reutilizable y produce exactamente los mismos bytes que
+ * {@code new Gson().toJson(mensaje)}: mismo orden de campos, nulos omitidos y
+ * el mismo escapado.
+ *
+ * <p>Los valores de los enums se obtienen de Gson una sola vez al cargar la
+ * clase (respetando {@code @SerializedName}) y se guardan ya codificados.
+ * Cada instancia es para un solo hilo; el resultado vale hasta la siguiente
+ * llamada a {@code codificar}.
+ */
+public final class CodificadorJson {
+
+  private static final Gson GSON = new Gson();
+
+  private static final byte[][] TIPOS = tokens(MessageType.values());
+  private static final byte[][] LADOS = tokens(OrderSide.values());
+  private static final byte[][] MODOS = tokens(OrderMode.values());
+  private static final byte[][] PRODUCTOS = tokens(Product.values());
+
+  private static final byte[] TYPE = nombre("type");
+  private static final byte[] CL_ORD_ID = nombre("clOrdID");
+  private static final byte[] SIDE = nombre("side");
+  private static final byte[] MODE = nombre("mode");
+  private static final byte[] PRODUCT = nombre("product");
+  private static final byte[] QTY = nombre("qty");
+  private static final byte[] LIMIT_PRICE = nombre("limitPrice");
+  private static final byte[] EXPIRES_AT = nombre("expiresAt");
+  private static final byte[] MESSAGE = nombre("message");
+  private static final byte[] DEBUG_MODE = nombre("debugMode");
+  private static final byte[] OFFER_ID = nombre("offerId");
+  private static final byte[] ACCEPT = nombre("accept");
+  private static final byte[] QUANTITY_OFFERED = nombre("quantityOffered");
+  private static final byte[] PRICE_OFFERED = nombre("priceOffered");
+  private static final byte[] QUANTITY = nombre("quantity");
+
+  private final BufferJson buffer;
+  private boolean primerCampo;
+
+  public CodificadorJson() {
+    this(256);
+  }
+
+  public CodificadorJson(int capacidadInicial) {
+    this.buffer = new BufferJson(capacidadInicial);
+  }
+
+  // ---------------------- mensajes ----------------------
+
+  public int codificar(OrderMessage orden) {
+    abrir();
+    enumerado(TYPE, TIPOS, orden.getType());
+    texto(CL_ORD_ID, orden.getClOrdID());
+    enumerado(SIDE, LADOS, orden.getSide());
+    enumerado(MODE, MODOS, orden.getMode());
+    enumerado(PRODUCT, PRODUCTOS, orden.getProduct());
+    entero(QTY, orden.getQty());
+    decimal(LIMIT_PRICE, orden.getLimitPrice());
+    texto(EXPIRES_AT, orden.getExpiresAt());
+    texto(MESSAGE, orden.getMessage());
+    texto(DEBUG_MODE, orden.getDebugMode());
+    return cerrar();
+  }
+
+  /**
+   * Codifica una orden sin construir el DTO ni su builder. Equivale a
+   * {@link #codificar(OrderMessage)} con type ORDER y sin expiresAt/debugMode.
+   */
+  public int codificarOrden(String clOrdId, OrderSide lado, OrderMode modo, Product producto, int cantidad,
+      Double precioLimite, String mensaje) {
+    abrir();
+    campo(TYPE);
+    buffer.bytes(TIPOS[MessageType.ORDER.ordinal()]);
+    texto(CL_ORD_ID, clOrdId);
+    enumerado(SIDE, LADOS, lado);
+    enumerado(MODE, MODOS, modo);
+    enumerado(PRODUCT, PRODUCTOS, producto);
+    campo(QTY);
+    buffer.entero(cantidad);
+    decimal(LIMIT_PRICE, precioLimite);
+    texto(MESSAGE, mensaje);
+    return cerrar();
+  }
+
+  public int codificar(AcceptOfferMessage respuesta) {
+    abrir();
+    enumerado(TYPE, TIPOS, respuesta.getType());
+    texto(OFFER_ID, respuesta.getOfferId());
+    if (respuesta.getAccept() != null) {
+      campo(ACCEPT);
+      buffer.booleano(respuesta.getAccept());
+    }
+    entero(QUANTITY_OFFERED, respuesta.getQuantityOffered());
+    decimal(PRICE_OFFERED, respuesta.getPriceOffered());
+    return cerrar();
+  }
+
+  public int codificar(ProductionUpdateMessage produccion) {
+    abrir();
+    enumerado(TYPE, TIPOS, produccion.getType());
+    enumerado(PRODUCT, PRODUCTOS, produccion.getProduct());
+    entero(QUANTITY, produccion.getQuantity());
+    return cerrar();
+  }
+
+  // ---------------------- resultado ----------------------
+
+  /** Buffer interno; los bytes válidos son {@code [0, largo())}. */
+  public byte[] buffer() {
+    return buffer.datos();
+  }
+
+  public int largo() {
+    return buffer.largo();
+  }
+
+  public byte[] copia() {
+    return buffer.copia();
+  }
+
+  public String comoTexto() {
+    return buffer.comoTexto();
+  }
+
+  public void escribirEn(OutputStream salida) throws IOException {
+    buffer.escribirEn(salida);
+  }
+
+  // ---------------------- util privados ----------------------
+
+  private void abrir() {
+    buffer.reiniciar();
+    buffer.byteCrudo((byte) '{');
+    primerCampo = true;
+  }
+
+  private int cerrar() {
+    buffer.byteCrudo((byte) '}');
+    return buffer.largo();
+  }
+
+  private void campo(byte[] nombre) {
+    if (!primerCampo) {
+      buffer.byteCrudo((byte) ',');
+    }
+    primerCampo = false;
+    buffer.bytes(nombre);
+  }
+
+  private void enumerado(byte[] nombre, byte[][] tokens, Enum<?> valor) {
+    if (valor == null) return;
+    campo(nombre);
+    buffer.bytes(tokens[valor.ordinal()]);
+  }
+
+  private void texto(byte[] nombre, String valor) {
+    if (valor == null) return;
+    campo(nombre);
+    buffer.texto(valor);
+  }
+
+  private void entero(byte[] nombre, Integer valor) {
+    if (valor == null) return;
+    campo(nombre);
+    buffer.entero(valor);
+  }
+
+  private void decimal(byte[] nombre, Double valor) {
+    if (valor == null) return;
+    campo(nombre);
+    buffer.decimal(valor);
+  }
+
+  private static byte[][] tokens(Enum<?>[] valores) {
+    byte[][] tokens = new byte[valores.length][];
+    for (Enum<?> valor : valores) {
+      tokens[valor.ordinal()] = GSON.toJson(valor).getBytes(StandardCharsets.UTF_8);
+    }
+    return tokens;
+  }
+
+  private static byte[] nombre(String campo) {
+    return ('"' + campo + "\":").getBytes(StandardCharsets.US_ASCII);
+  }
+}
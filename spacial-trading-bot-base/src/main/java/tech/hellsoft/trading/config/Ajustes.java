@@ -0,0 +1,70 @@
+package tech.hellsoft.trading.config;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sección "ajustes" de config.json: parámetros de operación que se pueden
+ * cambiar en caliente. Los campos ausentes toman su valor por defecto.
+ * {@code maxOrdenesEnSeguimiento} es un tope duro: al bajarlo se descartan
+ * en el acto las trazas de órdenes más viejas.
+ *
+ * <pre>
+ * "ajustes": {
+ *   "autoIntervaloMinSeg": 1, "autoIntervaloMaxSeg": 3600,
+ *   "snapshotIntervaloSeg": 0, "ordenesPorSegundo": 0,
+ *   "maxOrdenesEnSeguimiento": 10000, "verbosidad": "normal"
+ * }
+ * </pre>
+ */
+public record Ajustes(Integer autoIntervaloMinSeg, Integer autoIntervaloMaxSeg, Integer snapshotIntervaloSeg,
+                      Double ordenesPorSegundo, Integer maxOrdenesEnSeguimiento, String verbosidad)
+    implements Serializable {
+
+  public Ajustes {
+    autoIntervaloMinSeg = valueOrDefault(autoIntervaloMinSeg, 1);
+    autoIntervaloMaxSeg = valueOrDefault(autoIntervaloMaxSeg, 3600);
+    snapshotIntervaloSeg = valueOrDefault(snapshotIntervaloSeg, 0);
+    ordenesPorSegundo = ordenesPorSegundo == null ? 0.0 : ordenesPorSegundo;
+    maxOrdenesEnSeguimiento = valueOrDefault(maxOrdenesEnSeguimiento, 10_000);
+    verbosidad = verbosidad == null || verbosidad.isBlank() ? "normal" : verbosidad.trim();
+  }
+
+  public static Ajustes porDefecto() {
+    return new Ajustes(null, null, null, null, null, null);
+  }
+
+  public Verbosidad nivelVerbosidad() {
+    Verbosidad nivel = Verbosidad.desde(verbosidad);
+    return nivel == null ? Verbosidad.NORMAL : nivel;
+  }
+
+  /** Lista de problemas encontrados; vacía si los ajustes son válidos. */
+  public List<String> problemas() {
+    List<String> problemas = new ArrayList<>();
+    if (autoIntervaloMinSeg < 1) {
+      problemas.add("autoIntervaloMinSeg must be >= 1");
+    }
+    if (autoIntervaloMaxSeg < autoIntervaloMinSeg) {
+      problemas.add("autoIntervaloMaxSeg must be >= autoIntervaloMinSeg");
+    }
+    if (snapshotIntervaloSeg < 0) {
+      problemas.add("snapshotIntervaloSeg must be >= 0 (0 disables periodic snapshots)");
+    }
+    if (ordenesPorSegundo < 0 || ordenesPorSegundo.isNaN() || ordenesPorSegundo.isInfinite()) {
+      problemas.add("ordenesPorSegundo must be a finite number >= 0 (0 disables the limit)");
+    }
+    if (maxOrdenesEnSeguimiento < 1) {
+      problemas.add("maxOrdenesEnSeguimiento must be >= 1");
+    }
+    if (Verbosidad.desde(verbosidad) == null) {
+      problemas.add("verbosidad must be one of silencioso|normal|detallado");
+    }
+    return problemas;
+  }
+
+  private static Integer valueOrDefault(Integer value, int defaultValue) {
+    return value == null ? defaultValue : value;
+  }
+}
@@ -0,0 +1,146 @@
+package tech.hellsoft.trading.config;
+
+import tech.hellsoft.trading.exception.ConfiguracionInvalidaException;
+import tech.hellsoft.trading.util.ConfigLoader;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Ajustes vigentes de una cuenta. Los componentes leen {@link #actual()} en
+ * cada operación, así que un cambio se ve completo o no se ve: el reemplazo es
+ * un solo swap de referencia. Los que necesitan reaccionar (por ejemplo,
+ * reprogramar una tarea) se registran con {@link #alCambiar}.
+ *
+ * <p>{@link #vigilar} observa el archivo de configuración y aplica la sección
+ * "ajustes" cada vez que cambia; si el archivo no valida se conservan los
+ * ajustes anteriores. Las demás claves (apiKey, host...) requieren reinicio.
+ */
+public final class AjustesEnVivo {
+
+  private static final long ESPERA_ESCRITURA_MS = 150L;
+
+  private final AtomicReference<Ajustes> actual;
+  private final List<Consumer<Ajustes>> oyentes = new CopyOnWriteArrayList<>();
+  private WatchService vigilancia;
+
+  public AjustesEnVivo(Ajustes iniciales) {
+    this.actual = new AtomicReference<>(iniciales == null ? Ajustes.porDefecto() : iniciales);
+  }
+
+  public Ajustes actual() {
+    return actual.get();
+  }
+
+  public void alCambiar(Consumer<Ajustes> oyente) {
+    oyentes.add(Objects.requireNonNull(oyente, "oyente"));
+  }
+
+  /** Aplica nuevos ajustes si son válidos; devuelve false si se rechazaron. */
+  public boolean aplicar(Ajustes nuevos) {
+    if (nuevos == null) {
+      return false;
+    }
+    List<String> problemas = nuevos.problemas();
+    if (!problemas.isEmpty()) {
+      System.out.println("⚠️ Ajustes rechazados: " + String.join("; ", problemas));
+      return false;
+    }
+    Ajustes anteriores = actual.getAndSet(nuevos);
+    if (nuevos.equals(anteriores)) {
+      return true;
+    }
+    for (Consumer<Ajustes> oyente : oyentes) {
+      try {
+        oyente.accept(nuevos);
+      } catch (RuntimeException e) {
+        System.out.println("⚠️ Error aplicando ajustes: " + e.getMessage());
+      }
+    }
+    System.out.println("🔧 Ajustes actualizados: " + nuevos);
+    return true;
+  }
+
+  public synchronized void vigilar(Path archivoConfig) throws IOException {
+    if (vigilancia != null) {
+      return;
+    }
+    Path archivo = archivoConfig.toAbsolutePath();
+    Path carpeta = archivo.getParent();
+    WatchService servicio = FileSystems.getDefault().newWatchService();
+    carpeta.register(servicio, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+    vigilancia = servicio;
+
+    Thread hilo = new Thread(() -> observar(servicio, archivo), "ajustes-" + archivo.getFileName());
+    hilo.setDaemon(true);
+    hilo.start();
+  }
+
+  public synchronized void detenerVigilancia() {
+    if (vigilancia == null) {
+      return;
+    }
+    try {
+      vigilancia.close();
+    } catch (IOException e) {
+      // Se está cerrando; no hay nada más que hacer.
+    }
+    vigilancia = null;
+  }
+
+  // ---------------------- util privados ----------------------
+
+  private void observar(WatchService servicio, Path archivo) {
+    try {
+      while (true) {
+        WatchKey clave = servicio.take();
+        boolean tocado = false;
+        for (WatchEvent<?> evento : clave.pollEvents()) {
+          Object contexto = evento.context();
+          if (contexto instanceof Path nombre && archivo.getFileName().equals(nombre)) {
+            tocado = true;
+          }
+        }
+        clave.reset();
+        if (tocado) {
+          // Los editores escriben en varios pasos; se espera a que termine la ráfaga.
+          Thread.sleep(ESPERA_ESCRITURA_MS);
+          descartarPendientes(servicio);
+          recargar(archivo);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      // detenerVigilancia()
+    }
+  }
+
+  private static void descartarPendientes(WatchService servicio) {
+    WatchKey pendiente;
+    while ((pendiente = servicio.poll()) != null) {
+      pendiente.pollEvents();
+      pendiente.reset();
+    }
+  }
+
+  private void recargar(Path archivo) {
+    try {
+      Configuration config = ConfigLoader.load(archivo.toString());
+      aplicar(config.ajustes());
+    } catch (ConfiguracionInvalidaException e) {
+      System.out.println("⚠️ Config no recargada (se mantienen los ajustes): " + e.getMessage());
+    }
+  }
+}
@@ -3,7 +3,11 @@ package tech.hellsoft.trading.config;
 import java.io.Serializable;
 
 public record Configuration(String apiKey, String team, String host, String species,
-                            String snapshotsDir) implements Serializable {
+                            String snapshotsDir, Ajustes ajustes, String tokenControl) implements Serializable {
+
+  public Configuration(String apiKey, String team, String host, String species, String snapshotsDir) {
+    this(apiKey, team, host, species, snapshotsDir, null, null);
+  }
 
   public Configuration {
     if (apiKey == null || apiKey.isBlank()) {
@@ -17,6 +21,8 @@ public record Configuration(String apiKey, String team, String host, String spec
     }
     species = normalize(species);
     snapshotsDir = valueOrDefault(snapshotsDir, "snapshots");
+    ajustes = ajustes == null ? Ajustes.porDefecto() : ajustes;
+    tokenControl = normalize(tokenControl);
   }
 
   private static String normalize(String value) {
@@ -0,0 +1,25 @@
+package tech.hellsoft.trading.config;
+
+import java.util.Locale;
+
+/**
+ * Cuánto imprime el cliente en consola. Los errores, el login y los cambios de
+ * conexión se muestran siempre.
+ */
+public enum Verbosidad {
+  SILENCIOSO,
+  NORMAL,
+  DETALLADO;
+
+  /** Devuelve {@code null} si el texto no corresponde a ningún nivel. */
+  public static Verbosidad desde(String texto) {
+    if (texto == null || texto.isBlank()) {
+      return NORMAL;
+    }
+    try {
+      return valueOf(texto.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package tech.hellsoft.trading.grabacion;
+
+import tech.hellsoft.trading.ConectorBolsa;
+import tech.hellsoft.trading.EventListener;
+import tech.hellsoft.trading.dto.client.AcceptOfferMessage;
+import tech.hellsoft.trading.dto.client.OrderMessage;
+import tech.hellsoft.trading.dto.client.ProductionUpdateMessage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conector sin red para reproducciones y benchmarks: acepta listeners y
+ * mensajes salientes, pero solo los cuenta.
+ */
+public class ConectorBolsaNulo extends ConectorBolsa {
+
+  private final LongAdder ordenes = new LongAdder();
+  private final LongAdder producciones = new LongAdder();
+  private final LongAdder respuestasOferta = new LongAdder();
+  private final LongAdder logins = new LongAdder();
+
+  @Override
+  public void addListener(EventListener listener) {
+    // Los eventos los inyecta el reproductor directamente.
+  }
+
+  @Override
+  public void conectar(String host, String apiKey) {
+    // Sin conexión real.
+  }
+
+  @Override
+  public void enviarOrden(OrderMessage orden) {
+    ordenes.increment();
+  }
+
+  @Override
+  public void enviarActualizacionProduccion(ProductionUpdateMessage produccion) {
+    producciones.increment();
+  }
+
+  @Override
+  public void enviarRespuestaOferta(AcceptOfferMessage respuesta) {
+    respuestasOferta.increment();
+  }
+
+  @Override
+  public void enviarLogin(String apiKey) {
+    logins.increment();
+  }
+
+  public long ordenesEnviadas() {
+    return ordenes.sum();
+  }
+
+  public long produccionesEnviadas() {
+    return producciones.sum();
+  }
+
+  public long respuestasOfertaEnviadas() {
+    return respuestasOferta.sum();
+  }
+
+  public long loginsEnviados() {
+    return logins.sum();
+  }
+}
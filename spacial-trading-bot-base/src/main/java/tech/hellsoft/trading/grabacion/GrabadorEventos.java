@@ -0,0 +1,88 @@
+package tech.hellsoft.trading.grabacion;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Graba en un archivo comprimido cada mensaje que el SDK entrega a
+ * {@code ClienteBolsa}, junto con el instante relativo en que llegó.
+ *
+ * Formato: cabecera {@code MAGIA, VERSION, epochMillis} y luego registros
+ * {@code [tipo:byte][offsetNanos:long][largo:int][json:utf8]} dentro de GZIP.
+ */
+public final class GrabadorEventos implements AutoCloseable {
+
+  static final int MAGIA = 0x41595245;
+  static final short VERSION = 1;
+  static final Gson GSON = new Gson();
+
+  private final File destino;
+  private final DataOutputStream salida;
+  private final long inicioNanos;
+  private long eventos;
+  private boolean cerrado;
+
+  public GrabadorEventos(File destino) throws IOException {
+    this.destino = destino;
+    File carpeta = destino.getParentFile();
+    if (carpeta != null && !carpeta.exists()) {
+      carpeta.mkdirs();
+    }
+    this.salida = new DataOutputStream(
+        new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(destino), 1 << 16), 1 << 16));
+    this.inicioNanos = System.nanoTime();
+    salida.writeInt(MAGIA);
+    salida.writeShort(VERSION);
+    salida.writeLong(System.currentTimeMillis());
+  }
+
+  /**
+   * Registra un mensaje. Si la escritura falla se cierra la grabación para no
+   * afectar al hilo de eventos.
+   */
+  public synchronized void registrar(TipoEvento tipo, Object mensaje) {
+    if (cerrado || tipo == null || mensaje == null) {
+      return;
+    }
+    long offset = System.nanoTime() - inicioNanos;
+    byte[] json = GSON.toJson(mensaje).getBytes(StandardCharsets.UTF_8);
+    try {
+      salida.writeByte(tipo.ordinal());
+      salida.writeLong(offset);
+      salida.writeInt(json.length);
+      salida.write(json);
+      eventos++;
+    } catch (IOException e) {
+      System.out.println("⚠️ Grabación detenida: " + e.getMessage());
+      close();
+    }
+  }
+
+  public synchronized long eventos() {
+    return eventos;
+  }
+
+  public File destino() {
+    return destino;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (cerrado) {
+      return;
+    }
+    cerrado = true;
+    try {
+      salida.close();
+    } catch (IOException e) {
+      System.out.println("⚠️ No se pudo cerrar la grabación: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package tech.hellsoft.trading.grabacion;
+
+import tech.hellsoft.trading.exception.SnapshotCorruptoException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lee un archivo generado por {@link GrabadorEventos} y decodifica todos los
+ * mensajes en memoria, de modo que la reproducción no mida tiempo de disco ni de
+ * JSON.
+ */
+public final class LectorGrabacion {
+
+  private LectorGrabacion() {
+  }
+
+  public static Grabacion leer(File origen) throws SnapshotCorruptoException {
+    String ruta = origen.getAbsolutePath();
+    try (DataInputStream entrada = new DataInputStream(
+        new BufferedInputStream(new GZIPInputStream(new FileInputStream(origen), 1 << 16), 1 << 16))) {
+      if (entrada.readInt() != GrabadorEventos.MAGIA) {
+        throw new SnapshotCorruptoException(ruta, "No es un archivo de grabación");
+      }
+      short version = entrada.readShort();
+      if (version != GrabadorEventos.VERSION) {
+        throw new SnapshotCorruptoException(ruta, "Versión de grabación no soportada: " + version);
+      }
+      long inicioEpochMillis = entrada.readLong();
+      List<EventoGrabado> eventos = new ArrayList<>();
+      while (true) {
+        int codigo;
+        try {
+          codigo = entrada.readUnsignedByte();
+        } catch (EOFException fin) {
+          break;
+        }
+        TipoEvento tipo = TipoEvento.desdeCodigo(codigo);
+        if (tipo == null) {
+          throw new SnapshotCorruptoException(ruta, "Tipo de evento desconocido: " + codigo);
+        }
+        long offset = entrada.readLong();
+        byte[] json = new byte[entrada.readInt()];
+        entrada.readFully(json);
+        Object mensaje = GrabadorEventos.GSON.fromJson(new String(json, StandardCharsets.UTF_8), tipo.tipoMensaje());
+        eventos.add(new EventoGrabado(tipo, offset, mensaje));
+      }
+      return new Grabacion(inicioEpochMillis, eventos);
+    } catch (IOException | RuntimeException e) {
+      throw new SnapshotCorruptoException(ruta, "No se pudo leer la grabación: " + e.getMessage(), e);
+    }
+  }
+
+  public record EventoGrabado(TipoEvento tipo, long offsetNanos, Object mensaje) {
+  }
+
+  public record Grabacion(long inicioEpochMillis, List<EventoGrabado> eventos) {
+  }
+}
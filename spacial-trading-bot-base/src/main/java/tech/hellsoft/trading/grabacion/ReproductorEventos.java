@@ -0,0 +1,178 @@
+package tech.hellsoft.trading.grabacion;
+
+import tech.hellsoft.trading.cliente.ClienteBolsa;
+import tech.hellsoft.trading.config.Configuration;
+import tech.hellsoft.trading.exception.ConfiguracionInvalidaException;
+import tech.hellsoft.trading.exception.SnapshotCorruptoException;
+import tech.hellsoft.trading.grabacion.LectorGrabacion.EventoGrabado;
+import tech.hellsoft.trading.grabacion.LectorGrabacion.Grabacion;
+import tech.hellsoft.trading.util.ConfigLoader;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproduce una grabación contra un {@link ClienteBolsa} conectado a un
+ * {@link ConectorBolsaNulo} y reporta eventos/segundo y latencia por callback.
+ *
+ * Uso: {@code ReproductorEventos <archivo> [--max|--real] [--verbose] [config.json]}
+ */
+public final class ReproductorEventos {
+
+  private final ClienteBolsa cliente;
+  private final boolean velocidadMaxima;
+  private final Map<TipoEvento, Latencias> latencias = new EnumMap<>(TipoEvento.class);
+
+  public ReproductorEventos(ClienteBolsa cliente, boolean velocidadMaxima) {
+    this.cliente = cliente;
+    this.velocidadMaxima = velocidadMaxima;
+  }
+
+  public static void main(String[] args) {
+    if (args.length == 0) {
+      System.out.println("Uso: ReproductorEventos <archivo> [--max|--real] [--verbose] [config.json]");
+      return;
+    }
+    boolean maxima = true;
+    boolean verbose = false;
+    String rutaConfig = null;
+    for (int i = 1; i < args.length; i++) {
+      switch (args[i]) {
+      case "--max" -> maxima = true;
+      case "--real" -> maxima = false;
+      case "--verbose" -> verbose = true;
+      default -> rutaConfig = args[i];
+      }
+    }
+    try {
+      Grabacion grabacion = LectorGrabacion.leer(new File(args[0]));
+      Configuration config = rutaConfig == null ? configuracionLocal() : ConfigLoader.load(rutaConfig);
+      ConectorBolsaNulo conector = new ConectorBolsaNulo();
+      ReproductorEventos reproductor = new ReproductorEventos(new ClienteBolsa(conector, config), maxima);
+      Resultado resultado = reproducirSilenciando(reproductor, grabacion.eventos(), !verbose);
+      resultado.imprimir(System.out);
+      System.out.printf("Mensajes salientes → órdenes: %d, producciones: %d, ofertas: %d, logins: %d%n",
+          conector.ordenesEnviadas(), conector.produccionesEnviadas(), conector.respuestasOfertaEnviadas(),
+          conector.loginsEnviados());
+    } catch (SnapshotCorruptoException | ConfiguracionInvalidaException e) {
+      System.err.println("❌ " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  private static Resultado reproducirSilenciando(ReproductorEventos reproductor, List<EventoGrabado> eventos,
+      boolean silenciar) {
+    if (!silenciar) {
+      return reproductor.reproducir(eventos);
+    }
+    PrintStream original = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    try {
+      return reproductor.reproducir(eventos);
+    } finally {
+      System.setOut(original);
+    }
+  }
+
+  private static Configuration configuracionLocal() {
+    return new Configuration("replay", "replay", "local", null, null);
+  }
+
+  /**
+   * Entrega los eventos en orden. A velocidad real respeta los offsets
+   * grabados; a velocidad máxima los entrega uno tras otro.
+   */
+  public Resultado reproducir(List<EventoGrabado> eventos) {
+    latencias.clear();
+    long omitidos = 0;
+    long inicio = System.nanoTime();
+    for (EventoGrabado evento : eventos) {
+      // La reconexión depende del conector real; reproducirla solo añadiría esperas.
+      if (evento.tipo() == TipoEvento.CONNECTION_LOST) {
+        omitidos++;
+        continue;
+      }
+      if (!velocidadMaxima) {
+        esperarHasta(inicio + evento.offsetNanos());
+      }
+      long antes = System.nanoTime();
+      evento.tipo().entregar(cliente, evento.mensaje());
+      long duracion = System.nanoTime() - antes;
+      latencias.computeIfAbsent(evento.tipo(), t -> new Latencias()).agregar(duracion);
+    }
+    long total = System.nanoTime() - inicio;
+    return new Resultado(eventos.size() - omitidos, omitidos, total, new EnumMap<>(latencias));
+  }
+
+  private static void esperarHasta(long objetivoNanos) {
+    long restante = objetivoNanos - System.nanoTime();
+    while (restante > 0) {
+      LockSupport.parkNanos(restante);
+      restante = objetivoNanos - System.nanoTime();
+    }
+  }
+
+  /**
+   * Latencias crudas de un callback; se ordenan una sola vez al reportar.
+   */
+  static final class Latencias {
+
+    private long[] valores = new long[256];
+    private int tamano;
+
+    void agregar(long nanos) {
+      if (tamano == valores.length) {
+        valores = Arrays.copyOf(valores, tamano * 2);
+      }
+      valores[tamano++] = nanos;
+    }
+
+    long[] ordenadas() {
+      long[] copia = Arrays.copyOf(valores, tamano);
+      Arrays.sort(copia);
+      return copia;
+    }
+  }
+
+  public record Resultado(long entregados, long omitidos, long duracionNanos, Map<TipoEvento, Latencias> latencias) {
+
+    public double eventosPorSegundo() {
+      if (duracionNanos <= 0) {
+        return 0.0;
+      }
+      return entregados * (double) TimeUnit.SECONDS.toNanos(1) / duracionNanos;
+    }
+
+    public void imprimir(PrintStream salida) {
+      salida.printf(Locale.ROOT, "Eventos entregados: %d (omitidos: %d) en %.3f ms → %.0f eventos/s%n", entregados,
+          omitidos, duracionNanos / 1_000_000.0, eventosPorSegundo());
+      salida.printf("%-28s %10s %10s %10s %10s %10s%n", "callback", "n", "p50 µs", "p99 µs", "max µs", "prom µs");
+      latencias.forEach((tipo, datos) -> {
+        long[] orden = datos.ordenadas();
+        if (orden.length == 0) {
+          return;
+        }
+        double suma = 0;
+        for (long valor : orden) {
+          suma += valor;
+        }
+        salida.printf(Locale.ROOT, "%-28s %10d %10.2f %10.2f %10.2f %10.2f%n", tipo.callback(), orden.length,
+            percentil(orden, 0.50) / 1000.0, percentil(orden, 0.99) / 1000.0, orden[orden.length - 1] / 1000.0,
+            suma / orden.length / 1000.0);
+      });
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+      int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+      return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))];
+    }
+  }
+}
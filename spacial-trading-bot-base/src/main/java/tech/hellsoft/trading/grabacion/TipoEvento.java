@@ -0,0 +1,82 @@
+package tech.hellsoft.trading.grabacion;
+
+import tech.hellsoft.trading.EventListener;
+import tech.hellsoft.trading.dto.server.BalanceUpdateMessage;
+import tech.hellsoft.trading.dto.server.BroadcastNotificationMessage;
+import tech.hellsoft.trading.dto.server.ErrorMessage;
+import tech.hellsoft.trading.dto.server.EventDeltaMessage;
+import tech.hellsoft.trading.dto.server.FillMessage;
+import tech.hellsoft.trading.dto.server.GlobalPerformanceReportMessage;
+import tech.hellsoft.trading.dto.server.InventoryUpdateMessage;
+import tech.hellsoft.trading.dto.server.LoginOKMessage;
+import tech.hellsoft.trading.dto.server.OfferMessage;
+import tech.hellsoft.trading.dto.server.OrderAckMessage;
+import tech.hellsoft.trading.dto.server.TickerMessage;
+
+/**
+ * Callbacks de {@link EventListener} que se pueden grabar y reproducir. El
+ * ordinal se usa como etiqueta en el archivo de grabación, así que solo se deben
+ * agregar valores al final.
+ */
+public enum TipoEvento {
+
+  LOGIN_OK("onLoginOk", LoginOKMessage.class),
+  FILL("onFill", FillMessage.class),
+  TICKER("onTicker", TickerMessage.class),
+  OFFER("onOffer", OfferMessage.class),
+  ERROR("onError", ErrorMessage.class),
+  ORDER_ACK("onOrderAck", OrderAckMessage.class),
+  INVENTORY_UPDATE("onInventoryUpdate", InventoryUpdateMessage.class),
+  BALANCE_UPDATE("onBalanceUpdate", BalanceUpdateMessage.class),
+  EVENT_DELTA("onEventDelta", EventDeltaMessage.class),
+  BROADCAST("onBroadcast", BroadcastNotificationMessage.class),
+  CONNECTION_LOST("onConnectionLost", String.class),
+  GLOBAL_PERFORMANCE_REPORT("onGlobalPerformanceReport", GlobalPerformanceReportMessage.class);
+
+  private static final TipoEvento[] VALORES = values();
+
+  private final String callback;
+  private final Class<?> tipoMensaje;
+
+  TipoEvento(String callback, Class<?> tipoMensaje) {
+    this.callback = callback;
+    this.tipoMensaje = tipoMensaje;
+  }
+
+  public String callback() {
+    return callback;
+  }
+
+  public Class<?> tipoMensaje() {
+    return tipoMensaje;
+  }
+
+  public static TipoEvento desdeCodigo(int codigo) {
+    if (codigo < 0 || codigo >= VALORES.length) {
+      return null;
+    }
+    return VALORES[codigo];
+  }
+
+  /**
+   * Invoca el callback correspondiente del listener con el mensaje ya
+   * decodificado.
+   */
+  public void entregar(EventListener listener, Object mensaje) {
+    switch (this) {
+    case LOGIN_OK -> listener.onLoginOk((LoginOKMessage) mensaje);
+    case FILL -> listener.onFill((FillMessage) mensaje);
+    case TICKER -> listener.onTicker((TickerMessage) mensaje);
+    case OFFER -> listener.onOffer((OfferMessage) mensaje);
+    case ERROR -> listener.onError((ErrorMessage) mensaje);
+    case ORDER_ACK -> listener.onOrderAck((OrderAckMessage) mensaje);
+    case INVENTORY_UPDATE -> listener.onInventoryUpdate((InventoryUpdateMessage) mensaje);
+    case BALANCE_UPDATE -> listener.onBalanceUpdate((BalanceUpdateMessage) mensaje);
+    case EVENT_DELTA -> listener.onEventDelta((EventDeltaMessage) mensaje);
+    case BROADCAST -> listener.onBroadcast((BroadcastNotificationMessage) mensaje);
+    case CONNECTION_LOST -> listener.onConnectionLost(new IllegalStateException((String) mensaje));
+    case GLOBAL_PERFORMANCE_REPORT -> listener.onGlobalPerformanceReport((GlobalPerformanceReportMessage) mensaje);
+    default -> throw new IllegalStateException("Tipo de evento sin callback: " + this);
+    }
+  }
+}
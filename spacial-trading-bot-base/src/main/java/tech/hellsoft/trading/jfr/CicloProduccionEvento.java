@@ -0,0 +1,45 @@
+package tech.hellsoft.trading.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import tech.hellsoft.trading.enums.Product;
+
+/** Un ciclo de auto-producción: producir los lotes y vender lo disponible. */
+@Name("tech.hellsoft.trading.CicloProduccion")
+@Label("Ciclo de auto-producción")
+@Category({"Trading Bot", "Producción"})
+@Description("Producción y liquidación de un ciclo de AutoProduccionManager")
+@StackTrace(false)
+public final class CicloProduccionEvento extends Event {
+
+  @Label("Producto")
+  private String producto;
+
+  @Label("Lotes")
+  private int lotes;
+
+  @Label("Premium")
+  private boolean premium;
+
+  @Label("Cantidad vendida")
+  private int cantidad;
+
+  @Label("Error")
+  private String error;
+
+  public void terminar(Product productoObjetivo, int lotesCiclo, boolean esPremium, int vendida, String mensajeError) {
+    if (!shouldCommit()) {
+      return;
+    }
+    producto = productoObjetivo == null ? null : productoObjetivo.getValue();
+    lotes = lotesCiclo;
+    premium = esPremium;
+    cantidad = vendida;
+    error = mensajeError;
+    commit();
+  }
+}
@@ -0,0 +1,47 @@
+package tech.hellsoft.trading.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+
+/** Aplicación de un fill al estado local (inventario y saldo). */
+@Name("tech.hellsoft.trading.Fill")
+@Label("Fill aplicado")
+@Category({"Trading Bot", "Órdenes"})
+@Description("Fill recibido y aplicado a inventario y saldo")
+@StackTrace(false)
+public final class FillEvento extends Event {
+
+  @Label("Producto")
+  private String producto;
+
+  @Label("Cantidad")
+  private int cantidad;
+
+  @Label("clOrdID")
+  private String clOrdId;
+
+  @Label("Lado")
+  private String lado;
+
+  @Label("Precio")
+  private double precio;
+
+  public void terminar(Product productoFill, int cantidadFill, String idOrden, OrderSide ladoFill,
+      double precioFill) {
+    if (!shouldCommit()) {
+      return;
+    }
+    producto = productoFill == null ? null : productoFill.getValue();
+    cantidad = cantidadFill;
+    clOrdId = idOrden;
+    lado = ladoFill == null ? null : ladoFill.name();
+    precio = precioFill;
+    commit();
+  }
+}
@@ -0,0 +1,42 @@
+package tech.hellsoft.trading.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+
+/** Construcción y envío de una orden; la duración incluye la escritura en el conector. */
+@Name("tech.hellsoft.trading.OrdenEnviada")
+@Label("Orden enviada")
+@Category({"Trading Bot", "Órdenes"})
+@Description("Orden de compra o venta entregada al conector")
+@StackTrace(false)
+public final class OrdenEnviadaEvento extends Event {
+
+  @Label("Producto")
+  private String producto;
+
+  @Label("Cantidad")
+  private int cantidad;
+
+  @Label("clOrdID")
+  private String clOrdId;
+
+  @Label("Lado")
+  private String lado;
+
+  public void terminar(Product productoOrden, int cantidadOrden, String idOrden, OrderSide ladoOrden) {
+    if (!shouldCommit()) {
+      return;
+    }
+    producto = productoOrden == null ? null : productoOrden.getValue();
+    cantidad = cantidadOrden;
+    clOrdId = idOrden;
+    lado = ladoOrden == null ? null : ladoOrden.name();
+    commit();
+  }
+}
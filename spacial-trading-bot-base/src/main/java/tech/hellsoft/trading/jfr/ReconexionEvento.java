@@ -0,0 +1,42 @@
+package tech.hellsoft.trading.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Un intento de reconexión tras un corte; la duración es la del intento. */
+@Name("tech.hellsoft.trading.Reconexion")
+@Label("Intento de reconexión")
+@Category({"Trading Bot", "Conexión"})
+@Description("Intento de reconexión con la bolsa y tiempo acumulado del corte")
+@StackTrace(false)
+public final class ReconexionEvento extends Event {
+
+  @Label("Intento")
+  private int intento;
+
+  @Label("Exitoso")
+  private boolean exito;
+
+  @Label("Tiempo sin conexión")
+  @Timespan(Timespan.NANOSECONDS)
+  private long corte;
+
+  @Label("Error")
+  private String error;
+
+  public void terminar(int numero, boolean exitoso, long corteNanos, String mensajeError) {
+    if (!shouldCommit()) {
+      return;
+    }
+    intento = numero;
+    exito = exitoso;
+    corte = corteNanos;
+    error = mensajeError;
+    commit();
+  }
+}
@@ -0,0 +1,41 @@
+package tech.hellsoft.trading.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import tech.hellsoft.trading.enums.Product;
+
+/** Respuesta (aceptar o rechazar) a una oferta de otro equipo. */
+@Name("tech.hellsoft.trading.RespuestaOferta")
+@Label("Respuesta a oferta")
+@Category({"Trading Bot", "Órdenes"})
+@Description("Aceptación o rechazo de una oferta enviada al conector")
+@StackTrace(false)
+public final class RespuestaOfertaEvento extends Event {
+
+  @Label("Producto")
+  private String producto;
+
+  @Label("Cantidad")
+  private int cantidad;
+
+  @Label("Oferta")
+  private String offerId;
+
+  @Label("Aceptada")
+  private boolean aceptada;
+
+  public void terminar(Product productoOferta, int cantidadOfrecida, String idOferta, boolean acepto) {
+    if (!shouldCommit()) {
+      return;
+    }
+    producto = productoOferta == null ? null : productoOferta.getValue();
+    cantidad = cantidadOfrecida;
+    offerId = idOferta;
+    aceptada = acepto;
+    commit();
+  }
+}
@@ -0,0 +1,43 @@
+package tech.hellsoft.trading.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Guardado o carga de un snapshot; la duración es casi toda E/S y serialización. */
+@Name("tech.hellsoft.trading.Snapshot")
+@Label("Snapshot")
+@Category({"Trading Bot", "Estado"})
+@Description("Serialización del estado a disco o restauración desde disco")
+public final class SnapshotEvento extends Event {
+
+  public static final String GUARDAR = "guardar";
+  public static final String CARGAR = "cargar";
+
+  @Label("Operación")
+  private String operacion;
+
+  @Label("Ruta")
+  private String ruta;
+
+  @Label("Tamaño")
+  @DataAmount
+  private long bytes;
+
+  @Label("Exitoso")
+  private boolean exito;
+
+  public void terminar(String tipoOperacion, String archivo, long tamano, boolean exitoso) {
+    if (!shouldCommit()) {
+      return;
+    }
+    operacion = tipoOperacion;
+    ruta = archivo;
+    bytes = tamano;
+    exito = exitoso;
+    commit();
+  }
+}
@@ -0,0 +1,39 @@
+package tech.hellsoft.trading.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import tech.hellsoft.trading.enums.Product;
+
+/**
+ * Procesamiento de un ticker en {@code ClienteBolsa.onTicker}. Es el callback
+ * más frecuente, así que por defecto solo se registran los que tardan 1 ms o
+ * más; {@code +tech.hellsoft.trading.Ticker#threshold=0ms} los registra todos.
+ */
+@Name("tech.hellsoft.trading.Ticker")
+@Label("Ticker procesado")
+@Category({"Trading Bot", "Mercado"})
+@Description("Actualización del precio de referencia a partir de un ticker")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class TickerEvento extends Event {
+
+  @Label("Producto")
+  private String producto;
+
+  @Label("Precio medio")
+  private double precio;
+
+  public void terminar(Product productoTicker, double precioMedio) {
+    if (!shouldCommit()) {
+      return;
+    }
+    producto = productoTicker == null ? null : productoTicker.getValue();
+    precio = precioMedio;
+    commit();
+  }
+}
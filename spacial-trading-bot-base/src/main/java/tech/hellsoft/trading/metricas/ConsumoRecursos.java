@@ -0,0 +1,200 @@
+package tech.hellsoft.trading.metricas;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bytes asignados y tiempo de CPU por tipo de evento (callback, comando,
+ * ciclo de auto-producción), leídos del {@link ThreadMXBean} del hilo que
+ * atiende el evento.
+ *
+ * <p>Se muestrea una de cada N llamadas ({@code -Dconsumo.muestreo=N}, redondeado
+ * a potencia de dos; por defecto 16, 1 mide todas y 0 apaga la medición): las llamadas no
+ * muestreadas solo incrementan un contador, así que se puede dejar activo.
+ * Los promedios por llamada salen de las muestras; los totales se estiman con
+ * el número de llamadas.
+ */
+public final class ConsumoRecursos {
+
+  public static final String PROPIEDAD_MUESTREO = "consumo.muestreo";
+  private static final int MUESTREO_POR_DEFECTO = 16;
+
+  private static final com.sun.management.ThreadMXBean HILOS = hilosSoportados();
+
+  private final ConcurrentMap<String, Sonda> sondas = new ConcurrentHashMap<>();
+  // Máscara sobre el número de llamada; -1 desactiva el muestreo.
+  private final long mascara;
+
+  public ConsumoRecursos() {
+    this(muestreoConfigurado());
+  }
+
+  public ConsumoRecursos(int muestreo) {
+    if (muestreo < 0) {
+      throw new IllegalArgumentException("El muestreo debe ser >= 0");
+    }
+    // Se redondea hacia abajo a potencia de dos para decidir con una máscara.
+    mascara = muestreo == 0 || HILOS == null ? -1L : Integer.highestOneBit(muestreo) - 1L;
+  }
+
+  // Un valor inválido en la propiedad no debe impedir arrancar: se avisa y se usa el muestreo por defecto.
+  private static int muestreoConfigurado() {
+    String valor = System.getProperty(PROPIEDAD_MUESTREO);
+    if (valor == null || valor.isBlank()) {
+      return MUESTREO_POR_DEFECTO;
+    }
+    int muestreo;
+    try {
+      muestreo = Integer.parseInt(valor.trim());
+    } catch (NumberFormatException e) {
+      muestreo = -1;
+    }
+    if (muestreo >= 0) {
+      return muestreo;
+    }
+    System.out.println("⚠️ -D" + PROPIEDAD_MUESTREO + "=" + valor + " no es un entero >= 0; se usa "
+        + MUESTREO_POR_DEFECTO + ".");
+    return MUESTREO_POR_DEFECTO;
+  }
+
+  /** Resumen agregado de una sonda; los tiempos en microsegundos. */
+  public record Resumen(long llamadas, long muestras, double bytesPorLlamada, double cpuMicrosPorLlamada,
+      long bytesMaximo, double cpuMicrosMaximo) {
+
+    public double bytesEstimados() {
+      return bytesPorLlamada * llamadas;
+    }
+
+    public double cpuMilisEstimados() {
+      return cpuMicrosPorLlamada * llamadas / 1000.0;
+    }
+  }
+
+  /** Sonda de un tipo de evento; conviene obtenerla una vez y reutilizarla. */
+  public Sonda sonda(String nombre) {
+    return sondas.computeIfAbsent(nombre, n -> new Sonda(mascara));
+  }
+
+  // Para eventos poco frecuentes (comandos, ciclos de auto-producción): mide todas las llamadas.
+  public Sonda sondaSinMuestreo(String nombre) {
+    return sondas.computeIfAbsent(nombre, n -> new Sonda(mascara < 0 ? -1L : 0L));
+  }
+
+  public boolean activo() {
+    return mascara >= 0;
+  }
+
+  public long intervaloMuestreo() {
+    return mascara + 1;
+  }
+
+  public SortedMap<String, Resumen> resumen() {
+    SortedMap<String, Resumen> copia = new TreeMap<>();
+    sondas.forEach((nombre, sonda) -> copia.put(nombre, sonda.resumen()));
+    return copia;
+  }
+
+  public void imprimir(PrintStream salida) {
+    if (!activo()) {
+      salida.println("Consumo por evento desactivado (-D" + PROPIEDAD_MUESTREO + "=0 o JVM sin soporte).");
+      return;
+    }
+    salida.printf("Consumo por evento (1 de cada %d llamadas):%n", intervaloMuestreo());
+    salida.printf("  %-32s %10s %12s %12s %12s %12s%n", "evento", "llamadas", "B/llamada", "µs CPU", "MB total",
+        "ms CPU");
+    resumen().forEach((nombre, r) -> {
+      if (r.muestras() > 0) {
+        salida.printf(Locale.ROOT, "  %-32s %10d %12.0f %12.2f %12.2f %12.1f%n", nombre, r.llamadas(),
+            r.bytesPorLlamada(), r.cpuMicrosPorLlamada(), r.bytesEstimados() / (1024.0 * 1024.0),
+            r.cpuMilisEstimados());
+      }
+    });
+  }
+
+  private static com.sun.management.ThreadMXBean hilosSoportados() {
+    ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+    if (!(hilos instanceof com.sun.management.ThreadMXBean extendido)) {
+      return null;
+    }
+    try {
+      if (!extendido.isThreadAllocatedMemorySupported() || !extendido.isCurrentThreadCpuTimeSupported()) {
+        return null;
+      }
+      extendido.setThreadAllocatedMemoryEnabled(true);
+      extendido.setThreadCpuTimeEnabled(true);
+      return extendido;
+    } catch (UnsupportedOperationException | SecurityException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Marca de inicio de una llamada muestreada. Los campos se llenan después de
+   * crear el objeto para que su propia asignación no cuente en la medición.
+   */
+  public static final class Muestra {
+    private long bytes;
+    private long cpu;
+  }
+
+  /**
+   * Uso: {@code Muestra m = sonda.iniciar(); try { ... } finally { sonda.terminar(m); }}.
+   * Fuera de las muestras {@link #iniciar()} devuelve null y no asigna nada.
+   */
+  public static final class Sonda {
+
+    private final long mascara;
+    private final AtomicLong llamadas = new AtomicLong();
+    private long muestras;
+    private long bytesTotal;
+    private long cpuTotal;
+    private long bytesMaximo;
+    private long cpuMaximo;
+
+    private Sonda(long mascara) {
+      this.mascara = mascara;
+    }
+
+    public Muestra iniciar() {
+      if (mascara < 0 || (llamadas.getAndIncrement() & mascara) != 0) {
+        return null;
+      }
+      Muestra muestra = new Muestra();
+      muestra.bytes = HILOS.getCurrentThreadAllocatedBytes();
+      muestra.cpu = HILOS.getCurrentThreadCpuTime();
+      return muestra;
+    }
+
+    public void terminar(Muestra muestra) {
+      if (muestra == null) {
+        return;
+      }
+      long cpu = HILOS.getCurrentThreadCpuTime() - muestra.cpu;
+      long bytes = HILOS.getCurrentThreadAllocatedBytes() - muestra.bytes;
+      registrar(Math.max(0, bytes), Math.max(0, cpu));
+    }
+
+    private synchronized void registrar(long bytes, long cpu) {
+      muestras++;
+      bytesTotal += bytes;
+      cpuTotal += cpu;
+      bytesMaximo = Math.max(bytesMaximo, bytes);
+      cpuMaximo = Math.max(cpuMaximo, cpu);
+    }
+
+    public synchronized Resumen resumen() {
+      if (muestras == 0) {
+        return new Resumen(llamadas.get(), 0, 0.0, 0.0, 0, 0.0);
+      }
+      return new Resumen(llamadas.get(), muestras, bytesTotal / (double) muestras,
+          cpuTotal / 1000.0 / muestras, bytesMaximo, cpuMaximo / 1000.0);
+    }
+  }
+}
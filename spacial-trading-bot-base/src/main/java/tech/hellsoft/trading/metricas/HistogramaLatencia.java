@@ -0,0 +1,90 @@
+package tech.hellsoft.trading.metricas;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias en nanosegundos con memoria fija. Usa cubetas
+ * log-lineales (8 subdivisiones por potencia de dos), así que cualquier
+ * percentil tiene un error relativo menor al 12.5% y registrar un valor es un
+ * incremento atómico sin asignar memoria.
+ */
+public final class HistogramaLatencia {
+
+  private static final int BITS_SUB = 3;
+  private static final int SUB = 1 << BITS_SUB;
+  private static final int CUBETAS = (64 - BITS_SUB) * SUB;
+
+  private final AtomicLongArray cuentas = new AtomicLongArray(CUBETAS);
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong suma = new AtomicLong();
+  private final AtomicLong maximo = new AtomicLong();
+
+  public void registrar(long nanos) {
+    long valor = Math.max(0L, nanos);
+    cuentas.incrementAndGet(indice(valor));
+    total.incrementAndGet();
+    suma.addAndGet(valor);
+    long actual = maximo.get();
+    while (valor > actual && !maximo.compareAndSet(actual, valor)) {
+      actual = maximo.get();
+    }
+  }
+
+  static int indice(long valor) {
+    if (valor < SUB) {
+      return (int) valor;
+    }
+    int exponente = 63 - Long.numberOfLeadingZeros(valor);
+    int sub = (int) ((valor >>> (exponente - BITS_SUB)) & (SUB - 1));
+    return (exponente - BITS_SUB + 1) * SUB + sub;
+  }
+
+  static long limiteSuperior(int indice) {
+    if (indice < SUB) {
+      return indice;
+    }
+    int exponente = indice / SUB + BITS_SUB - 1;
+    long base = (long) (SUB + indice % SUB) << (exponente - BITS_SUB);
+    return base + (1L << (exponente - BITS_SUB)) - 1;
+  }
+
+  public long total() {
+    return total.get();
+  }
+
+  public long maximo() {
+    return maximo.get();
+  }
+
+  public double promedio() {
+    long n = total.get();
+    return n == 0 ? 0.0 : (double) suma.get() / n;
+  }
+
+  /**
+   * Percentil aproximado (límite superior de la cubeta), con {@code p} entre 0
+   * y 1. Los lectores no bloquean al hilo que registra.
+   */
+  public long percentil(double p) {
+    long n = total.get();
+    if (n == 0) {
+      return 0L;
+    }
+    long objetivo = Math.max(1L, (long) Math.ceil(p * n));
+    long acumulado = 0;
+    for (int i = 0; i < CUBETAS; i++) {
+      acumulado += cuentas.get(i);
+      if (acumulado >= objetivo) {
+        return Math.min(limiteSuperior(i), maximo.get());
+      }
+    }
+    return maximo.get();
+  }
+
+  public String resumenMicros() {
+    return String.format(Locale.ROOT, "n=%d p50=%.1fµs p99=%.1fµs max=%.1fµs", total(), percentil(0.50) / 1000.0,
+        percentil(0.99) / 1000.0, maximo() / 1000.0);
+  }
+}
@@ -0,0 +1,259 @@
+package tech.hellsoft.trading.metricas;
+
+import tech.hellsoft.trading.EventListener;
+import tech.hellsoft.trading.dto.server.BalanceUpdateMessage;
+import tech.hellsoft.trading.dto.server.BroadcastNotificationMessage;
+import tech.hellsoft.trading.dto.server.ErrorMessage;
+import tech.hellsoft.trading.dto.server.EventDeltaMessage;
+import tech.hellsoft.trading.dto.server.FillMessage;
+import tech.hellsoft.trading.dto.server.GlobalPerformanceReportMessage;
+import tech.hellsoft.trading.dto.server.InventoryUpdateMessage;
+import tech.hellsoft.trading.dto.server.LoginOKMessage;
+import tech.hellsoft.trading.dto.server.OfferMessage;
+import tech.hellsoft.trading.dto.server.OrderAckMessage;
+import tech.hellsoft.trading.dto.server.TickerMessage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorador que se registra en el conector en lugar del listener real: mide la
+ * duración de cada callback (y, en las llamadas muestreadas, los bytes asignados
+ * y la CPU) y cuenta acks, fills, rechazos, errores y ofertas. Los histogramas,
+ * sondas y contadores se resuelven una sola vez en el constructor.
+ * Tickers, acks y fills se marcan en {@link SeguimientoOrdenes} al recibirse,
+ * antes de delegar.
+ */
+public final class ListenerMedido implements EventListener {
+
+  private final EventListener destino;
+  private final RegistroMetricas metricas;
+  private final SeguimientoOrdenes seguimiento;
+
+  private final HistogramaLatencia loginOk;
+  private final HistogramaLatencia fill;
+  private final HistogramaLatencia ticker;
+  private final HistogramaLatencia offer;
+  private final HistogramaLatencia error;
+  private final HistogramaLatencia orderAck;
+  private final HistogramaLatencia inventoryUpdate;
+  private final HistogramaLatencia balanceUpdate;
+  private final HistogramaLatencia eventDelta;
+  private final HistogramaLatencia broadcast;
+  private final HistogramaLatencia connectionLost;
+  private final HistogramaLatencia performanceReport;
+
+  private final ConsumoRecursos.Sonda sondaLoginOk;
+  private final ConsumoRecursos.Sonda sondaFill;
+  private final ConsumoRecursos.Sonda sondaTicker;
+  private final ConsumoRecursos.Sonda sondaOffer;
+  private final ConsumoRecursos.Sonda sondaError;
+  private final ConsumoRecursos.Sonda sondaOrderAck;
+  private final ConsumoRecursos.Sonda sondaInventoryUpdate;
+  private final ConsumoRecursos.Sonda sondaBalanceUpdate;
+  private final ConsumoRecursos.Sonda sondaEventDelta;
+  private final ConsumoRecursos.Sonda sondaBroadcast;
+  private final ConsumoRecursos.Sonda sondaConnectionLost;
+  private final ConsumoRecursos.Sonda sondaPerformanceReport;
+
+  private final LongAdder fills;
+  private final LongAdder acks;
+  private final LongAdder rechazos;
+  private final LongAdder ofertas;
+
+  public ListenerMedido(EventListener destino, RegistroMetricas metricas, SeguimientoOrdenes seguimiento) {
+    this.destino = destino;
+    this.metricas = metricas;
+    this.seguimiento = seguimiento;
+    this.loginOk = metricas.histograma("callback.onLoginOk");
+    this.fill = metricas.histograma("callback.onFill");
+    this.ticker = metricas.histograma("callback.onTicker");
+    this.offer = metricas.histograma("callback.onOffer");
+    this.error = metricas.histograma("callback.onError");
+    this.orderAck = metricas.histograma("callback.onOrderAck");
+    this.inventoryUpdate = metricas.histograma("callback.onInventoryUpdate");
+    this.balanceUpdate = metricas.histograma("callback.onBalanceUpdate");
+    this.eventDelta = metricas.histograma("callback.onEventDelta");
+    this.broadcast = metricas.histograma("callback.onBroadcast");
+    this.connectionLost = metricas.histograma("callback.onConnectionLost");
+    this.performanceReport = metricas.histograma("callback.onGlobalPerformanceReport");
+    this.sondaLoginOk = metricas.consumo().sonda("callback.onLoginOk");
+    this.sondaFill = metricas.consumo().sonda("callback.onFill");
+    this.sondaTicker = metricas.consumo().sonda("callback.onTicker");
+    this.sondaOffer = metricas.consumo().sonda("callback.onOffer");
+    this.sondaError = metricas.consumo().sonda("callback.onError");
+    this.sondaOrderAck = metricas.consumo().sonda("callback.onOrderAck");
+    this.sondaInventoryUpdate = metricas.consumo().sonda("callback.onInventoryUpdate");
+    this.sondaBalanceUpdate = metricas.consumo().sonda("callback.onBalanceUpdate");
+    this.sondaEventDelta = metricas.consumo().sonda("callback.onEventDelta");
+    this.sondaBroadcast = metricas.consumo().sonda("callback.onBroadcast");
+    this.sondaConnectionLost = metricas.consumo().sonda("callback.onConnectionLost");
+    this.sondaPerformanceReport = metricas.consumo().sonda("callback.onGlobalPerformanceReport");
+    this.fills = metricas.contador(RegistroMetricas.FILLS);
+    this.acks = metricas.contador(RegistroMetricas.ACKS);
+    this.rechazos = metricas.contador(RegistroMetricas.RECHAZOS);
+    this.ofertas = metricas.contador(RegistroMetricas.OFERTAS);
+  }
+
+  @Override
+  public void onLoginOk(LoginOKMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaLoginOk.iniciar();
+    try {
+      destino.onLoginOk(mensaje);
+    } finally {
+      loginOk.registrar(System.nanoTime() - inicio);
+      sondaLoginOk.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onFill(FillMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaFill.iniciar();
+    fills.increment();
+    if (mensaje != null) {
+      seguimiento.registrarFill(mensaje.getClOrdID(), mensaje.getFillQty() == null ? 0 : mensaje.getFillQty());
+    }
+    try {
+      destino.onFill(mensaje);
+    } finally {
+      fill.registrar(System.nanoTime() - inicio);
+      sondaFill.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onTicker(TickerMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaTicker.iniciar();
+    if (mensaje != null) {
+      seguimiento.registrarTicker(mensaje.getProduct(), mensaje.getServerTime());
+    }
+    try {
+      destino.onTicker(mensaje);
+    } finally {
+      ticker.registrar(System.nanoTime() - inicio);
+      sondaTicker.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onOffer(OfferMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaOffer.iniciar();
+    ofertas.increment();
+    try {
+      destino.onOffer(mensaje);
+    } finally {
+      offer.registrar(System.nanoTime() - inicio);
+      sondaOffer.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onError(ErrorMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaError.iniciar();
+    if (mensaje != null) {
+      metricas.error(String.valueOf(mensaje.getCode()));
+    }
+    try {
+      destino.onError(mensaje);
+    } finally {
+      error.registrar(System.nanoTime() - inicio);
+      sondaError.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onOrderAck(OrderAckMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaOrderAck.iniciar();
+    acks.increment();
+    if (mensaje != null) {
+      boolean rechazada = String.valueOf(mensaje.getStatus()).toUpperCase().contains("REJECT");
+      if (rechazada) {
+        rechazos.increment();
+      }
+      seguimiento.registrarAck(mensaje.getClOrdID(), rechazada);
+    }
+    try {
+      destino.onOrderAck(mensaje);
+    } finally {
+      orderAck.registrar(System.nanoTime() - inicio);
+      sondaOrderAck.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onInventoryUpdate(InventoryUpdateMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaInventoryUpdate.iniciar();
+    try {
+      destino.onInventoryUpdate(mensaje);
+    } finally {
+      inventoryUpdate.registrar(System.nanoTime() - inicio);
+      sondaInventoryUpdate.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onBalanceUpdate(BalanceUpdateMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaBalanceUpdate.iniciar();
+    try {
+      destino.onBalanceUpdate(mensaje);
+    } finally {
+      balanceUpdate.registrar(System.nanoTime() - inicio);
+      sondaBalanceUpdate.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onEventDelta(EventDeltaMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaEventDelta.iniciar();
+    try {
+      destino.onEventDelta(mensaje);
+    } finally {
+      eventDelta.registrar(System.nanoTime() - inicio);
+      sondaEventDelta.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onBroadcast(BroadcastNotificationMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaBroadcast.iniciar();
+    try {
+      destino.onBroadcast(mensaje);
+    } finally {
+      broadcast.registrar(System.nanoTime() - inicio);
+      sondaBroadcast.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onConnectionLost(Throwable causa) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaConnectionLost.iniciar();
+    try {
+      destino.onConnectionLost(causa);
+    } finally {
+      connectionLost.registrar(System.nanoTime() - inicio);
+      sondaConnectionLost.terminar(muestra);
+    }
+  }
+
+  @Override
+  public void onGlobalPerformanceReport(GlobalPerformanceReportMessage mensaje) {
+    long inicio = System.nanoTime();
+    ConsumoRecursos.Muestra muestra = sondaPerformanceReport.iniciar();
+    try {
+      destino.onGlobalPerformanceReport(mensaje);
+    } finally {
+      performanceReport.registrar(System.nanoTime() - inicio);
+      sondaPerformanceReport.terminar(muestra);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package tech.hellsoft.trading.metricas;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+final class MetricasJmx implements MetricasMXBean {
+
+  private final RegistroMetricas registro;
+
+  MetricasJmx(RegistroMetricas registro) {
+    this.registro = registro;
+  }
+
+  @Override
+  public Map<String, Long> getContadores() {
+    return registro.contadores();
+  }
+
+  @Override
+  public Map<String, Long> getErroresPorCodigo() {
+    return registro.erroresPorCodigo();
+  }
+
+  @Override
+  public Map<String, Double> getGauges() {
+    return registro.gauges();
+  }
+
+  @Override
+  public Map<String, Double> getLatenciaP50Micros() {
+    return latencias(h -> h.percentil(0.50) / 1000.0);
+  }
+
+  @Override
+  public Map<String, Double> getLatenciaP99Micros() {
+    return latencias(h -> h.percentil(0.99) / 1000.0);
+  }
+
+  @Override
+  public Map<String, Double> getLatenciaMaximaMicros() {
+    return latencias(h -> h.maximo() / 1000.0);
+  }
+
+  @Override
+  public Map<String, Double> getBytesPorLlamada() {
+    return consumo(ConsumoRecursos.Resumen::bytesPorLlamada);
+  }
+
+  @Override
+  public Map<String, Double> getCpuMicrosPorLlamada() {
+    return consumo(ConsumoRecursos.Resumen::cpuMicrosPorLlamada);
+  }
+
+  @Override
+  public Map<String, Double> getBytesAsignadosEstimados() {
+    return consumo(ConsumoRecursos.Resumen::bytesEstimados);
+  }
+
+  private Map<String, Double> consumo(ToDoubleFunction<ConsumoRecursos.Resumen> lectura) {
+    Map<String, Double> valores = new TreeMap<>();
+    registro.consumo().resumen().forEach((nombre, r) -> valores.put(nombre, lectura.applyAsDouble(r)));
+    return valores;
+  }
+
+  private Map<String, Double> latencias(ToDoubleFunction<HistogramaLatencia> lectura) {
+    Map<String, Double> valores = new TreeMap<>();
+    registro.histogramas().forEach((nombre, h) -> valores.put(nombre, lectura.applyAsDouble(h)));
+    return valores;
+  }
+}
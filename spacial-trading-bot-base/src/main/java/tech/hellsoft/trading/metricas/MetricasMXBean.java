@@ -0,0 +1,29 @@
+package tech.hellsoft.trading.metricas;
+
+import java.util.Map;
+
+/**
+ * Vista JMX de {@link RegistroMetricas}. Las latencias se exponen en
+ * microsegundos por nombre de histograma; el consumo por evento, por nombre de
+ * sonda de {@link ConsumoRecursos}.
+ */
+public interface MetricasMXBean {
+
+  Map<String, Long> getContadores();
+
+  Map<String, Long> getErroresPorCodigo();
+
+  Map<String, Double> getGauges();
+
+  Map<String, Double> getLatenciaP50Micros();
+
+  Map<String, Double> getLatenciaP99Micros();
+
+  Map<String, Double> getLatenciaMaximaMicros();
+
+  Map<String, Double> getBytesPorLlamada();
+
+  Map<String, Double> getCpuMicrosPorLlamada();
+
+  Map<String, Double> getBytesAsignadosEstimados();
+}
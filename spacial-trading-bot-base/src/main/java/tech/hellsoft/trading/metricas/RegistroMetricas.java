@@ -0,0 +1,123 @@
+package tech.hellsoft.trading.metricas;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Contadores, gauges e histogramas de una cuenta. Los hilos de trading solo
+ * incrementan {@link LongAdder}s e histogramas obtenidos una vez al inicio; la
+ * consola y JMX leen sin bloquearlos.
+ */
+public final class RegistroMetricas {
+
+  public static final String ORDENES_ENVIADAS = "ordenes.enviadas";
+  public static final String ACKS = "ordenes.acks";
+  public static final String RECHAZOS = "ordenes.rechazos";
+  public static final String FILLS = "fills";
+  public static final String OFERTAS = "ofertas.recibidas";
+  public static final String ERRORES = "errores";
+
+  private final ConcurrentMap<String, LongAdder> contadores = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, LongAdder> erroresPorCodigo = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, HistogramaLatencia> histogramas = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+  private final ConsumoRecursos consumo = new ConsumoRecursos();
+
+  public LongAdder contador(String nombre) {
+    return contadores.computeIfAbsent(nombre, n -> new LongAdder());
+  }
+
+  public HistogramaLatencia histograma(String nombre) {
+    return histogramas.computeIfAbsent(nombre, n -> new HistogramaLatencia());
+  }
+
+  public ConsumoRecursos consumo() {
+    return consumo;
+  }
+
+  public void registrarGauge(String nombre, DoubleSupplier lectura) {
+    gauges.put(nombre, lectura);
+  }
+
+  public void error(String codigo) {
+    contador(ERRORES).increment();
+    erroresPorCodigo.computeIfAbsent(codigo == null ? "desconocido" : codigo, c -> new LongAdder()).increment();
+  }
+
+  public SortedMap<String, Long> contadores() {
+    SortedMap<String, Long> copia = new TreeMap<>();
+    contadores.forEach((nombre, valor) -> copia.put(nombre, valor.sum()));
+    return copia;
+  }
+
+  public SortedMap<String, Long> erroresPorCodigo() {
+    SortedMap<String, Long> copia = new TreeMap<>();
+    erroresPorCodigo.forEach((codigo, valor) -> copia.put(codigo, valor.sum()));
+    return copia;
+  }
+
+  /**
+   * Lee los gauges. Un gauge que falla (por ejemplo, por una lectura
+   * concurrente del estado) se reporta como NaN en lugar de propagar el error.
+   */
+  public SortedMap<String, Double> gauges() {
+    SortedMap<String, Double> copia = new TreeMap<>();
+    gauges.forEach((nombre, lectura) -> {
+      double valor;
+      try {
+        valor = lectura.getAsDouble();
+      } catch (RuntimeException e) {
+        valor = Double.NaN;
+      }
+      copia.put(nombre, valor);
+    });
+    return copia;
+  }
+
+  public SortedMap<String, HistogramaLatencia> histogramas() {
+    return new TreeMap<>(histogramas);
+  }
+
+  public void imprimir(PrintStream salida) {
+    salida.println("Contadores:");
+    contadores().forEach((nombre, valor) -> salida.printf("  %-32s %d%n", nombre, valor));
+    Map<String, Long> errores = erroresPorCodigo();
+    if (!errores.isEmpty()) {
+      salida.println("Errores por código:");
+      errores.forEach((codigo, valor) -> salida.printf("  %-32s %d%n", codigo, valor));
+    }
+    salida.println("Gauges:");
+    gauges().forEach((nombre, valor) -> salida.printf(Locale.ROOT, "  %-32s %.2f%n", nombre, valor));
+    salida.println("Latencias:");
+    histogramas().forEach((nombre, h) -> salida.printf("  %-32s %s%n", nombre, h.resumenMicros()));
+  }
+
+  /**
+   * Publica el registro como MXBean bajo
+   * {@code tech.hellsoft.trading:type=Metricas,cuenta=<cuenta>}. Si ya existe un
+   * registro con ese nombre se reemplaza.
+   */
+  public void exportarJmx(String cuenta) {
+    try {
+      MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+      ObjectName nombre = new ObjectName("tech.hellsoft.trading:type=Metricas,cuenta=" + ObjectName.quote(cuenta));
+      if (servidor.isRegistered(nombre)) {
+        servidor.unregisterMBean(nombre);
+      }
+      servidor.registerMBean(new MetricasJmx(this), nombre);
+    } catch (JMException e) {
+      System.out.println("⚠️ No se pudieron exportar métricas por JMX: " + e.getMessage());
+    }
+  }
+}
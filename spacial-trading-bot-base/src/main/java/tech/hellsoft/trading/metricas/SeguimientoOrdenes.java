@@ -0,0 +1,253 @@
+package tech.hellsoft.trading.metricas;
+
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sigue cada orden por su clOrdID con marcas de {@link System#nanoTime()} en la
+ * decisión, el envío, el ack y cada fill, y vuelca las diferencias en
+ * histogramas por producto y lado dentro de {@link RegistroMetricas}.
+ *
+ * <p>También mide el tick-to-trade (último ticker del producto hasta el envío)
+ * y la antigüedad de cada ticker (serverTime contra el reloj local).
+ *
+ * <p>Las trazas abiertas tienen tope: al pasarlo se descartan las más viejas
+ * en orden de envío. Cada envío encola su traza una vez y cada entrada se
+ * desencola a lo sumo una vez, así que el recorte es O(1) amortizado.
+ */
+public final class SeguimientoOrdenes {
+
+  /** Ticker con más de este atraso se cuenta como viejo. */
+  public static final long UMBRAL_TICKER_VIEJO_MS = 1_000;
+
+  private final RegistroMetricas metricas;
+  private final ConcurrentMap<String, Traza> trazas = new ConcurrentHashMap<>();
+  // Orden de envío; puede tener trazas ya cerradas, que se saltan al desencolar.
+  private final Queue<Traza> porAntiguedad = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger enCola = new AtomicInteger();
+  private final AtomicLongArray ultimoTicker = new AtomicLongArray(Product.values().length);
+  private final AtomicReferenceArray<Latencias> porProductoLado =
+      new AtomicReferenceArray<>(Product.values().length * 2);
+  private final HistogramaLatencia antiguedadTicker;
+  private final LongAdder tickersViejos;
+  private final LongAdder fillsHuerfanos;
+  private final LongAdder trazasDescartadas;
+  private volatile int limiteTrazas = 10_000;
+
+  public SeguimientoOrdenes(RegistroMetricas metricas) {
+    this.metricas = metricas;
+    this.antiguedadTicker = metricas.histograma("ticker.antiguedad");
+    this.tickersViejos = metricas.contador("ticker.viejos");
+    this.fillsHuerfanos = metricas.contador("fills.sinOrden");
+    this.trazasDescartadas = metricas.contador("ordenes.trazasDescartadas");
+  }
+
+  // ---------------------- marcas ----------------------
+
+  /** Marca la llegada de un ticker y mide su atraso respecto al servidor. */
+  public void registrarTicker(Product producto, String serverTime) {
+    long recibido = System.nanoTime();
+    if (producto != null) {
+      ultimoTicker.set(producto.ordinal(), recibido);
+    }
+    long atrasoMs = atrasoMillis(serverTime);
+    if (atrasoMs < 0) return;
+    antiguedadTicker.registrar(TimeUnit.MILLISECONDS.toNanos(atrasoMs));
+    if (atrasoMs > UMBRAL_TICKER_VIEJO_MS) {
+      tickersViejos.increment();
+    }
+  }
+
+  /** Devuelve la marca de decisión; se pasa luego a {@link #registrarEnvio}. */
+  public long decision() {
+    return System.nanoTime();
+  }
+
+  public void registrarEnvio(String clOrdId, Product producto, OrderSide lado, int cantidad, long decision) {
+    if (clOrdId == null || producto == null || lado == null) return;
+    long envio = System.nanoTime();
+    Latencias latencias = latencias(producto, lado);
+    latencias.decisionEnvio.registrar(envio - decision);
+
+    long tick = ultimoTicker.get(producto.ordinal());
+    if (tick != 0) {
+      latencias.tickToTrade.registrar(envio - tick);
+    }
+
+    Traza traza = new Traza(clOrdId, latencias, cantidad, decision, envio);
+    trazas.put(clOrdId, traza);
+    porAntiguedad.add(traza);
+    enCola.incrementAndGet();
+    recortar();
+  }
+
+  /** El envío falló: la orden nunca salió, así que su traza no queda abierta. */
+  public void descartarEnvio(String clOrdId) {
+    if (clOrdId == null) return;
+    // La entrada en porAntiguedad se salta al desencolar, como la de cualquier traza cerrada.
+    trazas.remove(clOrdId);
+  }
+
+  /** Un ack rechazado cierra la traza; uno aceptado solo registra la latencia. */
+  public void registrarAck(String clOrdId, boolean rechazada) {
+    if (clOrdId == null) return;
+    Traza traza = trazas.get(clOrdId);
+    if (traza == null) return;
+    long ahora = System.nanoTime();
+    synchronized (traza) {
+      if (traza.ack == 0) {
+        traza.ack = ahora;
+        traza.latencias.envioAck.registrar(ahora - traza.envio);
+      }
+    }
+    if (rechazada) {
+      trazas.remove(clOrdId, traza);
+    }
+  }
+
+  /** Registra un fill; cuando la cantidad queda cubierta la traza se descarta. */
+  public void registrarFill(String clOrdId, int cantidad) {
+    if (clOrdId == null) return;
+    Traza traza = trazas.get(clOrdId);
+    if (traza == null) {
+      fillsHuerfanos.increment();
+      return;
+    }
+    long ahora = System.nanoTime();
+    boolean completa;
+    synchronized (traza) {
+      if (traza.ejecutada == 0) {
+        traza.latencias.envioPrimerFill.registrar(ahora - traza.envio);
+      }
+      traza.ejecutada += Math.max(0, cantidad);
+      completa = traza.ejecutada >= traza.cantidad;
+      if (completa) {
+        traza.latencias.decisionFillCompleto.registrar(ahora - traza.decision);
+      }
+    }
+    if (completa) {
+      trazas.remove(clOrdId, traza);
+    }
+  }
+
+  /**
+   * Máximo de órdenes en seguimiento; al pasarlo se descartan las más viejas.
+   * Si se recarga un límite menor, el recorte ocurre en el momento.
+   */
+  public void limiteTrazas(int limite) {
+    this.limiteTrazas = Math.max(1, limite);
+    recortar();
+  }
+
+  public int ordenesAbiertas() {
+    return trazas.size();
+  }
+
+  // ---------------------- reporte ----------------------
+
+  public void imprimir(PrintStream salida) {
+    salida.println("\n=== LATENCIAS DE ÓRDENES ===");
+    salida.println("Órdenes en seguimiento: " + trazas.size());
+    boolean alguna = false;
+    for (int i = 0; i < porProductoLado.length(); i++) {
+      Latencias l = porProductoLado.get(i);
+      if (l == null) continue;
+      alguna = true;
+      salida.println(l.etiqueta);
+      salida.println("  decisión→envío : " + l.decisionEnvio.resumenMicros());
+      salida.println("  tick→envío     : " + l.tickToTrade.resumenMicros());
+      salida.println("  envío→ack      : " + l.envioAck.resumenMicros());
+      salida.println("  envío→1er fill : " + l.envioPrimerFill.resumenMicros());
+      salida.println("  decisión→fill  : " + l.decisionFillCompleto.resumenMicros());
+    }
+    if (!alguna) {
+      salida.println("(sin órdenes enviadas)");
+    }
+    salida.println("Antigüedad ticker: " + antiguedadTicker.resumenMicros()
+        + " | viejos (>" + UMBRAL_TICKER_VIEJO_MS + "ms): " + tickersViejos.sum());
+  }
+
+  // ---------------------- util privados ----------------------
+
+  private Latencias latencias(Product producto, OrderSide lado) {
+    int indice = producto.ordinal() * 2 + (lado == OrderSide.BUY ? 0 : 1);
+    Latencias actual = porProductoLado.get(indice);
+    if (actual != null) return actual;
+    Latencias nueva = new Latencias(metricas, producto.getValue() + "." + lado.name());
+    return porProductoLado.compareAndSet(indice, null, nueva) ? nueva : porProductoLado.get(indice);
+  }
+
+  // La cola también se acota (2x el límite) para que las trazas cerradas no la hagan crecer.
+  private void recortar() {
+    int limite = limiteTrazas;
+    while (trazas.size() > limite || enCola.get() > 2 * limite) {
+      Traza vieja = porAntiguedad.poll();
+      if (vieja == null) return;
+      enCola.decrementAndGet();
+      if (trazas.remove(vieja.clOrdId, vieja)) {
+        trazasDescartadas.increment();
+      }
+    }
+  }
+
+  // Devuelve -1 si no hay serverTime o no es ISO-8601. Un reloj local atrasado se toma como 0.
+  private static long atrasoMillis(String serverTime) {
+    if (serverTime == null || serverTime.isBlank()) return -1;
+    try {
+      long servidor = Instant.parse(serverTime).toEpochMilli();
+      return Math.max(0, System.currentTimeMillis() - servidor);
+    } catch (DateTimeParseException e) {
+      return -1;
+    }
+  }
+
+  private static final class Traza {
+    private final String clOrdId;
+    private final Latencias latencias;
+    private final int cantidad;
+    private final long decision;
+    private final long envio;
+    private long ack;
+    private int ejecutada;
+
+    private Traza(String clOrdId, Latencias latencias, int cantidad, long decision, long envio) {
+      this.clOrdId = clOrdId;
+      this.latencias = latencias;
+      this.cantidad = cantidad;
+      this.decision = decision;
+      this.envio = envio;
+    }
+  }
+
+  private static final class Latencias {
+    private final String etiqueta;
+    private final HistogramaLatencia decisionEnvio;
+    private final HistogramaLatencia tickToTrade;
+    private final HistogramaLatencia envioAck;
+    private final HistogramaLatencia envioPrimerFill;
+    private final HistogramaLatencia decisionFillCompleto;
+
+    private Latencias(RegistroMetricas metricas, String etiqueta) {
+      String base = "orden." + etiqueta + ".";
+      this.etiqueta = etiqueta;
+      this.decisionEnvio = metricas.histograma(base + "decisionEnvio");
+      this.tickToTrade = metricas.histograma(base + "tickToTrade");
+      this.envioAck = metricas.histograma(base + "envioAck");
+      this.envioPrimerFill = metricas.histograma(base + "envioPrimerFill");
+      this.decisionFillCompleto = metricas.histograma(base + "decisionFillCompleto");
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package tech.hellsoft.trading.metricas;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Serie temporal de los reportes de rendimiento global del mercado, junto con
+ * el volumen propio acumulado en cada reporte.
+ *
+ * <p>Se guardan valores acumulados, así que bajar la resolución consiste en
+ * descartar puntos intermedios sin perder el total de ningún rango. Cuando la
+ * serie se llena, la mitad más vieja se queda con uno de cada dos puntos: la
+ * memoria es fija y los datos recientes conservan la resolución completa.
+ * Si el servidor reinicia sus totales, el salto se absorbe en un desplazamiento
+ * para que la serie siga siendo creciente.
+ */
+public final class SerieRendimientoGlobal {
+
+  public static final int CAPACIDAD_POR_DEFECTO = 512;
+
+  private final long[] tiempos;
+  private final long[] trades;
+  private final double[] volumen;
+  private final double[] volumenPropio;
+  private int tamano;
+
+  private long ultimoTradesReportado;
+  private double ultimoVolumenReportado;
+  private long desplazamientoTrades;
+  private double desplazamientoVolumen;
+  private double volumenPropioAcumulado;
+  private long reportes;
+  private long compactaciones;
+
+  public SerieRendimientoGlobal() {
+    this(CAPACIDAD_POR_DEFECTO);
+  }
+
+  public SerieRendimientoGlobal(int capacidad) {
+    if (capacidad < 4) {
+      throw new IllegalArgumentException("La capacidad debe ser al menos 4");
+    }
+    tiempos = new long[capacidad];
+    trades = new long[capacidad];
+    volumen = new double[capacidad];
+    volumenPropio = new double[capacidad];
+  }
+
+  /** Un punto de la serie; todos los valores son acumulados desde el inicio. */
+  public record Punto(long tiempoMs, long trades, double volumen, double volumenPropio) {
+  }
+
+  // Lo llama onFill con el monto de cada ejecución propia.
+  public synchronized void registrarVolumenPropio(double monto) {
+    if (monto > 0 && Double.isFinite(monto)) {
+      volumenPropioAcumulado += monto;
+    }
+  }
+
+  public synchronized void registrar(long tiempoMs, long tradesTotales, double volumenTotal) {
+    if (tradesTotales < ultimoTradesReportado) {
+      desplazamientoTrades += ultimoTradesReportado;
+    }
+    if (volumenTotal < ultimoVolumenReportado) {
+      desplazamientoVolumen += ultimoVolumenReportado;
+    }
+    ultimoTradesReportado = tradesTotales;
+    ultimoVolumenReportado = volumenTotal;
+    reportes++;
+
+    if (tamano == tiempos.length) {
+      compactar();
+    }
+    long tiempo = tamano > 0 ? Math.max(tiempoMs, tiempos[tamano - 1]) : tiempoMs;
+    tiempos[tamano] = tiempo;
+    trades[tamano] = desplazamientoTrades + tradesTotales;
+    volumen[tamano] = desplazamientoVolumen + volumenTotal;
+    volumenPropio[tamano] = volumenPropioAcumulado;
+    tamano++;
+  }
+
+  /** Tiempo del reporte en milisegundos; si el texto no es ISO-8601 usa el reloj local. */
+  public static long tiempoDe(String serverTime) {
+    if (serverTime == null || serverTime.isBlank()) {
+      return System.currentTimeMillis();
+    }
+    try {
+      return Instant.parse(serverTime).toEpochMilli();
+    } catch (RuntimeException e) {
+      return System.currentTimeMillis();
+    }
+  }
+
+  // ---------------------- consultas ----------------------
+
+  public synchronized int puntos() {
+    return tamano;
+  }
+
+  public synchronized long reportes() {
+    return reportes;
+  }
+
+  public synchronized long compactaciones() {
+    return compactaciones;
+  }
+
+  public synchronized Punto ultimo() {
+    return tamano == 0 ? null : punto(tamano - 1);
+  }
+
+  /** Volumen del mercado en la ventana que termina en el último reporte. */
+  public synchronized double volumenEn(long ventanaMs) {
+    if (tamano < 2) {
+      return 0.0;
+    }
+    return volumen[tamano - 1] - volumen[indiceAntesDe(tiempos[tamano - 1] - ventanaMs)];
+  }
+
+  /** Fracción del volumen del mercado que hicimos nosotros en la ventana; NaN sin datos. */
+  public synchronized double participacion(long ventanaMs) {
+    if (tamano < 2) {
+      return Double.NaN;
+    }
+    int desde = indiceAntesDe(tiempos[tamano - 1] - ventanaMs);
+    double mercado = volumen[tamano - 1] - volumen[desde];
+    if (mercado <= 0) {
+      return Double.NaN;
+    }
+    return (volumenPropio[tamano - 1] - volumenPropio[desde]) / mercado;
+  }
+
+  /** Volumen por segundo del mercado en la ventana; NaN sin datos. */
+  public synchronized double tasaVolumen(long ventanaMs) {
+    if (tamano < 2) {
+      return Double.NaN;
+    }
+    long fin = tiempos[tamano - 1];
+    return tasaEntre(indiceAntesDe(fin - ventanaMs), tamano - 1);
+  }
+
+  /**
+   * Cambio relativo de la tasa de volumen entre la ventana actual y la anterior
+   * del mismo largo (0.25 = un 25 % más de actividad); NaN sin datos.
+   */
+  public synchronized double tendencia(long ventanaMs) {
+    if (tamano < 3) {
+      return Double.NaN;
+    }
+    long fin = tiempos[tamano - 1];
+    int medio = indiceAntesDe(fin - ventanaMs);
+    int inicio = indiceAntesDe(fin - 2 * ventanaMs);
+    if (medio == inicio || medio == tamano - 1) {
+      return Double.NaN;
+    }
+    double anterior = tasaEntre(inicio, medio);
+    double actual = tasaEntre(medio, tamano - 1);
+    if (!(anterior > 0)) {
+      return Double.NaN;
+    }
+    return (actual - anterior) / anterior;
+  }
+
+  /**
+   * Posición del último intervalo entre todos los guardados según su tasa de
+   * volumen: 1.0 es el más activo de la sesión, 0.0 el más tranquilo.
+   */
+  public synchronized double percentilActividad() {
+    if (tamano < 3) {
+      return Double.NaN;
+    }
+    double ultima = tasaEntre(tamano - 2, tamano - 1);
+    int menores = 0;
+    int intervalos = 0;
+    for (int i = 1; i < tamano; i++) {
+      double tasa = tasaEntre(i - 1, i);
+      if (Double.isNaN(tasa)) {
+        continue;
+      }
+      intervalos++;
+      if (tasa <= ultima) {
+        menores++;
+      }
+    }
+    return intervalos <= 1 ? Double.NaN : (menores - 1) / (double) (intervalos - 1);
+  }
+
+  public synchronized void exportarCsv(Writer destino) throws IOException {
+    destino.write("tiempo,trades,volumen,volumenPropio\n");
+    for (int i = 0; i < tamano; i++) {
+      destino.write(String.format(Locale.ROOT, "%s,%d,%.4f,%.4f%n", Instant.ofEpochMilli(tiempos[i]), trades[i],
+          volumen[i], volumenPropio[i]));
+    }
+    destino.flush();
+  }
+
+  // ---------------------- internos ----------------------
+
+  // Último índice con tiempo <= limite; 0 si todos son posteriores.
+  private int indiceAntesDe(long limite) {
+    int bajo = 0;
+    int alto = tamano - 1;
+    int encontrado = 0;
+    while (bajo <= alto) {
+      int medio = (bajo + alto) >>> 1;
+      if (tiempos[medio] <= limite) {
+        encontrado = medio;
+        bajo = medio + 1;
+      } else {
+        alto = medio - 1;
+      }
+    }
+    return encontrado;
+  }
+
+  private double tasaEntre(int desde, int hasta) {
+    long ms = tiempos[hasta] - tiempos[desde];
+    if (ms <= 0) {
+      return Double.NaN;
+    }
+    return (volumen[hasta] - volumen[desde]) * 1000.0 / ms;
+  }
+
+  private Punto punto(int i) {
+    return new Punto(tiempos[i], trades[i], volumen[i], volumenPropio[i]);
+  }
+
+  // Diezma la mitad vieja quedándose con el segundo punto de cada par (el
+  // acumulado más reciente); el primer punto se conserva como base de la sesión.
+  private void compactar() {
+    int mitad = tamano / 2;
+    int escritos = 1;
+    for (int i = 2; i < mitad; i += 2) {
+      mover(i, escritos++);
+    }
+    for (int i = mitad; i < tamano; i++) {
+      mover(i, escritos++);
+    }
+    tamano = escritos;
+    compactaciones++;
+  }
+
+  private void mover(int desde, int hacia) {
+    tiempos[hacia] = tiempos[desde];
+    trades[hacia] = trades[desde];
+    volumen[hacia] = volumen[desde];
+    volumenPropio[hacia] = volumenPropio[desde];
+  }
+}
@@ -16,19 +16,27 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * Carga las recetas locales descritas en la guía oficial. Sirve como respaldo
- * cuando el servidor no entrega las recetas al iniciar sesión.
+ * Recetas locales descritas en la guía oficial. Sirve como respaldo cuando el
+ * servidor no entrega las recetas al iniciar sesión. El catálogo es inmutable
+ * y se comparte entre todas las cuentas del proceso; las consultas devuelven
+ * los mapas del catálogo sin copiarlos.
+ *
+ * <p>Por defecto se usa {@link CatalogoGenerado}, que la tarea
+ * {@code generarCatalogo} compila desde {@code recetas/especies.json}. Con
+ * {@code -Drecetas.archivo=<ruta>} se lee un JSON en su lugar, útil para
+ * probar recetas sin recompilar.
  */
 public final class RecetaRepository {
 
-  private static final String DEFAULT_PATH = "src/main/resources/recetas/especies.json";
-  private static final Gson GSON = new Gson();
+  static final String PROPIEDAD_ARCHIVO = "recetas.archivo";
   private static final RecetaRepository INSTANCE = cargarDefault();
 
   private final Map<String, Map<Product, Recipe>> catalogoPorEspecie;
 
   private RecetaRepository(Map<String, Map<Product, Recipe>> catalogo) {
-    this.catalogoPorEspecie = catalogo;
+    Map<String, Map<Product, Recipe>> congelado = new HashMap<>();
+    catalogo.forEach((especie, recetas) -> congelado.put(especie, Collections.unmodifiableMap(recetas)));
+    this.catalogoPorEspecie = Map.copyOf(congelado);
   }
 
   public static RecetaRepository instancia() {
@@ -44,7 +52,7 @@ public final class RecetaRepository {
     if (recetas == null) {
       return Collections.emptyMap();
     }
-    return new HashMap<>(recetas);
+    return recetas;
   }
 
   public Map<Product, Recipe> recetasParaEspecie(String especie) {
@@ -74,8 +82,12 @@ public final class RecetaRepository {
   }
 
   private static RecetaRepository cargarDefault() {
+    String archivo = System.getProperty(PROPIEDAD_ARCHIVO);
+    if (archivo == null || archivo.isBlank()) {
+      return new RecetaRepository(CatalogoGenerado.recetas());
+    }
     try {
-      return cargar(Paths.get(DEFAULT_PATH));
+      return cargar(Paths.get(archivo));
     } catch (IOException e) {
       throw new UncheckedIOException("No se pudo cargar recetas locales: " + e.getMessage(), e);
     }
@@ -88,7 +100,7 @@ public final class RecetaRepository {
     String json = Files.readString(ruta);
     Type tipo = new TypeToken<Map<String, Map<String, RecetaJson>>>() {
     }.getType();
-    Map<String, Map<String, RecetaJson>> bruto = GSON.fromJson(json, tipo);
+    Map<String, Map<String, RecetaJson>> bruto = new Gson().fromJson(json, tipo);
     if (bruto == null) {
       return new RecetaRepository(Collections.emptyMap());
     }
@@ -160,11 +172,11 @@ public final class RecetaRepository {
     return nombre.trim().toUpperCase().replace('-', '_').replace(' ', '_');
   }
 
-  private static String normalizarClave(String especie) {
+  static String normalizarClave(String especie) {
     return especie == null ? "" : especie.trim().toUpperCase().replace("-", "").replace("_", "").replace(" ", "");
   }
 
-  private static String normalizarEntrada(String especie, String equipo) {
+  static String normalizarEntrada(String especie, String equipo) {
     String deducida = deducirEspecie(especie, equipo);
     if (deducida == null || deducida.isBlank()) {
       return "";
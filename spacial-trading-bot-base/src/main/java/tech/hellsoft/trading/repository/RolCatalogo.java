@@ -0,0 +1,8 @@
+package tech.hellsoft.trading.repository;
+
+/**
+ * Parámetros de un rol tal como vienen en {@code roles.json}; los genera
+ * {@link CatalogoGenerado} en tiempo de compilación.
+ */
+public record RolCatalogo(int maxDepth, double baseEnergy, double levelEnergy, double decay, double branches) {
+}
@@ -0,0 +1,119 @@
+package tech.hellsoft.trading.repository;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import tech.hellsoft.trading.CalculadoraProduccion;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.enums.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Roles por especie de {@code roles.json} con sus rendimientos ya calculados:
+ * unidades de un lote básico y, por cada receta local de la especie, de un
+ * lote premium. Sirve de respaldo cuando el servidor no envía el rol y de
+ * consulta rápida para herramientas de planificación: ninguna consulta
+ * recorre los niveles del rol.
+ *
+ * <p>Igual que {@link RecetaRepository}, por defecto se usa
+ * {@link CatalogoGenerado}; con {@code -Droles.archivo=<ruta>} se lee un JSON
+ * con el formato de {@code roles.json}.
+ */
+public final class RolRepository {
+
+  static final String PROPIEDAD_ARCHIVO = "roles.archivo";
+  private static final RolRepository INSTANCE = cargarDefault();
+
+  /** Rendimientos precalculados de una especie; el mapa premium no se puede modificar. */
+  public record Rendimiento(String especie, RolCatalogo rol, int unidadesBasicas,
+      Map<Product, Integer> unidadesPremium) {
+
+    /** Unidades de un lote premium de {@code producto}; sin receta local es un lote básico. */
+    public int unidadesPremium(Product producto) {
+      Integer unidades = unidadesPremium.get(producto);
+      return unidades == null ? unidadesBasicas : unidades;
+    }
+  }
+
+  private final Map<String, Rendimiento> porEspecie;
+
+  private RolRepository(Map<String, RolCatalogo> roles, RecetaRepository recetas) {
+    Map<String, Rendimiento> rendimientos = new HashMap<>();
+    roles.forEach((especie, rol) -> {
+      if (especie != null && rol != null) {
+        rendimientos.put(especie, precalcular(especie, rol, recetas));
+      }
+    });
+    this.porEspecie = Map.copyOf(rendimientos);
+  }
+
+  public static RolRepository instancia() {
+    return INSTANCE;
+  }
+
+  /** Rendimiento de la especie (o la deducida del equipo), o null si el catálogo no la tiene. */
+  public Rendimiento rendimientoPara(String especie, String equipo) {
+    String clave = RecetaRepository.normalizarEntrada(especie, equipo);
+    if (clave.isBlank()) {
+      return null;
+    }
+    return porEspecie.get(clave);
+  }
+
+  public Rendimiento rendimientoParaEspecie(String especie) {
+    return rendimientoPara(especie, null);
+  }
+
+  /** Todas las especies del catálogo, ordenadas por nombre. */
+  public List<Rendimiento> rendimientos() {
+    return porEspecie.values().stream().sorted(Comparator.comparing(Rendimiento::especie)).toList();
+  }
+
+  private static Rendimiento precalcular(String especie, RolCatalogo rol, RecetaRepository recetas) {
+    int basicas = CalculadoraProduccion.calcularUnidades(rol.maxDepth(), rol.baseEnergy(), rol.levelEnergy(),
+        rol.decay(), rol.branches());
+    Map<Product, Integer> premium = new EnumMap<>(Product.class);
+    for (Map.Entry<Product, Recipe> entry : recetas.recetasParaEspecie(especie).entrySet()) {
+      premium.put(entry.getKey(), CalculadoraProduccion.aplicarBonusPremium(basicas, entry.getValue()));
+    }
+    return new Rendimiento(especie, rol, basicas, Collections.unmodifiableMap(premium));
+  }
+
+  private static RolRepository cargarDefault() {
+    String archivo = System.getProperty(PROPIEDAD_ARCHIVO);
+    if (archivo == null || archivo.isBlank()) {
+      return new RolRepository(CatalogoGenerado.roles(), RecetaRepository.instancia());
+    }
+    try {
+      return new RolRepository(cargar(Paths.get(archivo)), RecetaRepository.instancia());
+    } catch (IOException e) {
+      throw new UncheckedIOException("No se pudo cargar roles locales: " + e.getMessage(), e);
+    }
+  }
+
+  private static Map<String, RolCatalogo> cargar(Path ruta) throws IOException {
+    if (!Files.exists(ruta)) {
+      return Collections.emptyMap();
+    }
+    Type tipo = new TypeToken<Map<String, RolCatalogo>>() {
+    }.getType();
+    Map<String, RolCatalogo> bruto = new Gson().fromJson(Files.readString(ruta), tipo);
+    if (bruto == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, RolCatalogo> roles = new HashMap<>();
+    bruto.forEach((especie, rol) -> roles.put(RecetaRepository.normalizarClave(especie), rol));
+    return roles;
+  }
+}
@@ -0,0 +1,461 @@
+package tech.hellsoft.trading.simulador;
+
+import com.google.gson.JsonObject;
+import tech.hellsoft.trading.CalculadoraProduccion;
+import tech.hellsoft.trading.ConectorBolsa;
+import tech.hellsoft.trading.EventListener;
+import tech.hellsoft.trading.cliente.TipoDelta;
+import tech.hellsoft.trading.dto.client.AcceptOfferMessage;
+import tech.hellsoft.trading.dto.client.OrderMessage;
+import tech.hellsoft.trading.dto.client.ProductionUpdateMessage;
+import tech.hellsoft.trading.dto.server.BalanceUpdateMessage;
+import tech.hellsoft.trading.dto.server.ErrorMessage;
+import tech.hellsoft.trading.dto.server.EventDeltaMessage;
+import tech.hellsoft.trading.dto.server.FillMessage;
+import tech.hellsoft.trading.dto.server.GlobalPerformanceReportMessage;
+import tech.hellsoft.trading.dto.server.LoginOKMessage;
+import tech.hellsoft.trading.dto.server.OfferMessage;
+import tech.hellsoft.trading.dto.server.OrderAckMessage;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.dto.server.TickerMessage;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.OrderMode;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.OrderStatus;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.repository.RecetaRepository;
+import tech.hellsoft.trading.simulador.LibroOrdenes.Ejecucion;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Sustituto en memoria de {@link ConectorBolsa}: mantiene un libro por producto
+ * con prioridad precio-tiempo, market makers que recotizan alrededor de un
+ * precio de referencia y una cuenta para el bot.
+ *
+ * Todo el estado vive en un único hilo ("bolsa-simulada"), que también entrega
+ * los callbacks, igual que el hilo del websocket en el conector real. Se activa
+ * con un host {@code sim://...} en {@code config.json}.
+ *
+ * <p>Los cambios de inventario que no llegan por un fill (producción, ofertas)
+ * se publican como deltas {@link TipoDelta#INVENTORY} con versión creciente;
+ * {@link #omitirProximoDelta()} simula uno perdido en la red.
+ */
+public class BolsaSimulada extends ConectorBolsa {
+
+  public static final String PREFIJO_HOST = "sim://";
+
+  private static final String CLIENTE = "CLIENTE";
+  private static final String MARKET_MAKER = "MM";
+  // Un reporte de rendimiento global cada tantos ciclos de mercado (5 s con los parámetros por defecto).
+  private static final int REPORTE_CADA_CICLOS = 20;
+
+  private final ParametrosSimulacion parametros;
+  private final String especie;
+  private final String equipo;
+  private final Random azar;
+  // Separado de 'azar' para no alterar la secuencia de precios de una semilla.
+  private final Random azarMercado;
+  private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService hilo;
+
+  private final Map<Product, LibroOrdenes> libros = new EnumMap<>(Product.class);
+  private final Map<Product, Double> referencia = new EnumMap<>(Product.class);
+  private final Map<Product, Integer> inventario = new EnumMap<>(Product.class);
+  private final Map<String, OfferMessage> ofertas = new HashMap<>();
+  private final Map<Product, Recipe> recetas;
+  private double saldo;
+  private long secuencia;
+  private long consecutivoOferta;
+  private boolean iniciada;
+  private long ciclos;
+  private long versionDelta;
+  private volatile boolean omitirDelta;
+  private long tradesMercado;
+  private double volumenMercado;
+
+  public BolsaSimulada(String especie, String equipo, ParametrosSimulacion parametros) {
+    this.parametros = parametros;
+    this.especie = especie;
+    this.equipo = equipo;
+    this.azar = new Random(parametros.semilla());
+    this.azarMercado = new Random(parametros.semilla() + 1);
+    this.saldo = parametros.saldoInicial();
+    this.recetas = new EnumMap<>(Product.class);
+    this.recetas.putAll(RecetaRepository.instancia().recetasPara(especie, equipo));
+    this.hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "bolsa-simulada");
+      t.setDaemon(true);
+      return t;
+    });
+    for (Product producto : Product.values()) {
+      libros.put(producto, new LibroOrdenes());
+      referencia.put(producto, 10.0 + azar.nextInt(90));
+    }
+  }
+
+  public static boolean esHostSimulado(String host) {
+    return host != null && host.startsWith(PREFIJO_HOST);
+  }
+
+  @Override
+  public void addListener(EventListener listener) {
+    if (listener != null && !listeners.contains(listener)) {
+      listeners.add(listener);
+    }
+  }
+
+  @Override
+  public void conectar(String host, String apiKey) {
+    hilo.execute(() -> {
+      if (!iniciada) {
+        iniciada = true;
+        recotizarTodo();
+        hilo.scheduleAtFixedRate(this::cicloMercado, parametros.intervaloTickerMs(), parametros.intervaloTickerMs(),
+            TimeUnit.MILLISECONDS);
+        hilo.scheduleAtFixedRate(this::emitirOferta, parametros.intervaloOfertaMs(), parametros.intervaloOfertaMs(),
+            TimeUnit.MILLISECONDS);
+      }
+      emitirLogin();
+    });
+  }
+
+  @Override
+  public void enviarLogin(String apiKey) {
+    hilo.execute(this::emitirLogin);
+  }
+
+  @Override
+  public void enviarOrden(OrderMessage orden) {
+    if (orden == null) {
+      return;
+    }
+    hilo.execute(() -> procesarOrden(orden));
+  }
+
+  @Override
+  public void enviarActualizacionProduccion(ProductionUpdateMessage produccion) {
+    if (produccion == null || produccion.getProduct() == null || produccion.getQuantity() == null) {
+      return;
+    }
+    hilo.execute(() -> registrarProduccion(produccion.getProduct(), produccion.getQuantity()));
+  }
+
+  @Override
+  public void enviarRespuestaOferta(AcceptOfferMessage respuesta) {
+    if (respuesta == null || respuesta.getOfferId() == null) {
+      return;
+    }
+    hilo.execute(() -> responderOferta(respuesta));
+  }
+
+  /**
+   * Detiene el hilo de la simulación. Los mensajes enviados después se
+   * descartan.
+   */
+  public void detener() {
+    hilo.shutdownNow();
+  }
+
+  /** El próximo delta consume su versión pero no se entrega, como si se perdiera en la red. */
+  public void omitirProximoDelta() {
+    omitirDelta = true;
+  }
+
+  // ---------------------- lógica del servidor (hilo único) ----------------------
+
+  private void emitirLogin() {
+    LoginOKMessage login = LoginOKMessage.builder()
+        .type(MessageType.LOGIN_OK)
+        .team(equipo)
+        .species(especie)
+        .currentBalance(saldo)
+        .inventory(new EnumMap<>(inventario))
+        .recipes(new EnumMap<>(recetas))
+        .authorizedProducts(new ArrayList<>(recetas.keySet()))
+        .role(parametros.rol())
+        .build();
+    emitir(l -> l.onLoginOk(login));
+  }
+
+  private void procesarOrden(OrderMessage orden) {
+    String rechazo = validar(orden);
+    if (rechazo != null) {
+      ErrorMessage error = ErrorMessage.builder()
+          .type(MessageType.ERROR)
+          .code("INVALID_ORDER")
+          .reason(rechazo)
+          .clOrdID(orden.getClOrdID())
+          .build();
+      emitir(l -> l.onError(error));
+      return;
+    }
+    OrderAckMessage ack = OrderAckMessage.builder()
+        .type(MessageType.ORDER_ACK)
+        .clOrdID(orden.getClOrdID())
+        .status(OrderStatus.ACCEPTED)
+        .serverTime(Instant.now().toString())
+        .build();
+    emitir(l -> l.onOrderAck(ack));
+
+    double precio = orden.getMode() == OrderMode.LIMIT ? orden.getLimitPrice() : Double.NaN;
+    OrdenSimulada entrante = new OrdenSimulada(secuencia++, CLIENTE, orden.getClOrdID(), orden.getSide(), precio,
+        orden.getQty());
+    List<Ejecucion> ejecuciones = libros.get(orden.getProduct()).procesar(entrante);
+    liquidar(orden.getProduct(), ejecuciones);
+  }
+
+  private String validar(OrderMessage orden) {
+    if (orden.getProduct() == null || orden.getSide() == null || orden.getQty() == null || orden.getQty() <= 0) {
+      return "Orden incompleta";
+    }
+    if (orden.getMode() == OrderMode.LIMIT && (orden.getLimitPrice() == null || orden.getLimitPrice() <= 0)) {
+      return "Orden LIMIT sin precio";
+    }
+    if (orden.getSide() == OrderSide.SELL && inventario.getOrDefault(orden.getProduct(), 0) < orden.getQty()) {
+      return "Inventario insuficiente de " + orden.getProduct().getValue();
+    }
+    if (orden.getSide() == OrderSide.BUY && saldo <= 0) {
+      return "Saldo insuficiente";
+    }
+    return null;
+  }
+
+  private void liquidar(Product producto, List<Ejecucion> ejecuciones) {
+    if (ejecuciones.isEmpty()) {
+      return;
+    }
+    for (Ejecucion ejecucion : ejecuciones) {
+      liquidarLado(producto, ejecucion.agresora(), ejecucion);
+      liquidarLado(producto, ejecucion.pasiva(), ejecucion);
+    }
+    emitirTicker(producto);
+  }
+
+  private void liquidarLado(Product producto, OrdenSimulada orden, Ejecucion ejecucion) {
+    if (!CLIENTE.equals(orden.dueno())) {
+      return;
+    }
+    int cantidad = ejecucion.cantidad();
+    double total = cantidad * ejecucion.precio();
+    tradesMercado++;
+    volumenMercado += total;
+    if (orden.lado() == OrderSide.BUY) {
+      saldo -= total;
+      inventario.merge(producto, cantidad, Integer::sum);
+    } else {
+      saldo += total;
+      inventario.merge(producto, -cantidad, Integer::sum);
+    }
+    FillMessage fill = FillMessage.builder()
+        .type(MessageType.FILL)
+        .clOrdID(orden.clOrdId())
+        .fillQty(cantidad)
+        .fillPrice(ejecucion.precio())
+        .side(orden.lado())
+        .product(producto)
+        .counterparty(MARKET_MAKER)
+        .serverTime(Instant.now().toString())
+        .build();
+    emitir(l -> l.onFill(fill));
+  }
+
+  private void registrarProduccion(Product producto, int unidades) {
+    int lotesPremium = lotesPremium(recetas.get(producto), unidades);
+    if (lotesPremium > 0) {
+      recetas.get(producto).getIngredients().forEach((ingrediente, requerido) -> inventario.merge(ingrediente,
+          -requerido * lotesPremium, Integer::sum));
+    }
+    inventario.merge(producto, unidades, Integer::sum);
+    emitirInventario();
+  }
+
+  /**
+   * El mensaje solo trae el total de K lotes, así que el modo se deduce de qué
+   * rendimiento por lote lo divide: múltiplo del premium y no del básico es
+   * premium (devuelve K); en cualquier otro caso es básico (0) y no consume
+   * ingredientes. Si divide a ambos se toma básico, igual que sin receta.
+   */
+  private int lotesPremium(Recipe receta, int unidades) {
+    if (receta == null || receta.getIngredients() == null || receta.getIngredients().isEmpty() || unidades <= 0) {
+      return 0;
+    }
+    int basicas = CalculadoraProduccion.calcularUnidades(parametros.rol());
+    int premium = CalculadoraProduccion.aplicarBonusPremium(basicas, receta);
+    if (premium <= 0 || premium == basicas || unidades % premium != 0) {
+      return 0;
+    }
+    if (basicas > 0 && unidades % basicas == 0) {
+      return 0;
+    }
+    return unidades / premium;
+  }
+
+  private void responderOferta(AcceptOfferMessage respuesta) {
+    OfferMessage oferta = ofertas.remove(respuesta.getOfferId());
+    if (oferta == null || !Boolean.TRUE.equals(respuesta.getAccept())) {
+      return;
+    }
+    int cantidad = respuesta.getQuantityOffered() == null ? 0 : respuesta.getQuantityOffered();
+    if (cantidad <= 0 || inventario.getOrDefault(oferta.getProduct(), 0) < cantidad) {
+      ErrorMessage error = ErrorMessage.builder()
+          .type(MessageType.ERROR)
+          .code("OFFER_REJECTED")
+          .reason("Inventario insuficiente para la oferta " + oferta.getOfferId())
+          .build();
+      emitir(l -> l.onError(error));
+      return;
+    }
+    double precio = Math.min(oferta.getMaxPrice(), valor(respuesta.getPriceOffered(), oferta.getMaxPrice()));
+    inventario.merge(oferta.getProduct(), -cantidad, Integer::sum);
+    emitirInventario();
+    saldo += cantidad * precio;
+    BalanceUpdateMessage balance = BalanceUpdateMessage.builder()
+        .type(MessageType.BALANCE_UPDATE)
+        .balance(saldo)
+        .build();
+    emitir(l -> l.onBalanceUpdate(balance));
+  }
+
+  private void cicloMercado() {
+    for (Product producto : Product.values()) {
+      double actual = referencia.get(producto);
+      double paso = parametros.volatilidad() * azar.nextGaussian();
+      referencia.put(producto, Math.max(0.5, actual * Math.exp(paso)));
+    }
+    recotizarTodo();
+    for (Product producto : Product.values()) {
+      emitirTicker(producto);
+    }
+    simularOtrosEquipos();
+    if (++ciclos % REPORTE_CADA_CICLOS == 0) {
+      emitirReporteGlobal();
+    }
+  }
+
+  // Actividad del resto del mercado, solo para que los reportes globales tengan volumen.
+  private void simularOtrosEquipos() {
+    Product[] productos = Product.values();
+    int operaciones = azarMercado.nextInt(6);
+    for (int i = 0; i < operaciones; i++) {
+      Product producto = productos[azarMercado.nextInt(productos.length)];
+      tradesMercado++;
+      volumenMercado += (1 + azarMercado.nextInt(20)) * referencia.get(producto);
+    }
+  }
+
+  private void emitirReporteGlobal() {
+    GlobalPerformanceReportMessage reporte = GlobalPerformanceReportMessage.builder()
+        .totalTrades((int) tradesMercado)
+        .totalVolume(redondear(volumenMercado))
+        .serverTime(Instant.now().toString())
+        .build();
+    emitir(l -> l.onGlobalPerformanceReport(reporte));
+  }
+
+  /**
+   * Los market makers retiran sus cotizaciones y publican una escalera nueva.
+   * Las órdenes límite del cliente que queden cruzadas se ejecutan aquí.
+   */
+  private void recotizarTodo() {
+    for (Product producto : Product.values()) {
+      LibroOrdenes libro = libros.get(producto);
+      libro.cancelarDe(MARKET_MAKER);
+      double ref = referencia.get(producto);
+      for (int nivel = 1; nivel <= parametros.nivelesProfundidad(); nivel++) {
+        double distancia = parametros.spread() * nivel;
+        cotizar(producto, libro, OrderSide.BUY, redondear(ref * (1 - distancia)));
+        cotizar(producto, libro, OrderSide.SELL, redondear(ref * (1 + distancia)));
+      }
+    }
+  }
+
+  private void cotizar(Product producto, LibroOrdenes libro, OrderSide lado, double precio) {
+    int cantidad = 5 + azar.nextInt(46);
+    OrdenSimulada orden = new OrdenSimulada(secuencia++, MARKET_MAKER, null, lado, precio, cantidad);
+    List<Ejecucion> ejecuciones = libro.procesar(orden);
+    for (Ejecucion ejecucion : ejecuciones) {
+      liquidarLado(producto, ejecucion.pasiva(), ejecucion);
+    }
+  }
+
+  private void emitirTicker(Product producto) {
+    LibroOrdenes libro = libros.get(producto);
+    double ref = referencia.get(producto);
+    double bid = libro.mejorCompra();
+    double ask = libro.mejorVenta();
+    double mid = Double.isNaN(bid) || Double.isNaN(ask) ? ref : redondear((bid + ask) / 2.0);
+    TickerMessage ticker = TickerMessage.builder()
+        .type(MessageType.TICKER)
+        .product(producto)
+        .bestBid(Double.isNaN(bid) ? null : bid)
+        .bestAsk(Double.isNaN(ask) ? null : ask)
+        .mid(mid)
+        .serverTime(Instant.now().toString())
+        .build();
+    emitir(l -> l.onTicker(ticker));
+  }
+
+  // Inventario completo con cantidades absolutas: aplicarlo dos veces no cambia nada.
+  private void emitirInventario() {
+    JsonObject cantidades = new JsonObject();
+    inventario.forEach((producto, cantidad) -> cantidades.addProperty(producto.getValue(), cantidad));
+    JsonObject datos = new JsonObject();
+    datos.add("inventory", cantidades);
+    EventDeltaMessage delta = TipoDelta.INVENTORY.mensaje(++versionDelta, datos);
+    if (omitirDelta) {
+      omitirDelta = false;
+      return;
+    }
+    emitir(l -> l.onEventDelta(delta));
+  }
+
+  private void emitirOferta() {
+    List<Product> candidatos = new ArrayList<>(recetas.keySet());
+    if (candidatos.isEmpty()) {
+      return;
+    }
+    Product producto = candidatos.get(azar.nextInt(candidatos.size()));
+    double precio = redondear(referencia.get(producto) * (1.05 + azar.nextDouble() * 0.2));
+    String id = "OFF-" + (++consecutivoOferta);
+    OfferMessage oferta = OfferMessage.builder()
+        .type(MessageType.OFFER)
+        .offerId(id)
+        .buyer("bot-" + (1 + azar.nextInt(8)))
+        .product(producto)
+        .quantityRequested(1 + azar.nextInt(20))
+        .maxPrice(precio)
+        .build();
+    ofertas.put(id, oferta);
+    emitir(l -> l.onOffer(oferta));
+  }
+
+  private void emitir(Consumer<EventListener> evento) {
+    for (EventListener listener : listeners) {
+      try {
+        evento.accept(listener);
+      } catch (RuntimeException e) {
+        System.out.println("⚠️ Listener falló en la bolsa simulada: " + e.getMessage());
+      }
+    }
+  }
+
+  private static double redondear(double precio) {
+    return Math.round(precio * 100.0) / 100.0;
+  }
+
+  private static double valor(Double numero, double defecto) {
+    return numero == null ? defecto : numero;
+  }
+}
@@ -0,0 +1,100 @@
+package tech.hellsoft.trading.simulador;
+
+import tech.hellsoft.trading.enums.OrderSide;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Libro de un producto con prioridad precio-tiempo: el mejor precio se ejecuta
+ * primero y, dentro de un mismo nivel, la orden más antigua. No es thread-safe;
+ * {@link BolsaSimulada} lo usa siempre desde su único hilo.
+ */
+final class LibroOrdenes {
+
+  private final NavigableMap<Double, ArrayDeque<OrdenSimulada>> compras = new TreeMap<>(Comparator.reverseOrder());
+  private final NavigableMap<Double, ArrayDeque<OrdenSimulada>> ventas = new TreeMap<>();
+
+  /**
+   * Cruza la orden entrante contra el lado opuesto. El remanente de una orden
+   * límite queda en el libro; el de una orden a mercado se descarta.
+   */
+  List<Ejecucion> procesar(OrdenSimulada entrante) {
+    NavigableMap<Double, ArrayDeque<OrdenSimulada>> opuesto = entrante.lado() == OrderSide.BUY ? ventas : compras;
+    List<Ejecucion> ejecuciones = Collections.emptyList();
+    while (entrante.pendiente() > 0 && !opuesto.isEmpty()) {
+      Map.Entry<Double, ArrayDeque<OrdenSimulada>> nivel = opuesto.firstEntry();
+      if (!cruza(entrante, nivel.getKey())) {
+        break;
+      }
+      ArrayDeque<OrdenSimulada> cola = nivel.getValue();
+      OrdenSimulada pasiva = cola.peekFirst();
+      int cantidad = Math.min(entrante.pendiente(), pasiva.pendiente());
+      entrante.ejecutar(cantidad);
+      pasiva.ejecutar(cantidad);
+      if (ejecuciones.isEmpty()) {
+        ejecuciones = new ArrayList<>(4);
+      }
+      ejecuciones.add(new Ejecucion(entrante, pasiva, cantidad, nivel.getKey()));
+      if (pasiva.pendiente() == 0) {
+        cola.pollFirst();
+      }
+      if (cola.isEmpty()) {
+        opuesto.pollFirstEntry();
+      }
+    }
+    if (entrante.pendiente() > 0 && !entrante.aMercado()) {
+      NavigableMap<Double, ArrayDeque<OrdenSimulada>> propio = entrante.lado() == OrderSide.BUY ? compras : ventas;
+      propio.computeIfAbsent(entrante.precio(), p -> new ArrayDeque<>()).addLast(entrante);
+    }
+    return ejecuciones;
+  }
+
+  private static boolean cruza(OrdenSimulada entrante, double precioNivel) {
+    if (entrante.aMercado()) {
+      return true;
+    }
+    if (entrante.lado() == OrderSide.BUY) {
+      return entrante.precio() >= precioNivel;
+    }
+    return entrante.precio() <= precioNivel;
+  }
+
+  /**
+   * Retira todas las órdenes en reposo de un dueño (por ejemplo, los market
+   * makers antes de recotizar).
+   */
+  void cancelarDe(String dueno) {
+    cancelarDe(compras, dueno);
+    cancelarDe(ventas, dueno);
+  }
+
+  private static void cancelarDe(NavigableMap<Double, ArrayDeque<OrdenSimulada>> lado, String dueno) {
+    Iterator<ArrayDeque<OrdenSimulada>> niveles = lado.values().iterator();
+    while (niveles.hasNext()) {
+      ArrayDeque<OrdenSimulada> cola = niveles.next();
+      cola.removeIf(orden -> orden.dueno().equals(dueno));
+      if (cola.isEmpty()) {
+        niveles.remove();
+      }
+    }
+  }
+
+  double mejorCompra() {
+    return compras.isEmpty() ? Double.NaN : compras.firstKey();
+  }
+
+  double mejorVenta() {
+    return ventas.isEmpty() ? Double.NaN : ventas.firstKey();
+  }
+
+  record Ejecucion(OrdenSimulada agresora, OrdenSimulada pasiva, int cantidad, double precio) {
+  }
+}
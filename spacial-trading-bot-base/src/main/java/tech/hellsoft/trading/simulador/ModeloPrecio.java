@@ -0,0 +1,45 @@
+package tech.hellsoft.trading.simulador;
+
+import tech.hellsoft.trading.cliente.HistorialPrecios;
+
+/**
+ * Movimiento browniano geométrico por segundo ajustado a los tickers
+ * recientes: la deriva y la volatilidad salen de los retornos logarítmicos
+ * normalizados por el tiempo entre tickers. Con menos de
+ * {@link #MUESTRAS_MINIMAS} tickers se usa deriva 0 y
+ * {@link #VOLATILIDAD_POR_DEFECTO}.
+ */
+public record ModeloPrecio(double precioInicial, double deriva, double volatilidad, int muestras) {
+
+  public static final int MUESTRAS_MINIMAS = 10;
+  public static final double VOLATILIDAD_POR_DEFECTO = 0.002;
+
+  public static ModeloPrecio ajustar(HistorialPrecios.Serie serie, double precioActual) {
+    int n = serie.tamano();
+    double inicial = precioActual > 0.0 ? precioActual : n > 0 ? serie.precios()[n - 1] : 0.0;
+    if (n < MUESTRAS_MINIMAS) {
+      return new ModeloPrecio(inicial, 0.0, VOLATILIDAD_POR_DEFECTO, n);
+    }
+
+    long[] tiempos = serie.tiemposMs();
+    double[] precios = serie.precios();
+    double sumaRetornos = 0.0;
+    double sumaSegundos = 0.0;
+    for (int i = 1; i < n; i++) {
+      double dt = Math.max(1L, tiempos[i] - tiempos[i - 1]) / 1000.0;
+      sumaRetornos += Math.log(precios[i] / precios[i - 1]);
+      sumaSegundos += dt;
+    }
+    double media = sumaRetornos / sumaSegundos;
+
+    double sumaCuadrados = 0.0;
+    for (int i = 1; i < n; i++) {
+      double dt = Math.max(1L, tiempos[i] - tiempos[i - 1]) / 1000.0;
+      double desvio = Math.log(precios[i] / precios[i - 1]) - media * dt;
+      sumaCuadrados += desvio * desvio;
+    }
+    double varianza = sumaCuadrados / sumaSegundos;
+    // La deriva del GBM compensa el término de Itô para que el retorno medio observado se conserve.
+    return new ModeloPrecio(inicial, media + varianza / 2.0, Math.sqrt(varianza), n);
+  }
+}
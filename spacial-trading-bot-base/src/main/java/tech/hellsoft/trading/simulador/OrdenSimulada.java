@@ -0,0 +1,58 @@
+package tech.hellsoft.trading.simulador;
+
+import tech.hellsoft.trading.enums.OrderSide;
+
+/**
+ * Orden dentro del libro simulado. El precio {@code NaN} indica una orden a
+ * mercado, que nunca queda en reposo.
+ */
+final class OrdenSimulada {
+
+  private final long secuencia;
+  private final String dueno;
+  private final String clOrdId;
+  private final OrderSide lado;
+  private final double precio;
+  private int pendiente;
+
+  OrdenSimulada(long secuencia, String dueno, String clOrdId, OrderSide lado, double precio, int cantidad) {
+    this.secuencia = secuencia;
+    this.dueno = dueno;
+    this.clOrdId = clOrdId;
+    this.lado = lado;
+    this.precio = precio;
+    this.pendiente = cantidad;
+  }
+
+  long secuencia() {
+    return secuencia;
+  }
+
+  String dueno() {
+    return dueno;
+  }
+
+  String clOrdId() {
+    return clOrdId;
+  }
+
+  OrderSide lado() {
+    return lado;
+  }
+
+  double precio() {
+    return precio;
+  }
+
+  boolean aMercado() {
+    return Double.isNaN(precio);
+  }
+
+  int pendiente() {
+    return pendiente;
+  }
+
+  void ejecutar(int cantidad) {
+    pendiente -= cantidad;
+  }
+}
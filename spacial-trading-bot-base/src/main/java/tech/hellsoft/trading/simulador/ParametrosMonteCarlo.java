@@ -0,0 +1,35 @@
+package tech.hellsoft.trading.simulador;
+
+/**
+ * Parámetros del simulador de auto-producción. El impacto modela cuánto baja
+ * el precio por unidad vendida (en log-precio) y cuánto tarda en recuperarse;
+ * es lo que hace que vender cada segundo no sea siempre lo mejor.
+ */
+public record ParametrosMonteCarlo(int sesiones, int horizonteSeg, double medioSpread, double impactoPorUnidad,
+    double vidaMediaImpactoSeg, long semilla) {
+
+  // Topes para que una corrida quepa en memoria y tarde unos pocos segundos (~5 veces el default).
+  public static final int MAX_SESIONES = 10_000;
+  public static final int MAX_HORIZONTE_SEG = 1_800;
+
+  public ParametrosMonteCarlo {
+    if (sesiones <= 0 || sesiones > MAX_SESIONES) {
+      throw new IllegalArgumentException("Las sesiones deben estar entre 1 y " + MAX_SESIONES);
+    }
+    if (horizonteSeg <= 0 || horizonteSeg > MAX_HORIZONTE_SEG) {
+      throw new IllegalArgumentException("El horizonte debe estar entre 1 y " + MAX_HORIZONTE_SEG + " s");
+    }
+    if (medioSpread < 0.0 || medioSpread >= 1.0 || impactoPorUnidad < 0.0 || vidaMediaImpactoSeg <= 0.0) {
+      throw new IllegalArgumentException("Spread, impacto o vida media fuera de rango");
+    }
+  }
+
+  public static ParametrosMonteCarlo porDefecto() {
+    return new ParametrosMonteCarlo(4_000, 600, 0.005, 0.0002, 30.0, 42L);
+  }
+
+  public ParametrosMonteCarlo conSesiones(int nuevasSesiones, int nuevoHorizonteSeg) {
+    return new ParametrosMonteCarlo(nuevasSesiones, nuevoHorizonteSeg, medioSpread, impactoPorUnidad,
+        vidaMediaImpactoSeg, semilla);
+  }
+}
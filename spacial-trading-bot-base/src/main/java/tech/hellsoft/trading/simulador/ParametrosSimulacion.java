@@ -0,0 +1,26 @@
+package tech.hellsoft.trading.simulador;
+
+import tech.hellsoft.trading.dto.server.TeamRole;
+
+/**
+ * Parámetros de la bolsa simulada. Con la misma semilla, la secuencia de
+ * precios, cotizaciones y ofertas es la misma en cada corrida.
+ */
+public record ParametrosSimulacion(long semilla, double saldoInicial, long intervaloTickerMs, long intervaloOfertaMs,
+    int nivelesProfundidad, double spread, double volatilidad, TeamRole rol) {
+
+  public ParametrosSimulacion {
+    if (intervaloTickerMs <= 0 || intervaloOfertaMs <= 0) {
+      throw new IllegalArgumentException("Los intervalos de la simulación deben ser positivos");
+    }
+    if (nivelesProfundidad <= 0) {
+      throw new IllegalArgumentException("La profundidad debe ser al menos 1");
+    }
+  }
+
+  public static ParametrosSimulacion porDefecto() {
+    TeamRole rol = TeamRole.builder().branches(2).maxDepth(5).decay(0.8).budget(0.0).baseEnergy(8.0)
+        .levelEnergy(1.5).build();
+    return new ParametrosSimulacion(42L, 10_000.0, 250L, 5_000L, 5, 0.01, 0.002, rol);
+  }
+}
@@ -0,0 +1,331 @@
+package tech.hellsoft.trading.simulador;
+
+import tech.hellsoft.trading.CalculadoraProduccion;
+import tech.hellsoft.trading.cliente.ClienteBolsa;
+import tech.hellsoft.trading.cliente.EstadoCliente;
+import tech.hellsoft.trading.cliente.HistorialPrecios;
+import tech.hellsoft.trading.config.Ajustes;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.enums.Product;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo de {@code auto start}: para cada combinación producto / modo /
+ * intervalo simula miles de sesiones de {@link ParametrosMonteCarlo#horizonteSeg()}
+ * segundos y las ordena por P&L esperado, con su desviación, percentil 5 y
+ * probabilidad de pérdida.
+ *
+ * <p>Cada sesión genera un camino de precios por segundo con {@link ModeloPrecio}
+ * y evalúa todas las combinaciones sobre el mismo camino, de modo que las
+ * diferencias entre ellas no son ruido de muestreo. Cada ciclo produce como
+ * {@code AutoProduccionManager} y vende todo lo disponible con spread e impacto
+ * de precio que se recupera con el tiempo. Premium consume en el primer ciclo
+ * todos los lotes que alcanza el inventario, así que el intervalo no cambia su
+ * resultado y se evalúa solo con el mínimo.
+ *
+ * <p>Las sesiones se reparten en un {@link ForkJoinPool}; el estado de la
+ * simulación son arreglos primitivos y cada sesión usa su propia semilla, así
+ * que el resultado no depende de cómo se dividan las tareas.
+ */
+public final class SimuladorAutoProduccion {
+
+  public record Candidato(Product producto, boolean premium, int intervaloSeg) {
+  }
+
+  public record Resultado(Candidato candidato, double media, double desviacion, double percentil5,
+      double probabilidadPerdida) {
+  }
+
+  private static final int[] INTERVALOS = {1, 2, 5, 10, 15, 30, 60, 120, 300, 600, 1800, 3600};
+  private static final int SESIONES_POR_TAREA = 64;
+  private static final long SIN_LIMITE = Long.MIN_VALUE;
+
+  private final ParametrosMonteCarlo parametros;
+
+  // Productos con camino de precios (objetivos e ingredientes), por índice compacto.
+  private final double[] precioInicial;
+  private final double[] derivaPorSeg;
+  private final double[] volatilidad;
+
+  // Una posición por candidato.
+  private final Candidato[] candidatos;
+  private final int[] objetivo;
+  private final int[] intervalo;
+  private final int[] unidadesPorLote;
+  private final int[] lotesPremium;
+  private final int[] inventarioInicial;
+  private final int[][] ingredientes;
+  private final int[][] requeridos;
+
+  private final double[][] plPorSesion;
+
+  private SimuladorAutoProduccion(ParametrosMonteCarlo parametros, List<ModeloPrecio> modelos,
+      List<Candidato> candidatos, Map<Product, Integer> indices, EstadoCliente estado, int porLoteBasico) {
+    this.parametros = parametros;
+    int m = modelos.size();
+    precioInicial = new double[m];
+    derivaPorSeg = new double[m];
+    volatilidad = new double[m];
+    for (int j = 0; j < m; j++) {
+      ModeloPrecio modelo = modelos.get(j);
+      precioInicial[j] = modelo.precioInicial();
+      // Paso en log-precio: deriva menos el término de Itô.
+      derivaPorSeg[j] = modelo.deriva() - modelo.volatilidad() * modelo.volatilidad() / 2.0;
+      volatilidad[j] = modelo.volatilidad();
+    }
+
+    int n = candidatos.size();
+    this.candidatos = candidatos.toArray(new Candidato[0]);
+    objetivo = new int[n];
+    intervalo = new int[n];
+    unidadesPorLote = new int[n];
+    lotesPremium = new int[n];
+    inventarioInicial = new int[n];
+    ingredientes = new int[n][];
+    requeridos = new int[n][];
+    for (int c = 0; c < n; c++) {
+      Candidato candidato = candidatos.get(c);
+      Product producto = candidato.producto();
+      objetivo[c] = indices.get(producto);
+      intervalo[c] = candidato.intervaloSeg();
+      inventarioInicial[c] = Math.max(0, estado.cantidadDisponible(producto));
+      ingredientes[c] = new int[0];
+      requeridos[c] = new int[0];
+      unidadesPorLote[c] = porLoteBasico;
+      if (candidato.premium()) {
+        Recipe receta = estado.recetaDe(producto);
+        unidadesPorLote[c] = CalculadoraProduccion.aplicarBonusPremium(porLoteBasico, receta);
+        lotesPremium[c] = estado.lotesPremiumPosibles(producto);
+        Map<Product, Integer> insumos = receta.getIngredients();
+        ingredientes[c] = insumos.keySet().stream().mapToInt(indices::get).toArray();
+        requeridos[c] = insumos.values().stream().mapToInt(Integer::intValue).toArray();
+      }
+    }
+    plPorSesion = new double[n][parametros.sesiones()];
+  }
+
+  /**
+   * Arma las combinaciones con las recetas, el rendimiento del rol, el
+   * inventario y los precios actuales del cliente. Solo entran productos
+   * autorizados, con receta y con precio conocido; premium además necesita
+   * precio de todos sus ingredientes y al menos un lote posible.
+   */
+  public static SimuladorAutoProduccion desde(ClienteBolsa cliente, ParametrosMonteCarlo parametros) {
+    EstadoCliente estado = cliente.estado();
+    HistorialPrecios historial = cliente.historialPrecios();
+    Ajustes ajustes = cliente.ajustes().actual();
+    int porLote = cliente.unidadesPorLote();
+    Map<Product, Recipe> recetas = estado.recetas();
+    Map<Product, Double> precios = estado.precios();
+    int[] intervalos = intervalos(ajustes, parametros.horizonteSeg());
+
+    Map<Product, Integer> indices = new EnumMap<>(Product.class);
+    List<ModeloPrecio> modelos = new ArrayList<>();
+    List<Candidato> candidatos = new ArrayList<>();
+    for (Product producto : Product.values()) {
+      Recipe receta = recetas.get(producto);
+      if (receta == null || !estado.productoAutorizado(producto) || precio(precios, producto) <= 0.0) {
+        continue;
+      }
+      indexar(producto, precios, historial, indices, modelos);
+      for (int segundos : intervalos) {
+        candidatos.add(new Candidato(producto, false, segundos));
+      }
+
+      Map<Product, Integer> insumos = receta.getIngredients();
+      if (insumos == null || insumos.isEmpty() || estado.lotesPremiumPosibles(producto) < 1) {
+        continue;
+      }
+      boolean conPrecios = insumos.keySet().stream().allMatch(p -> precio(precios, p) > 0.0);
+      if (!conPrecios) {
+        continue;
+      }
+      insumos.keySet().forEach(p -> indexar(p, precios, historial, indices, modelos));
+      candidatos.add(new Candidato(producto, true, intervalos[0]));
+    }
+    return new SimuladorAutoProduccion(parametros, modelos, candidatos, indices, estado, porLote);
+  }
+
+  public int candidatos() {
+    return candidatos.length;
+  }
+
+  /** Corre todas las sesiones en el pool y devuelve las combinaciones de mayor a menor P&L esperado. */
+  public List<Resultado> ejecutar(ForkJoinPool pool) {
+    return ejecutar(pool, SESIONES_POR_TAREA, SIN_LIMITE);
+  }
+
+  /**
+   * Como {@link #ejecutar(ForkJoinPool)}, pero las tareas que empiezan después
+   * de {@code limite} abandonan y la llamada lanza {@link CancellationException}.
+   */
+  public List<Resultado> ejecutar(ForkJoinPool pool, Duration limite) {
+    return ejecutar(pool, SESIONES_POR_TAREA, System.nanoTime() + limite.toNanos());
+  }
+
+  // Con otro tamaño de hoja, para comprobar que el reparto no cambia el resultado.
+  List<Resultado> ejecutar(ForkJoinPool pool, int sesionesPorTarea) {
+    return ejecutar(pool, sesionesPorTarea, SIN_LIMITE);
+  }
+
+  private List<Resultado> ejecutar(ForkJoinPool pool, int sesionesPorTarea, long limite) {
+    if (sesionesPorTarea < 1) {
+      throw new IllegalArgumentException("Cada tarea debe simular al menos una sesión");
+    }
+    if (candidatos.length == 0) {
+      return List.of();
+    }
+    pool.invoke(new Tarea(0, parametros.sesiones(), sesionesPorTarea, limite));
+
+    List<Resultado> resultados = new ArrayList<>(candidatos.length);
+    for (int c = 0; c < candidatos.length; c++) {
+      resultados.add(resumir(candidatos[c], plPorSesion[c]));
+    }
+    resultados.sort(Comparator.comparingDouble(Resultado::media).reversed()
+        .thenComparingDouble(Resultado::desviacion));
+    return resultados;
+  }
+
+  private final class Tarea extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int desde;
+    private final int hasta;
+    private final int hoja;
+    // Instante de System.nanoTime() tras el cual no se empiezan más hojas; SIN_LIMITE si no hay.
+    private final long limite;
+
+    Tarea(int desde, int hasta, int hoja, long limite) {
+      this.desde = desde;
+      this.hasta = hasta;
+      this.hoja = hoja;
+      this.limite = limite;
+    }
+
+    @Override
+    protected void compute() {
+      if (hasta - desde <= hoja) {
+        if (limite != SIN_LIMITE && System.nanoTime() - limite > 0) {
+          throw new CancellationException("Simulación cortada por tiempo");
+        }
+        simularSesiones(desde, hasta);
+        return;
+      }
+      int mitad = (desde + hasta) >>> 1;
+      invokeAll(new Tarea(desde, mitad, hoja, limite), new Tarea(mitad, hasta, hoja, limite));
+    }
+  }
+
+  private void simularSesiones(int desde, int hasta) {
+    int horizonte = parametros.horizonteSeg();
+    // Un buffer de caminos por hoja, reutilizado en todas sus sesiones.
+    double[][] camino = new double[precioInicial.length][horizonte + 1];
+    for (int s = desde; s < hasta; s++) {
+      SplittableRandom azar = new SplittableRandom(parametros.semilla() + s * 0x9E3779B97F4A7C15L);
+      for (int j = 0; j < precioInicial.length; j++) {
+        double[] precios = camino[j];
+        precios[0] = precioInicial[j];
+        for (int t = 1; t <= horizonte; t++) {
+          precios[t] = precios[t - 1] * Math.exp(derivaPorSeg[j] + volatilidad[j] * azar.nextGaussian());
+        }
+      }
+      for (int c = 0; c < candidatos.length; c++) {
+        plPorSesion[c][s] = sesion(c, camino);
+      }
+    }
+  }
+
+  // P&L de una sesión frente a no hacer nada: el inventario inicial del objetivo se valúa al precio de partida.
+  private double sesion(int c, double[][] camino) {
+    double[] precios = camino[objetivo[c]];
+    int paso = intervalo[c];
+    double impactoUnidad = parametros.impactoPorUnidad();
+    double venta = 1.0 - parametros.medioSpread();
+    double retencion = Math.pow(0.5, paso / parametros.vidaMediaImpactoSeg());
+
+    int stock = inventarioInicial[c];
+    int lotes = lotesPremium[c];
+    double pl = -stock * precios[0];
+    double impacto = 0.0;
+    for (int t = 0; t < parametros.horizonteSeg(); t += paso) {
+      impacto *= retencion;
+      if (!candidatos[c].premium()) {
+        stock += unidadesPorLote[c];
+      } else if (lotes > 0) {
+        int[] insumos = ingredientes[c];
+        for (int i = 0; i < insumos.length; i++) {
+          pl -= (double) requeridos[c][i] * lotes * camino[insumos[i]][t];
+        }
+        stock += unidadesPorLote[c] * lotes;
+        lotes = 0;
+      }
+      if (stock <= 0) {
+        continue;
+      }
+      // Se vende al precio medio del tramo que la propia venta empuja hacia abajo.
+      double precio = precios[t] * Math.exp(-(impacto + impactoUnidad * stock / 2.0)) * venta;
+      pl += stock * precio;
+      impacto += impactoUnidad * stock;
+      stock = 0;
+    }
+    return pl;
+  }
+
+  private static Resultado resumir(Candidato candidato, double[] pl) {
+    int n = pl.length;
+    double suma = 0.0;
+    int perdidas = 0;
+    for (double valor : pl) {
+      suma += valor;
+      if (valor < 0.0) {
+        perdidas++;
+      }
+    }
+    double media = suma / n;
+    double cuadrados = 0.0;
+    for (double valor : pl) {
+      cuadrados += (valor - media) * (valor - media);
+    }
+    double[] ordenado = pl.clone();
+    Arrays.sort(ordenado);
+    double desviacion = n > 1 ? Math.sqrt(cuadrados / (n - 1)) : 0.0;
+    return new Resultado(candidato, media, desviacion, ordenado[(int) ((n - 1) * 0.05)], perdidas / (double) n);
+  }
+
+  // Intervalos habituales dentro de los límites de auto start y de la sesión simulada.
+  private static int[] intervalos(Ajustes ajustes, int horizonteSeg) {
+    int minimo = ajustes.autoIntervaloMinSeg();
+    int maximo = Math.min(ajustes.autoIntervaloMaxSeg(), Math.max(minimo, horizonteSeg / 2));
+    int[] candidatos = Arrays.stream(INTERVALOS).filter(s -> s > minimo && s <= maximo).toArray();
+    int[] todos = new int[candidatos.length + 1];
+    todos[0] = minimo;
+    System.arraycopy(candidatos, 0, todos, 1, candidatos.length);
+    return todos;
+  }
+
+  private static void indexar(Product producto, Map<Product, Double> precios, HistorialPrecios historial,
+      Map<Product, Integer> indices, List<ModeloPrecio> modelos) {
+    if (indices.containsKey(producto)) {
+      return;
+    }
+    indices.put(producto, modelos.size());
+    modelos.add(ModeloPrecio.ajustar(historial.serie(producto), precio(precios, producto)));
+  }
+
+  private static double precio(Map<Product, Double> precios, Product producto) {
+    Double precio = precios.get(producto);
+    return precio == null ? 0.0 : precio;
+  }
+}
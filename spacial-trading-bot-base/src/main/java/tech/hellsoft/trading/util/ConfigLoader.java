@@ -1,6 +1,9 @@
 package tech.hellsoft.trading.util;
 
-import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import tech.hellsoft.trading.config.Ajustes;
 import tech.hellsoft.trading.config.Configuration;
 import tech.hellsoft.trading.exception.ConfiguracionInvalidaException;
 
@@ -8,11 +11,14 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 
+/**
+ * Lee config.json recorriendo el árbol JSON a mano: evita que Gson genere
+ * adaptadores por reflexión para los records en el camino de arranque.
+ */
 public final class ConfigLoader {
 
-  private static final Gson GSON = new Gson();
-
   private ConfigLoader() {
   }
 
@@ -54,10 +60,57 @@ public final class ConfigLoader {
       throw new ConfiguracionInvalidaException("Configuration file content is empty");
     }
 
+    Configuration config;
     try {
-      return GSON.fromJson(json, Configuration.class);
+      JsonElement raiz = JsonParser.parseString(json);
+      config = raiz.isJsonNull() ? null : toConfiguration(raiz.getAsJsonObject());
     } catch (Exception e) {
       throw new ConfiguracionInvalidaException("Failed to parse configuration JSON: " + e.getMessage(), e);
     }
+    if (config == null) {
+      throw new ConfiguracionInvalidaException("Configuration file content is empty");
+    }
+
+    List<String> problemas = config.ajustes().problemas();
+    if (!problemas.isEmpty()) {
+      throw new ConfiguracionInvalidaException("Invalid tuning settings: " + String.join("; ", problemas));
+    }
+    return config;
+  }
+
+  private static Configuration toConfiguration(JsonObject raiz) {
+    JsonObject ajustes = raiz.has("ajustes") && raiz.get("ajustes").isJsonObject()
+        ? raiz.getAsJsonObject("ajustes") : null;
+    return new Configuration(text(raiz, "apiKey"), text(raiz, "team"), text(raiz, "host"),
+        text(raiz, "species"), text(raiz, "snapshotsDir"), toAjustes(ajustes), text(raiz, "tokenControl"));
+  }
+
+  private static Ajustes toAjustes(JsonObject ajustes) {
+    if (ajustes == null) {
+      return null;
+    }
+    return new Ajustes(integer(ajustes, "autoIntervaloMinSeg"), integer(ajustes, "autoIntervaloMaxSeg"),
+        integer(ajustes, "snapshotIntervaloSeg"), decimal(ajustes, "ordenesPorSegundo"),
+        integer(ajustes, "maxOrdenesEnSeguimiento"), text(ajustes, "verbosidad"));
+  }
+
+  private static JsonElement field(JsonObject objeto, String nombre) {
+    JsonElement valor = objeto.get(nombre);
+    return valor == null || valor.isJsonNull() ? null : valor;
+  }
+
+  private static String text(JsonObject objeto, String nombre) {
+    JsonElement valor = field(objeto, nombre);
+    return valor == null ? null : valor.getAsString();
+  }
+
+  private static Integer integer(JsonObject objeto, String nombre) {
+    JsonElement valor = field(objeto, nombre);
+    return valor == null ? null : valor.getAsInt();
+  }
+
+  private static Double decimal(JsonObject objeto, String nombre) {
+    JsonElement valor = field(objeto, nombre);
+    return valor == null ? null : valor.getAsDouble();
   }
 }
@@ -0,0 +1,52 @@
+package tech.hellsoft.trading.util;
+
+import tech.hellsoft.trading.enums.Product;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Índice de alias de productos construido una sola vez. Resuelve en una
+ * búsqueda de mapa el nombre del enum ({@code PALTA_OIL}), el valor del
+ * servidor ({@code PALTA-OIL}) y sus variantes en minúsculas; cualquier otra
+ * forma (espacios, mayúsculas mezcladas) se normaliza y se busca de nuevo.
+ */
+public final class IndiceProductos {
+
+  private static final Map<String, Product> ALIAS = construir();
+
+  private IndiceProductos() {
+  }
+
+  /** Devuelve el producto o {@code null} si el texto no corresponde a ninguno. */
+  public static Product buscar(String texto) {
+    if (texto == null) {
+      return null;
+    }
+    Product directo = ALIAS.get(texto);
+    if (directo != null) {
+      return directo;
+    }
+    return ALIAS.get(normalizar(texto));
+  }
+
+  private static Map<String, Product> construir() {
+    Map<String, Product> alias = new HashMap<>();
+    for (Product producto : Product.values()) {
+      String valor = producto.getValue();
+      String nombre = producto.name();
+      alias.put(valor, producto);
+      alias.put(nombre, producto);
+      alias.put(valor.toLowerCase(Locale.ROOT), producto);
+      alias.put(nombre.toLowerCase(Locale.ROOT), producto);
+      alias.put(normalizar(valor), producto);
+      alias.put(normalizar(nombre), producto);
+    }
+    return Map.copyOf(alias);
+  }
+
+  private static String normalizar(String texto) {
+    return texto.trim().toUpperCase(Locale.ROOT).replace('_', '-').replace(' ', '-');
+  }
+}
@@ -0,0 +1,455 @@
+package tech.hellsoft.trading.cliente;
+
+import tech.hellsoft.trading.CalculadoraProduccion;
+import tech.hellsoft.trading.EventListener;
+import tech.hellsoft.trading.config.Ajustes;
+import tech.hellsoft.trading.config.Configuration;
+import tech.hellsoft.trading.dto.client.OrderMessage;
+import tech.hellsoft.trading.dto.server.FillMessage;
+import tech.hellsoft.trading.dto.server.LoginOKMessage;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.dto.server.TeamRole;
+import tech.hellsoft.trading.dto.server.TickerMessage;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.exception.IngredientesInsuficientesException;
+import tech.hellsoft.trading.exception.InventarioInsuficienteException;
+import tech.hellsoft.trading.exception.ProductoNoAutorizadoException;
+import tech.hellsoft.trading.exception.RecetaNoEncontradaException;
+import tech.hellsoft.trading.grabacion.ConectorBolsaNulo;
+import tech.hellsoft.trading.repository.RecetaRepository;
+import tech.hellsoft.trading.simulador.ParametrosSimulacion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Carga concurrente sobre {@link ClienteBolsa} y {@link EstadoCliente} con los
+ * mismos hilos que en producción:
+ * <ul>
+ *   <li>websocket: tickers, compras de ingredientes, compraventa de NUCREM y la ejecución de las
+ *       ventas enviadas;</li>
+ *   <li>auto-produccion: producir GUACA premium y vender lo producido;</li>
+ *   <li>consola: producir, consultar capacidad, vista y recetas, y serializar el estado;</li>
+ *   <li>verificador: lee vistas y comprueba los invariantes en caliente.</li>
+ * </ul>
+ *
+ * <p>Los precios de los ingredientes y de GUACA se fijan para que un lote
+ * premium conserve el valor, así el patrimonio (saldo + inventario) es
+ * constante en cualquier estado coherente: una lectura que ve un fill o una
+ * producción a medias lo delata. Al final se comparan saldo e inventario con
+ * lo que el arnés aplicó (actualizaciones perdidas) y se sale con código 1 si
+ * hubo violaciones.
+ *
+ * <pre>
+ * ./gradlew stressTest -PstressArgs="--segundos 10 --eventos 50000 --producciones 0 --lecturas 0"
+ * </pre>
+ * Las tasas son por segundo y por hilo; 0 = sin límite.
+ */
+public final class EstresClienteBolsa {
+
+  private static final Product PRODUCTO = Product.GUACA;
+  private static final Product[] OTROS = {Product.PALTA_OIL, Product.SEBO};
+  // Producto que el websocket compra y vende de a una unidad: muchos fills que no cambian el patrimonio.
+  private static final Product CARTERA = Product.NUCREM;
+  private static final double SALDO_INICIAL = 10_000.0;
+  private static final double TOLERANCIA = 1e-6;
+  private static final int MAX_DETALLES = 20;
+  // Tope para drenar las ventas y cerrar los hilos al final: un hilo trabado falla la corrida en vez de colgarla.
+  private static final long ESPERA_CIERRE_MS = 10_000L;
+
+  private final Parametros parametros;
+  private final ConectorEstres conector = new ConectorEstres();
+  private final ClienteBolsa cliente;
+  private final EstadoCliente estado;
+  private final Map<Product, Integer> requeridos = new EnumMap<>(Product.class);
+  private final Map<Product, Double> preciosFijos = new EnumMap<>(Product.class);
+  private final Map<Product, Integer> inventarioInicial = new EnumMap<>(Product.class);
+  private final int unidadesPorLote;
+  private final double patrimonioEsperado;
+
+  private volatile boolean produciendo = true;
+  private volatile boolean activo = true;
+
+  // Lo que el arnés aplicó; el hilo websocket es el único que escribe los de fills.
+  private final Map<Product, Long> netoFills = new EnumMap<>(Product.class);
+  private boolean comprarCartera = true;
+  private double gastado;
+  private double cobrado;
+  private final AtomicLong lotesProducidos = new AtomicLong();
+
+  private final LongAdder eventos = new LongAdder();
+  private final LongAdder producciones = new LongAdder();
+  private final LongAdder sinIngredientes = new LongAdder();
+  private final LongAdder ventas = new LongAdder();
+  private final LongAdder operacionesConsola = new LongAdder();
+  private final LongAdder lecturas = new LongAdder();
+  private final LongAdder errores = new LongAdder();
+  private final List<String> violaciones = new ArrayList<>();
+  private long totalViolaciones;
+
+  private EstresClienteBolsa(Parametros parametros) {
+    this.parametros = parametros;
+    Configuration config = new Configuration("estres", "AVOCULTORES", "local", "AVOCULTORES", null);
+    cliente = new ClienteBolsa(conector, config);
+    estado = cliente.estado();
+    cliente.ajustes().aplicar(new Ajustes(null, null, null, null, null, "silencioso"));
+
+    TeamRole rol = ParametrosSimulacion.porDefecto().rol();
+    Map<Product, Recipe> recetas = RecetaRepository.instancia().recetasParaEspecie("AVOCULTORES");
+    Recipe receta = recetas.get(PRODUCTO);
+    requeridos.putAll(receta.getIngredients());
+    unidadesPorLote = CalculadoraProduccion.aplicarBonusPremium(CalculadoraProduccion.calcularUnidades(rol), receta);
+
+    // Un lote consume ingredientes por el mismo valor que produce.
+    double costoLote = 0.0;
+    int precio = 2;
+    for (Map.Entry<Product, Integer> entry : requeridos.entrySet()) {
+      preciosFijos.put(entry.getKey(), (double) precio);
+      costoLote += precio * entry.getValue();
+      inventarioInicial.put(entry.getKey(), entry.getValue() * 20);
+      precio++;
+    }
+    preciosFijos.put(PRODUCTO, costoLote / unidadesPorLote);
+    inventarioInicial.put(PRODUCTO, 0);
+    preciosFijos.put(CARTERA, (double) precio);
+    inventarioInicial.put(CARTERA, 10);
+
+    cliente.conectar();
+    cliente.onLoginOk(LoginOKMessage.builder().type(MessageType.LOGIN_OK).team("estres").species("AVOCULTORES")
+        .currentBalance(SALDO_INICIAL).inventory(new EnumMap<>(inventarioInicial)).recipes(recetas)
+        .authorizedProducts(new ArrayList<>(recetas.keySet())).role(rol).build());
+    preciosFijos.forEach(estado::registrarPrecio);
+    patrimonioEsperado = estado.vista().patrimonio();
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    Parametros parametros = Parametros.desde(args);
+    EstresClienteBolsa prueba = new EstresClienteBolsa(parametros);
+    boolean ok = prueba.ejecutar();
+    System.exit(ok ? 0 : 1);
+  }
+
+  private boolean ejecutar() throws InterruptedException {
+    System.out.printf(Locale.ROOT, "Estrés: %d s | eventos/s %s | producciones/s %s | lecturas/s %s%n",
+        parametros.segundos, tasa(parametros.eventos), tasa(parametros.producciones), tasa(parametros.lecturas));
+
+    CountDownLatch salida = new CountDownLatch(1);
+    Thread websocket = hilo("websocket", salida, parametros.eventos, this::eventoWebsocket);
+    Thread auto = hilo("auto-produccion", salida, parametros.producciones, this::cicloAutoProduccion);
+    Thread consola = hilo("consola", salida, parametros.producciones, this::comandoConsola);
+    Thread verificador = hilo("verificador", salida, parametros.lecturas, this::verificarVista);
+    long inicio = System.nanoTime();
+    salida.countDown();
+
+    TimeUnit.SECONDS.sleep(parametros.segundos);
+    produciendo = false;
+    long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_CIERRE_MS);
+    esperarHilo(auto, limite);
+    esperarHilo(consola, limite);
+    // El websocket sigue hasta ejecutar las ventas pendientes.
+    while (!conector.ordenes.isEmpty() && websocket.isAlive() && System.nanoTime() < limite) {
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    if (!conector.ordenes.isEmpty()) {
+      violacion(conector.ordenes.size() + " órdenes sin ejecutar al cerrar");
+    }
+    activo = false;
+    esperarHilo(websocket, limite);
+    esperarHilo(verificador, limite);
+    double segundos = (System.nanoTime() - inicio) / 1e9;
+
+    verificarFinal();
+    informe(segundos);
+    return totalViolaciones == 0;
+  }
+
+  // ---------------------- hilos ----------------------
+
+  private void eventoWebsocket(SplittableRandom azar) {
+    OrderMessage orden = conector.ordenes.poll();
+    if (orden != null) {
+      ejecutarVenta(orden);
+    } else if (estado.lotesPremiumPosibles(PRODUCTO) == 0) {
+      // Ingredientes justos para un lote: los productores compiten por él.
+      requeridos.forEach((ingrediente, cantidad) -> fill(ingrediente, OrderSide.BUY, cantidad, "ESTRES-COMPRA"));
+    } else if (azar.nextBoolean()) {
+      fill(CARTERA, comprarCartera ? OrderSide.BUY : OrderSide.SELL, 1, "ESTRES-CARTERA");
+      comprarCartera = !comprarCartera;
+    } else {
+      Product producto = OTROS[azar.nextInt(OTROS.length)];
+      conector.escucha.onTicker(TickerMessage.builder().type(MessageType.TICKER).product(producto)
+          .mid(10.0 + azar.nextDouble()).bestBid(9.5).bestAsk(10.5).build());
+    }
+    eventos.increment();
+  }
+
+  private void cicloAutoProduccion(SplittableRandom azar) {
+    // Como AutoProduccionManager: todos los lotes que alcancen en una sola actualización.
+    producir(Math.max(1, estado.lotesPremiumPosibles(PRODUCTO)));
+    // Sin esperar al intervalo: vende cuando la venta anterior ya se ejecutó.
+    if (conector.ventasPendientes.get() > 0) {
+      return;
+    }
+    int disponible = estado.cantidadDisponible(PRODUCTO);
+    if (disponible <= 0) {
+      return;
+    }
+    try {
+      cliente.vender(PRODUCTO.getValue(), disponible, "estres");
+      ventas.increment();
+    } catch (ProductoNoAutorizadoException | InventarioInsuficienteException | RuntimeException e) {
+      registrarError("vender", e);
+    }
+  }
+
+  private void comandoConsola(SplittableRandom azar) {
+    switch (azar.nextInt(4)) {
+      case 0 -> producir(1);
+      case 1 -> {
+        estado.lotesPremiumPosibles(PRODUCTO);
+        estado.cuelloDeBotella(PRODUCTO);
+      }
+      case 2 -> estado.recetas();
+      default -> serializar();
+    }
+    operacionesConsola.increment();
+  }
+
+  private void verificarVista(SplittableRandom azar) {
+    VistaEstado vista = estado.vista();
+    double desvio = vista.patrimonio() - patrimonioEsperado;
+    if (Math.abs(desvio) > TOLERANCIA * Math.max(1.0, Math.abs(patrimonioEsperado))) {
+      violacion(String.format(Locale.ROOT, "vista incoherente: patrimonio %.4f (esperado %.4f)", vista.patrimonio(),
+          patrimonioEsperado));
+    }
+    vista.inventario().forEach((producto, cantidad) -> {
+      if (cantidad < 0) {
+        violacion("inventario negativo en vista: " + producto.getValue() + " = " + cantidad);
+      }
+    });
+    lecturas.increment();
+  }
+
+  // ---------------------- operaciones ----------------------
+
+  private void producir(int lotes) {
+    try {
+      cliente.producirLotes(PRODUCTO.getValue(), true, lotes);
+      lotesProducidos.addAndGet(lotes);
+      producciones.add(lotes);
+    } catch (IngredientesInsuficientesException e) {
+      sinIngredientes.increment();
+    } catch (ProductoNoAutorizadoException | RecetaNoEncontradaException | RuntimeException e) {
+      registrarError("producir", e);
+    }
+  }
+
+  private void ejecutarVenta(OrderMessage orden) {
+    fill(orden.getProduct(), orden.getSide(), orden.getQty(), orden.getClOrdID());
+    conector.ventasPendientes.decrementAndGet();
+  }
+
+  private void fill(Product producto, OrderSide lado, int cantidad, String clOrdId) {
+    double precio = preciosFijos.get(producto);
+    conector.escucha.onFill(FillMessage.builder().type(MessageType.FILL).clOrdID(clOrdId).side(lado)
+        .product(producto).fillQty(cantidad).fillPrice(precio).build());
+    boolean compra = lado == OrderSide.BUY;
+    netoFills.merge(producto, (long) (compra ? cantidad : -cantidad), Long::sum);
+    if (compra) {
+      gastado += precio * cantidad;
+    } else {
+      cobrado += precio * cantidad;
+    }
+  }
+
+  private void serializar() {
+    try (ObjectOutputStream salida = new ObjectOutputStream(new ByteArrayOutputStream())) {
+      salida.writeObject(estado);
+    } catch (IOException e) {
+      registrarError("serializar", e);
+    }
+  }
+
+  // ---------------------- verificación ----------------------
+
+  private void verificarFinal() {
+    long lotes = lotesProducidos.get();
+    Map<Product, Long> esperado = new EnumMap<>(Product.class);
+    inventarioInicial.forEach((producto, cantidad) ->
+        esperado.put(producto, cantidad + netoFills.getOrDefault(producto, 0L)));
+    requeridos.forEach((ingrediente, cantidad) -> esperado.merge(ingrediente, -cantidad * lotes, Long::sum));
+    esperado.merge(PRODUCTO, unidadesPorLote * lotes, Long::sum);
+
+    esperado.forEach((producto, cantidad) -> {
+      int real = estado.cantidadDisponible(producto);
+      if (real != cantidad) {
+        violacion(String.format(Locale.ROOT, "inventario %s: %d, esperado %d (%+d perdidas)", producto.getValue(),
+            real, cantidad, cantidad - real));
+      }
+    });
+
+    double saldoEsperado = SALDO_INICIAL - gastado + cobrado;
+    if (Math.abs(estado.saldo() - saldoEsperado) > TOLERANCIA * Math.max(1.0, Math.abs(saldoEsperado))) {
+      violacion(String.format(Locale.ROOT, "saldo %.4f, esperado %.4f", estado.saldo(), saldoEsperado));
+    }
+
+    int minimo = Integer.MAX_VALUE;
+    for (Map.Entry<Product, Integer> entry : requeridos.entrySet()) {
+      minimo = Math.min(minimo, Math.max(0, estado.cantidadDisponible(entry.getKey())) / entry.getValue());
+    }
+    if (estado.lotesPremiumPosibles(PRODUCTO) != minimo) {
+      violacion("capacidad desactualizada: " + estado.lotesPremiumPosibles(PRODUCTO) + " lotes, recalculado "
+          + minimo);
+    }
+    if (errores.sum() > 0) {
+      violacion(errores.sum() + " excepciones inesperadas");
+    }
+  }
+
+  private void informe(double segundos) {
+    System.out.printf(Locale.ROOT, "websocket       %,12d eventos      %,12.0f/s%n", eventos.sum(),
+        eventos.sum() / segundos);
+    System.out.printf(Locale.ROOT, "producción      %,12d lotes        %,12.0f/s  (%,d sin ingredientes)%n",
+        producciones.sum(), producciones.sum() / segundos, sinIngredientes.sum());
+    System.out.printf(Locale.ROOT, "ventas          %,12d órdenes      %,12.0f/s%n", ventas.sum(),
+        ventas.sum() / segundos);
+    System.out.printf(Locale.ROOT, "consola         %,12d comandos     %,12.0f/s%n", operacionesConsola.sum(),
+        operacionesConsola.sum() / segundos);
+    System.out.printf(Locale.ROOT, "verificador     %,12d vistas       %,12.0f/s%n", lecturas.sum(),
+        lecturas.sum() / segundos);
+    synchronized (violaciones) {
+      if (totalViolaciones == 0) {
+        System.out.println("✅ Sin violaciones de invariantes ni actualizaciones perdidas.");
+        return;
+      }
+      System.out.println("❌ " + totalViolaciones + " violaciones; primeras:");
+      violaciones.forEach(v -> System.out.println("  - " + v));
+    }
+  }
+
+  private void violacion(String detalle) {
+    synchronized (violaciones) {
+      totalViolaciones++;
+      if (violaciones.size() < MAX_DETALLES) {
+        violaciones.add(detalle);
+      }
+    }
+  }
+
+  private void registrarError(String operacion, Exception e) {
+    errores.increment();
+    if (errores.sum() <= 5) {
+      System.out.println("⚠️ " + operacion + ": " + e);
+    }
+  }
+
+  // ---------------------- infraestructura ----------------------
+
+  @FunctionalInterface
+  private interface Paso {
+    void ejecutar(SplittableRandom azar);
+  }
+
+  private Thread hilo(String nombre, CountDownLatch salida, int porSegundo, Paso paso) {
+    boolean productor = "auto-produccion".equals(nombre) || "consola".equals(nombre);
+    Thread hilo = new Thread(() -> {
+      SplittableRandom azar = new SplittableRandom(nombre.hashCode());
+      long periodo = porSegundo > 0 ? TimeUnit.SECONDS.toNanos(1) / porSegundo : 0L;
+      try {
+        salida.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      long siguiente = System.nanoTime();
+      while (activo && (!productor || produciendo)) {
+        try {
+          paso.ejecutar(azar);
+        } catch (Throwable e) {
+          // Un hilo muerto dejaría órdenes sin ejecutar: se cuenta y se sigue.
+          violacion("excepción en " + nombre + ": " + e);
+        }
+        if (periodo > 0) {
+          siguiente += periodo;
+          LockSupport.parkNanos(siguiente - System.nanoTime());
+        }
+      }
+    }, nombre);
+    hilo.start();
+    return hilo;
+  }
+
+  private void esperarHilo(Thread hilo, long limite) throws InterruptedException {
+    hilo.join(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime())));
+    if (hilo.isAlive()) {
+      violacion("el hilo " + hilo.getName() + " no terminó en " + ESPERA_CIERRE_MS + " ms");
+    }
+  }
+
+  private static String tasa(int porSegundo) {
+    return porSegundo > 0 ? String.valueOf(porSegundo) : "sin límite";
+  }
+
+  /** Conector que guarda el listener del cliente y encola las órdenes para que las ejecute el websocket. */
+  private static final class ConectorEstres extends ConectorBolsaNulo {
+
+    private final Queue<OrderMessage> ordenes = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger ventasPendientes = new AtomicInteger();
+    private volatile EventListener escucha;
+
+    @Override
+    public void addListener(EventListener listener) {
+      this.escucha = listener;
+    }
+
+    @Override
+    public void enviarOrden(OrderMessage orden) {
+      super.enviarOrden(orden);
+      if (orden.getSide() == OrderSide.SELL) {
+        ventasPendientes.incrementAndGet();
+      }
+      ordenes.add(orden);
+    }
+  }
+
+  private record Parametros(int segundos, int eventos, int producciones, int lecturas) {
+
+    static Parametros desde(String[] args) {
+      int segundos = 5;
+      int eventos = 0;
+      int producciones = 0;
+      int lecturas = 0;
+      for (int i = 0; i + 1 < args.length; i += 2) {
+        int valor = Integer.parseInt(args[i + 1]);
+        switch (args[i]) {
+          case "--segundos" -> segundos = valor;
+          case "--eventos" -> eventos = valor;
+          case "--producciones" -> producciones = valor;
+          case "--lecturas" -> lecturas = valor;
+          default -> throw new IllegalArgumentException("Argumento desconocido: " + args[i]);
+        }
+      }
+      if (segundos < 1) {
+        throw new IllegalArgumentException("--segundos debe ser al menos 1");
+      }
+      return new Parametros(segundos, eventos, producciones, lecturas);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package tech.hellsoft.trading;
+
+import tech.hellsoft.trading.cliente.ClienteBolsa;
+import tech.hellsoft.trading.config.Configuration;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.simulador.BolsaSimulada;
+import tech.hellsoft.trading.simulador.ParametrosSimulacion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Cliente contra una bolsa simulada de Avocultores, con snapshots en un directorio temporal. */
+public final class BolsaDePrueba implements AutoCloseable {
+
+  private static final String ESPECIE = "Avocultores";
+  private static final long ESPERA_MAXIMA_NS = 5_000_000_000L;
+
+  private final BolsaSimulada bolsa;
+  private final ClienteBolsa cliente;
+
+  private BolsaDePrueba(Configuration config) {
+    this.bolsa = new BolsaSimulada(config.species(), config.team(), ParametrosSimulacion.porDefecto());
+    this.cliente = new ClienteBolsa(bolsa, config);
+  }
+
+  /** Crea la bolsa y el cliente sin conectarlo. */
+  public static BolsaDePrueba crear(String directorio) throws IOException {
+    return new BolsaDePrueba(new Configuration("test", "test", BolsaSimulada.PREFIJO_HOST + "test", ESPECIE,
+        Files.createTempDirectory(directorio).toString()));
+  }
+
+  /** Crea la bolsa, conecta el cliente y espera el login. */
+  public static BolsaDePrueba conectada(String directorio) throws IOException, InterruptedException {
+    BolsaDePrueba prueba = crear(directorio);
+    try {
+      prueba.cliente.conectar();
+      esperar(() -> prueba.cliente.estado().rol() != null);
+      return prueba;
+    } catch (RuntimeException | Error | InterruptedException e) {
+      prueba.close();
+      throw e;
+    }
+  }
+
+  public BolsaSimulada bolsa() {
+    return bolsa;
+  }
+
+  public ClienteBolsa cliente() {
+    return cliente;
+  }
+
+  /** Primer producto de la especie que se produce sin ingredientes, o null. */
+  public Product productoBasico() {
+    for (Map.Entry<Product, Recipe> entry : cliente.estado().recetas().entrySet()) {
+      Map<Product, Integer> ingredientes = entry.getValue().getIngredients();
+      if (ingredientes == null || ingredientes.isEmpty()) {
+        return entry.getKey();
+      }
+    }
+    return null;
+  }
+
+  public long contador(String nombre) {
+    return cliente.metricas().contadores().getOrDefault(nombre, 0L);
+  }
+
+  @Override
+  public void close() {
+    bolsa.detener();
+  }
+
+  /** Sondea cada 10 ms; falla si la condición no se cumple en 5 s. */
+  public static void esperar(BooleanSupplier condicion) throws InterruptedException {
+    long limite = System.nanoTime() + ESPERA_MAXIMA_NS;
+    while (!condicion.getAsBoolean()) {
+      assertTrue(System.nanoTime() < limite, "condición no alcanzada en 5 s");
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package tech.hellsoft.trading;
+
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.cliente.ClienteBolsa;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServidorControlTest {
+
+  private static final String TOKEN = "secreto-de-prueba";
+  private static final String BEARER = "Authorization: Bearer " + TOKEN;
+
+  /** Sin token, con Origin o con un Host ajeno no se atiende; con todo en regla sí. */
+  @Test
+  void exigeTokenYPeticionLocal() throws Exception {
+    try (BolsaDePrueba prueba = BolsaDePrueba.crear("control")) {
+      ServidorControl servidor = servidor(prueba);
+      try {
+        String local = "127.0.0.1:" + servidor.puerto();
+
+        assertEquals(401, codigo(servidor, "Host: " + local));
+        assertEquals(401, codigo(servidor, "Host: " + local, "Authorization: Bearer otro"));
+        assertEquals(403, codigo(servidor, "Host: " + local, BEARER, "Origin: http://pagina.example"));
+        assertEquals(403, codigo(servidor, "Host: pagina.example:" + servidor.puerto(), BEARER));
+        assertEquals(403, codigo(servidor, BEARER));
+        // Sin conectar a la bolsa, /salud responde 503: la petición pasó los controles.
+        assertEquals(503, codigo(servidor, "Host: " + local, BEARER));
+        assertEquals(503, codigo(servidor, "Host: localhost:" + servidor.puerto(), BEARER));
+        assertEquals(503, codigo(servidor, "Host: [::1]:" + servidor.puerto(), BEARER));
+      } finally {
+        servidor.detener();
+      }
+    }
+  }
+
+  /** La respuesta de /comando trae lo que imprimió el comando y ok es false si falló. */
+  @Test
+  void comandoDevuelveSuSalida() throws Exception {
+    try (BolsaDePrueba prueba = BolsaDePrueba.crear("control")) {
+      ServidorControl servidor = servidor(prueba);
+      try {
+        String uso = comando(servidor, "simular abc");
+        assertTrue(uso.startsWith("HTTP/1.1 422"), uso);
+        assertTrue(uso.contains("\"ok\":false") && uso.contains("Uso: simular"), uso);
+
+        String enorme = comando(servidor, "simular 2000000000 60");
+        assertTrue(enorme.startsWith("HTTP/1.1 422") && enorme.contains("sesiones 1-"), enorme);
+
+        String bloqueante = comando(servidor, "esperar 60000");
+        assertTrue(bloqueante.startsWith("HTTP/1.1 422"), bloqueante);
+        assertTrue(bloqueante.contains("disponible en la consola"), bloqueante);
+
+        String desconocido = comando(servidor, "volar");
+        assertTrue(desconocido.startsWith("HTTP/1.1 422") && desconocido.contains("Comando desconocido"), desconocido);
+
+        String ayuda = comando(servidor, "help");
+        assertTrue(ayuda.startsWith("HTTP/1.1 200") && ayuda.contains("\"ok\":true"), ayuda);
+        assertTrue(ayuda.contains("simular"), ayuda);
+      } finally {
+        servidor.detener();
+      }
+    }
+  }
+
+  private static ServidorControl servidor(BolsaDePrueba prueba) throws IOException {
+    ClienteBolsa cliente = prueba.cliente();
+    return ServidorControl.iniciar(cliente, ConsolaInteractiva.sinTerminal(cliente, cliente.estado()), 0, TOKEN);
+  }
+
+  private static int codigo(ServidorControl servidor, String... cabeceras) throws IOException {
+    return Integer.parseInt(peticion(servidor, "GET /salud", "", cabeceras).split(" ")[1]);
+  }
+
+  private static String comando(ServidorControl servidor, String linea) throws IOException {
+    return peticion(servidor, "POST /comando", linea, "Host: 127.0.0.1:" + servidor.puerto(), BEARER);
+  }
+
+  // HTTP a mano: los clientes del JDK no dejan fijar Host.
+  private static String peticion(ServidorControl servidor, String linea, String cuerpo, String... cabeceras)
+      throws IOException {
+    byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), servidor.puerto())) {
+      StringBuilder peticion = new StringBuilder(linea).append(" HTTP/1.1\r\n");
+      for (String cabecera : cabeceras) {
+        peticion.append(cabecera).append("\r\n");
+      }
+      peticion.append("Content-Length: ").append(bytes.length).append("\r\nConnection: close\r\n\r\n");
+      OutputStream salida = socket.getOutputStream();
+      salida.write(peticion.toString().getBytes(StandardCharsets.UTF_8));
+      salida.write(bytes);
+      salida.flush();
+      return new String(socket.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
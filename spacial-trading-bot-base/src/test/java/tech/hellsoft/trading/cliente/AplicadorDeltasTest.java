@@ -0,0 +1,151 @@
+package tech.hellsoft.trading.cliente;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.BolsaDePrueba;
+import tech.hellsoft.trading.dto.server.EventDeltaMessage;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.metricas.RegistroMetricas;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.hellsoft.trading.BolsaDePrueba.esperar;
+
+class AplicadorDeltasTest {
+
+  private static final Product PRODUCTO = Product.GUACA;
+
+  private final EstadoCliente estado = new EstadoCliente();
+  private final RegistroMetricas metricas = new RegistroMetricas();
+  private final AtomicInteger resyncs = new AtomicInteger();
+  private final AplicadorDeltas deltas = new AplicadorDeltas(estado, metricas, resyncs::incrementAndGet);
+
+  @Test
+  void inventarioAbsolutoYRelativo() {
+    assertEquals(AplicadorDeltas.Resultado.APLICADO, deltas.aplicar(inventario(1, "quantity", 10)));
+    assertEquals(10, estado.cantidadDisponible(PRODUCTO));
+    assertEquals(AplicadorDeltas.Resultado.APLICADO, deltas.aplicar(inventario(2, "delta", -3)));
+    assertEquals(7, estado.cantidadDisponible(PRODUCTO));
+  }
+
+  @Test
+  void versionRepetidaSeDescarta() {
+    deltas.aplicar(inventario(5, "quantity", 4));
+    assertEquals(AplicadorDeltas.Resultado.DUPLICADO, deltas.aplicar(inventario(5, "delta", 1)));
+    assertEquals(AplicadorDeltas.Resultado.DUPLICADO, deltas.aplicar(inventario(3, "delta", 1)));
+    assertEquals(4, estado.cantidadDisponible(PRODUCTO));
+  }
+
+  @Test
+  void huecoPideUnSoloResyncHastaElLogin() {
+    deltas.aplicar(inventario(1, "quantity", 4));
+    assertEquals(AplicadorDeltas.Resultado.HUECO, deltas.aplicar(inventario(3, "delta", 1)));
+    assertEquals(AplicadorDeltas.Resultado.ESPERANDO_RESYNC, deltas.aplicar(inventario(4, "delta", 1)));
+    assertEquals(1, resyncs.get());
+    assertEquals(4, estado.cantidadDisponible(PRODUCTO));
+
+    deltas.sesionSincronizada();
+    assertEquals(AplicadorDeltas.Resultado.APLICADO, deltas.aplicar(inventario(9, "delta", 2)));
+    assertEquals(AplicadorDeltas.Resultado.APLICADO, deltas.aplicar(inventario(10, "delta", 1)));
+    assertEquals(7, estado.cantidadDisponible(PRODUCTO));
+    assertEquals(1L, (long) metricas.contadores().get("deltas.hueco"));
+  }
+
+  /** Si el login no llega se reintenta el resync y, agotados los reintentos, se vuelve a aplicar. */
+  @Test
+  void resyncSinRespuestaSeReintentaYLuegoSeAbandona() {
+    AtomicLong reloj = new AtomicLong();
+    AplicadorDeltas conReloj = new AplicadorDeltas(estado, metricas, resyncs::incrementAndGet, reloj::get);
+    conReloj.aplicar(inventario(1, "quantity", 4));
+    assertEquals(AplicadorDeltas.Resultado.HUECO, conReloj.aplicar(inventario(3, "delta", 1)));
+
+    reloj.addAndGet(TimeUnit.SECONDS.toNanos(9));
+    assertEquals(AplicadorDeltas.Resultado.ESPERANDO_RESYNC, conReloj.aplicar(inventario(4, "delta", 1)));
+    assertEquals(1, resyncs.get());
+    for (int reintento = 2; reintento <= 3; reintento++) {
+      reloj.addAndGet(TimeUnit.SECONDS.toNanos(10));
+      assertEquals(AplicadorDeltas.Resultado.ESPERANDO_RESYNC, conReloj.aplicar(inventario(4, "delta", 1)));
+      assertEquals(reintento, resyncs.get());
+    }
+
+    reloj.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    assertEquals(AplicadorDeltas.Resultado.APLICADO, conReloj.aplicar(inventario(8, "delta", 2)));
+    assertEquals(AplicadorDeltas.Resultado.APLICADO, conReloj.aplicar(inventario(9, "delta", 1)));
+    assertEquals(7, estado.cantidadDisponible(PRODUCTO));
+    assertEquals(3, resyncs.get());
+    assertEquals(1L, (long) metricas.contadores().get("deltas.resync_abandonado"));
+  }
+
+  @Test
+  void precioSaldoYAutorizacion() {
+    JsonObject precio = conProducto();
+    precio.addProperty("mid", 12.5);
+    assertEquals(AplicadorDeltas.Resultado.APLICADO, deltas.aplicar(TipoDelta.PRICE.mensaje(1, precio)));
+    assertEquals(12.5, estado.precios().get(PRODUCTO), 1e-9);
+
+    JsonObject saldo = new JsonObject();
+    saldo.addProperty("balance", 500.0);
+    deltas.aplicar(TipoDelta.BALANCE.mensaje(2, saldo));
+    JsonObject ajuste = new JsonObject();
+    ajuste.addProperty("delta", -20.0);
+    deltas.aplicar(TipoDelta.BALANCE.mensaje(3, ajuste));
+    assertEquals(480.0, estado.saldo(), 1e-9);
+
+    JsonObject autorizados = new JsonObject();
+    JsonArray lista = new JsonArray();
+    lista.add(PRODUCTO.getValue());
+    autorizados.add("authorizedProducts", lista);
+    deltas.aplicar(TipoDelta.AUTHORIZATION.mensaje(4, autorizados));
+    assertTrue(estado.productoAutorizado(PRODUCTO));
+    assertFalse(estado.productoAutorizado(Product.SEBO));
+  }
+
+  @Test
+  void sinTipoODatosEsDesconocido() {
+    assertEquals(AplicadorDeltas.Resultado.DESCONOCIDO, deltas.aplicar(new EventDeltaMessage()));
+    assertEquals(AplicadorDeltas.Resultado.INVALIDO, deltas.aplicar(TipoDelta.INVENTORY.mensaje(1, new JsonObject())));
+  }
+
+  /** Contra la bolsa simulada: un delta perdido provoca un re-login y luego se vuelve a aplicar. */
+  @Test
+  void deltaPerdidoEnElSimuladorResincroniza() throws Exception {
+    try (BolsaDePrueba prueba = BolsaDePrueba.conectada("deltas")) {
+      ClienteBolsa cliente = prueba.cliente();
+      Product basico = prueba.productoBasico();
+      assertNotNull(basico, "la especie debe tener un producto sin ingredientes");
+      int porLote = cliente.unidadesPorLote();
+
+      cliente.producir(basico.getValue(), false);
+      esperar(() -> prueba.contador("deltas.aplicado") == 1);
+
+      prueba.bolsa().omitirProximoDelta();
+      cliente.producir(basico.getValue(), false);
+      cliente.producir(basico.getValue(), false);
+      esperar(() -> prueba.contador("deltas.hueco") == 1);
+
+      cliente.producir(basico.getValue(), false);
+      esperar(() -> prueba.contador("deltas.aplicado") == 2);
+      assertEquals(4 * porLote, cliente.estado().cantidadDisponible(basico));
+    }
+  }
+
+  private static EventDeltaMessage inventario(long version, String campo, int valor) {
+    JsonObject datos = conProducto();
+    datos.addProperty(campo, valor);
+    return TipoDelta.INVENTORY.mensaje(version, datos);
+  }
+
+  private static JsonObject conProducto() {
+    JsonObject datos = new JsonObject();
+    datos.addProperty("product", PRODUCTO.getValue());
+    return datos;
+  }
+
+}
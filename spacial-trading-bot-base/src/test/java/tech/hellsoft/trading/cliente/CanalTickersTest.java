@@ -0,0 +1,81 @@
+package tech.hellsoft.trading.cliente;
+
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.dto.server.TickerMessage;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.metricas.RegistroMetricas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CanalTickersTest {
+
+  private final RegistroMetricas metricas = new RegistroMetricas();
+  private final CanalTickers canal = new CanalTickers(metricas.contador("ticker.conflados"));
+
+  /** Cada casillero guarda solo el último ticker del producto; tomarlo lo vacía. */
+  @Test
+  void casilleroGuardaElUltimoYTomarLoVacia() {
+    CanalTickers.Suscripcion suscripcion = canal.suscribir();
+    canal.publicar(ticker(Product.GUACA, 10.0));
+    TickerMessage ultimo = ticker(Product.GUACA, 11.0);
+    canal.publicar(ultimo);
+
+    assertSame(ultimo, suscripcion.tomar(Product.GUACA));
+    assertNull(suscripcion.tomar(Product.GUACA));
+    assertNull(suscripcion.tomar(Product.SEBO));
+    assertEquals(2, suscripcion.recibidos());
+  }
+
+  @Test
+  void drenarEntregaUnoPorProductoYVacia() {
+    CanalTickers.Suscripcion suscripcion = canal.suscribir();
+    canal.publicar(ticker(Product.GUACA, 10.0));
+    TickerMessage guaca = ticker(Product.GUACA, 12.0);
+    TickerMessage sebo = ticker(Product.SEBO, 5.0);
+    canal.publicar(guaca);
+    canal.publicar(sebo);
+
+    List<TickerMessage> entregados = new ArrayList<>();
+    assertEquals(2, suscripcion.drenar(entregados::add));
+    assertEquals(List.of(guaca, sebo), entregados);
+    assertEquals(0, suscripcion.drenar(entregados::add));
+    assertNull(suscripcion.tomar(Product.GUACA));
+  }
+
+  /** Cada suscripción cuenta lo que pisó y el contador compartido suma las de todas. */
+  @Test
+  void confladosPorSuscripcionYCompartidos() {
+    CanalTickers.Suscripcion lenta = canal.suscribir();
+    CanalTickers.Suscripcion rapida = canal.suscribir();
+    canal.publicar(ticker(Product.GUACA, 10.0));
+    rapida.drenar(t -> { });
+    canal.publicar(ticker(Product.GUACA, 11.0));
+    canal.publicar(ticker(Product.GUACA, 12.0));
+
+    assertEquals(2, lenta.conflados());
+    assertEquals(1, rapida.conflados());
+    assertEquals(3, canal.conflados());
+    assertEquals(3L, (long) metricas.contadores().get("ticker.conflados"));
+  }
+
+  @Test
+  void cancelarDejaDeRecibir() {
+    CanalTickers.Suscripcion suscripcion = canal.suscribir();
+    suscripcion.cancelar();
+    canal.publicar(ticker(Product.GUACA, 10.0));
+
+    assertEquals(0, canal.suscriptores());
+    assertEquals(0, suscripcion.recibidos());
+    assertNull(suscripcion.tomar(Product.GUACA));
+  }
+
+  private static TickerMessage ticker(Product producto, double mid) {
+    return TickerMessage.builder().type(MessageType.TICKER).product(producto).mid(mid).build();
+  }
+}
@@ -0,0 +1,39 @@
+package tech.hellsoft.trading.cliente;
+
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.BolsaDePrueba;
+import tech.hellsoft.trading.dto.server.OfferMessage;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static tech.hellsoft.trading.BolsaDePrueba.esperar;
+
+class ClienteBolsaTest {
+
+  /** Aceptar una oferta es una venta: consume los lotes FIFO y realiza el P&L. */
+  @Test
+  void aceptarOfertaRealizaPnl() throws Exception {
+    try (BolsaDePrueba prueba = BolsaDePrueba.conectada("ofertas")) {
+      ClienteBolsa cliente = prueba.cliente();
+      Product basico = prueba.productoBasico();
+      assertNotNull(basico, "la especie debe tener un producto sin ingredientes");
+      int porLote = cliente.unidadesPorLote();
+
+      // La producción básica entra como un lote de costo cero. Se espera el delta absoluto del simulador para
+      // que no llegue después de la venta y la pise.
+      cliente.producir(basico.getValue(), false);
+      esperar(() -> prueba.contador("deltas.aplicado") == 1);
+      assertEquals(porLote, cliente.estado().cantidadDisponible(basico));
+      double realizadoAntes = cliente.estado().plRealizado();
+
+      cliente.onOffer(OfferMessage.builder().type(MessageType.OFFER).offerId("OFF-T").product(basico)
+          .quantityRequested(10).maxPrice(20.0).build());
+      cliente.aceptarOferta("OFF-T", true);
+
+      assertEquals(porLote - 10, cliente.estado().cantidadDisponible(basico));
+      assertEquals(realizadoAntes + 200.0, cliente.estado().plRealizado(), 1e-9);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package tech.hellsoft.trading.cliente;
+
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.repository.RecetaRepository;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReconciliadorEstadoTest {
+
+  /** Lo que reporta el servidor se fija, lo que solo existe localmente queda en cero y las recetas van en lote. */
+  @Test
+  void fijaInventarioDelServidorYAsignaRecetas() {
+    EstadoCliente estado = new EstadoCliente();
+    estado.reemplazarInventario(Map.of(Product.GUACA, 5, Product.SEBO, 3));
+    Map<Product, Recipe> recetas = RecetaRepository.instancia().recetasParaEspecie("Avocultores");
+
+    ResultadoReconciliacion resultado = ReconciliadorEstado.reconciliar(estado, 100.0,
+        Map.of(Product.GUACA, 8, Product.PITA, 2), recetas);
+
+    assertEquals(8, estado.cantidadDisponible(Product.GUACA));
+    assertEquals(2, estado.cantidadDisponible(Product.PITA));
+    assertEquals(0, estado.cantidadDisponible(Product.SEBO));
+    assertEquals(3, resultado.productosDescuadrados());
+    assertEquals(3 + 2 + 3, resultado.unidadesDescuadradas());
+    assertEquals(recetas.size(), resultado.recetasActualizadas());
+    assertEquals(recetas.keySet(), estado.recetas().keySet());
+  }
+}
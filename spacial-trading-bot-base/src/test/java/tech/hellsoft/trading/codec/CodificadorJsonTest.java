@@ -0,0 +1,77 @@
+package tech.hellsoft.trading.codec;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.dto.client.AcceptOfferMessage;
+import tech.hellsoft.trading.dto.client.OrderMessage;
+import tech.hellsoft.trading.dto.client.ProductionUpdateMessage;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.OrderMode;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/** {@link CodificadorJson} debe producir exactamente los bytes de Gson, con nulos, escapes y no ASCII. */
+class CodificadorJsonTest {
+
+  private static final OrderMessage ORDEN = OrderMessage.builder().type(MessageType.ORDER)
+      .clOrdID("ORD-1730000000000-42").side(OrderSide.BUY).mode(OrderMode.MARKET).product(Product.PALTA_OIL).qty(25)
+      .message("Orden CLI").build();
+
+  private final Gson gson = new Gson();
+  private final CodificadorJson codificador = new CodificadorJson();
+
+  @Test
+  void ordenesIgualesAGson() {
+    List<OrderMessage> ordenes = List.of(
+        ORDEN,
+        new OrderMessage(),
+        OrderMessage.builder().type(MessageType.ORDER).clOrdID("x\"y\\z\n\t<a>&b='c'").side(OrderSide.SELL)
+            .mode(OrderMode.LIMIT).product(Product.H_GUACA).qty(-3).limitPrice(1.0E-7).expiresAt("2025-01-01T00:00:00Z")
+            .message("ñandú 🥑 \u0001 \u2028 \u2029").debugMode("").build(),
+        OrderMessage.builder().qty(Integer.MIN_VALUE).limitPrice(123456789.125).build());
+    for (OrderMessage orden : ordenes) {
+      comparar(gson.toJson(orden), codificador.codificar(orden));
+    }
+  }
+
+  @Test
+  void ordenSinDtoIgualAGson() {
+    comparar(gson.toJson(ORDEN), codificador.codificarOrden(ORDEN.getClOrdID(), ORDEN.getSide(), ORDEN.getMode(),
+        ORDEN.getProduct(), ORDEN.getQty(), ORDEN.getLimitPrice(), ORDEN.getMessage()));
+  }
+
+  @Test
+  void respuestasDeOfertaIgualesAGson() {
+    List<AcceptOfferMessage> respuestas = List.of(
+        AcceptOfferMessage.builder().type(MessageType.ACCEPT_OFFER).offerId("OFF-7").accept(true)
+            .quantityOffered(10).priceOffered(12.5).build(),
+        new AcceptOfferMessage(),
+        AcceptOfferMessage.builder().offerId("OFF-<1>").accept(false).quantityOffered(0).priceOffered(0.0).build());
+    for (AcceptOfferMessage respuesta : respuestas) {
+      comparar(gson.toJson(respuesta), codificador.codificar(respuesta));
+    }
+  }
+
+  @Test
+  void produccionIgualAGson() {
+    List<ProductionUpdateMessage> producciones = List.of(
+        ProductionUpdateMessage.builder().type(MessageType.PRODUCTION_UPDATE).product(Product.GUACA).quantity(13)
+            .build(),
+        new ProductionUpdateMessage());
+    for (ProductionUpdateMessage produccion : producciones) {
+      comparar(gson.toJson(produccion), codificador.codificar(produccion));
+    }
+  }
+
+  private void comparar(String esperado, int largo) {
+    byte[] obtenido = Arrays.copyOf(codificador.buffer(), largo);
+    assertArrayEquals(esperado.getBytes(StandardCharsets.UTF_8), obtenido,
+        () -> "difiere de Gson:\n  gson: " + esperado + "\n  codec: " + new String(obtenido, StandardCharsets.UTF_8));
+  }
+}
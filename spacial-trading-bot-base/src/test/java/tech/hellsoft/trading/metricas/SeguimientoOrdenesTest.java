@@ -0,0 +1,25 @@
+package tech.hellsoft.trading.metricas;
+
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeguimientoOrdenesTest {
+
+  /** Una orden cuyo envío falló deja de contar como abierta; las demás siguen su curso. */
+  @Test
+  void envioFallidoNoQuedaAbierto() {
+    SeguimientoOrdenes seguimiento = new SeguimientoOrdenes(new RegistroMetricas());
+    seguimiento.registrarEnvio("ORD-1", Product.GUACA, OrderSide.BUY, 5, seguimiento.decision());
+    seguimiento.registrarEnvio("ORD-2", Product.GUACA, OrderSide.SELL, 3, seguimiento.decision());
+    assertEquals(2, seguimiento.ordenesAbiertas());
+
+    seguimiento.descartarEnvio("ORD-1");
+    assertEquals(1, seguimiento.ordenesAbiertas());
+
+    seguimiento.registrarFill("ORD-2", 3);
+    assertEquals(0, seguimiento.ordenesAbiertas());
+  }
+}
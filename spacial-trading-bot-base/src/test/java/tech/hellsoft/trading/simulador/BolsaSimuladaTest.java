@@ -0,0 +1,92 @@
+package tech.hellsoft.trading.simulador;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.CalculadoraProduccion;
+import tech.hellsoft.trading.EventListener;
+import tech.hellsoft.trading.dto.client.OrderMessage;
+import tech.hellsoft.trading.dto.client.ProductionUpdateMessage;
+import tech.hellsoft.trading.dto.server.EventDeltaMessage;
+import tech.hellsoft.trading.dto.server.Recipe;
+import tech.hellsoft.trading.enums.MessageType;
+import tech.hellsoft.trading.enums.OrderMode;
+import tech.hellsoft.trading.enums.OrderSide;
+import tech.hellsoft.trading.enums.Product;
+import tech.hellsoft.trading.repository.RecetaRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class BolsaSimuladaTest {
+
+  private static final String ESPECIE = "Avocultores";
+  private static final Gson GSON = new Gson();
+
+  /** K lotes en un solo ProductionUpdate: el básico no consume ingredientes y el premium consume K veces. */
+  @Test
+  void produccionPorLotesConsumeIngredientesSoloEnPremium() throws Exception {
+    ParametrosSimulacion parametros = ParametrosSimulacion.porDefecto();
+    Recipe receta = RecetaRepository.instancia().recetaPara(ESPECIE, Product.SEBO);
+    int requerido = receta.getIngredients().get(Product.NUCREM);
+    int basicas = CalculadoraProduccion.calcularUnidades(parametros.rol());
+    int premium = CalculadoraProduccion.aplicarBonusPremium(basicas, receta);
+    int lotes = 2;
+
+    BolsaSimulada bolsa = new BolsaSimulada(ESPECIE, "test", parametros);
+    BlockingQueue<EventDeltaMessage> deltas = new LinkedBlockingQueue<>();
+    bolsa.addListener(escuchaDeltas(deltas));
+    try {
+      bolsa.conectar("sim://test", "test");
+      bolsa.enviarOrden(OrderMessage.builder().type(MessageType.ORDER).clOrdID("T-1").side(OrderSide.BUY)
+          .mode(OrderMode.MARKET).product(Product.NUCREM).qty(requerido * lotes).build());
+
+      bolsa.enviarActualizacionProduccion(produccion(Product.SEBO, basicas * lotes));
+      JsonObject tras = inventario(deltas);
+      assertEquals(requerido * lotes, cantidad(tras, Product.NUCREM), "un lote básico no consume ingredientes");
+      assertEquals(basicas * lotes, cantidad(tras, Product.SEBO));
+
+      bolsa.enviarActualizacionProduccion(produccion(Product.SEBO, premium * lotes));
+      tras = inventario(deltas);
+      assertEquals(0, cantidad(tras, Product.NUCREM), "el premium consume los ingredientes de cada lote");
+      assertEquals((basicas + premium) * lotes, cantidad(tras, Product.SEBO));
+    } finally {
+      bolsa.detener();
+    }
+  }
+
+  private static ProductionUpdateMessage produccion(Product producto, int unidades) {
+    return ProductionUpdateMessage.builder().type(MessageType.PRODUCTION_UPDATE).product(producto).quantity(unidades)
+        .build();
+  }
+
+  // Cada producción publica un delta INVENTORY con el inventario completo del servidor.
+  private static JsonObject inventario(BlockingQueue<EventDeltaMessage> deltas) throws InterruptedException {
+    EventDeltaMessage delta = deltas.poll(5, TimeUnit.SECONDS);
+    assertNotNull(delta, "la producción debe publicar un delta de inventario");
+    return GSON.toJsonTree(delta).getAsJsonObject().getAsJsonObject("payload").getAsJsonObject("inventory");
+  }
+
+  private static int cantidad(JsonObject inventario, Product producto) {
+    return inventario.has(producto.getValue()) ? inventario.get(producto.getValue()).getAsInt() : 0;
+  }
+
+  private static EventListener escuchaDeltas(BlockingQueue<EventDeltaMessage> deltas) {
+    return (EventListener) Proxy.newProxyInstance(EventListener.class.getClassLoader(),
+        new Class<?>[] {EventListener.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+          case "onEventDelta" -> {
+            deltas.add((EventDeltaMessage) args[0]);
+            yield null;
+          }
+          case "equals" -> proxy == args[0];
+          case "hashCode" -> System.identityHashCode(proxy);
+          case "toString" -> "escuchaDeltas";
+          default -> null;
+        });
+  }
+}
@@ -0,0 +1,47 @@
+package tech.hellsoft.trading.simulador;
+
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.cliente.HistorialPrecios;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ModeloPrecioTest {
+
+  /** Una serie GBM generada con parámetros conocidos y tickers cada 250 ms los recupera. */
+  @Test
+  void recuperaDerivaYVolatilidadDeUnGbm() {
+    double deriva = 0.01;
+    double volatilidad = 0.02;
+    int n = 40_000;
+    long pasoMs = 250L;
+    double dt = pasoMs / 1000.0;
+
+    long[] tiempos = new long[n];
+    double[] precios = new double[n];
+    SplittableRandom azar = new SplittableRandom(7L);
+    precios[0] = 100.0;
+    for (int i = 1; i < n; i++) {
+      tiempos[i] = tiempos[i - 1] + pasoMs;
+      double paso = (deriva - volatilidad * volatilidad / 2.0) * dt + volatilidad * Math.sqrt(dt) * azar.nextGaussian();
+      precios[i] = precios[i - 1] * Math.exp(paso);
+    }
+
+    ModeloPrecio modelo = ModeloPrecio.ajustar(new HistorialPrecios.Serie(tiempos, precios), 0.0);
+    // Error estándar: σ/√T para la deriva (T = 10 000 s) y σ/√(2n) para la volatilidad; se toleran ~4 errores.
+    assertEquals(deriva, modelo.deriva(), 1e-3);
+    assertEquals(volatilidad, modelo.volatilidad(), 3e-4);
+    assertEquals(precios[n - 1], modelo.precioInicial(), 0.0);
+    assertEquals(n, modelo.muestras());
+  }
+
+  @Test
+  void pocasMuestrasUsanValoresPorDefecto() {
+    HistorialPrecios.Serie serie = new HistorialPrecios.Serie(new long[] {0L, 1_000L}, new double[] {10.0, 11.0});
+    ModeloPrecio modelo = ModeloPrecio.ajustar(serie, 12.0);
+    assertEquals(12.0, modelo.precioInicial(), 0.0);
+    assertEquals(0.0, modelo.deriva(), 0.0);
+    assertEquals(ModeloPrecio.VOLATILIDAD_POR_DEFECTO, modelo.volatilidad(), 0.0);
+  }
+}
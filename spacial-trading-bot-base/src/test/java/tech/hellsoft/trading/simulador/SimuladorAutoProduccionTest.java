@@ -0,0 +1,40 @@
+package tech.hellsoft.trading.simulador;
+
+import org.junit.jupiter.api.Test;
+import tech.hellsoft.trading.BolsaDePrueba;
+import tech.hellsoft.trading.cliente.ClienteBolsa;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static tech.hellsoft.trading.BolsaDePrueba.esperar;
+
+class SimuladorAutoProduccionTest {
+
+  /** Con la misma semilla el ranking es idéntico sin importar cuántas sesiones simula cada tarea. */
+  @Test
+  void rankingNoDependeDelTamanoDeTarea() throws Exception {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try (BolsaDePrueba prueba = BolsaDePrueba.conectada("montecarlo")) {
+      ClienteBolsa cliente = prueba.cliente();
+      ParametrosMonteCarlo parametros = ParametrosMonteCarlo.porDefecto().conSesiones(301, 120);
+      esperar(() -> SimuladorAutoProduccion.desde(cliente, parametros).candidatos() > 0);
+
+      SimuladorAutoProduccion simulador = SimuladorAutoProduccion.desde(cliente, parametros);
+      List<SimuladorAutoProduccion.Resultado> referencia = simulador.ejecutar(pool, parametros.sesiones());
+      assertFalse(referencia.isEmpty());
+      for (int hoja : new int[] {1, 7, 64}) {
+        assertEquals(referencia, simulador.ejecutar(pool, hoja), "hoja de " + hoja + " sesiones");
+      }
+      // Con el límite ya vencido ninguna hoja arranca.
+      assertThrows(CancellationException.class, () -> simulador.ejecutar(pool, Duration.ZERO));
+    } finally {
+      pool.shutdown();
+    }
+  }
+}